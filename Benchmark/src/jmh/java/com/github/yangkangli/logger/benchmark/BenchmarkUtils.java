@@ -0,0 +1,79 @@
+package com.github.yangkangli.logger.benchmark;
+
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.core.ILogAdapter;
+import com.github.yangkangli.logger.core.LogEvent;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 基准测试的公共方法
+ */
+final class BenchmarkUtils {
+
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * 创建临时的日志目录
+     *
+     * @return
+     * @throws IOException
+     */
+    static File createLogFolder() throws IOException {
+        File folder = File.createTempFile("alogger-bench", "");
+        if (!folder.delete() || !folder.mkdirs()) {
+            throw new IOException("Cannot create " + folder);
+        }
+        return folder;
+    }
+
+    /**
+     * 删除日志目录
+     *
+     * @param folder
+     */
+    static void deleteLogFolder(File folder) {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    /**
+     * 接收全部日志但不输出的日志适配器，保留最后一条日志内容，避免日志内容的生成被JIT消除
+     */
+    static class SinkAdapter implements ILogAdapter {
+
+        volatile String lastMessage;
+
+        private final boolean loggable;
+
+        SinkAdapter() {
+            this(true);
+        }
+
+        SinkAdapter(boolean loggable) {
+            this.loggable = loggable;
+        }
+
+        @Override
+        public boolean isLoggable() {
+            return loggable;
+        }
+
+        @Override
+        public int getMinPriority() {
+            return 0;
+        }
+
+        @Override
+        public void log(LogEvent event, BaseLogStrategy strategy) {
+            lastMessage = event.getMessage();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.yangkangli.logger.benchmark;
+
+import com.github.yangkangli.logger.core.LoggerCore;
+import com.github.yangkangli.logger.core.ThrowableRenderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoggerCore.json()/xml()与ThrowableRenderer.render()的吞吐量与延迟
+ * <p>
+ * 日志交给一个不输出的日志适配器，只测量格式化本身。子类分别以1、4、16个线程运行。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class FormatBenchmark {
+
+    private static final String TAG = "Bench";
+
+    private static final String JSON = "{\"id\":42,\"name\":\"alice\",\"roles\":[\"admin\",\"dev\"],"
+            + "\"profile\":{\"age\":30,\"email\":\"alice@example.com\",\"active\":true}}";
+
+    private static final String XML = "<user id=\"42\"><name>alice</name><roles><role>admin</role>"
+            + "<role>dev</role></roles><profile age=\"30\" active=\"true\"/></user>";
+
+    private LoggerCore loggerCore;
+
+    private ThrowableRenderer renderer;
+
+    private Throwable throwable;
+
+    @Setup
+    public void setUp() {
+        loggerCore = new LoggerCore();
+        loggerCore.addAdapter(new BenchmarkUtils.SinkAdapter());
+        renderer = new ThrowableRenderer.Builder().build();
+        throwable = new IllegalStateException("outer", new RuntimeException("inner"));
+    }
+
+    @Benchmark
+    public void json() {
+        loggerCore.json(TAG, null, JSON);
+    }
+
+    @Benchmark
+    public void xml() {
+        loggerCore.xml(TAG, null, XML);
+    }
+
+    @Benchmark
+    public String renderThrowable() {
+        return renderer.render(throwable);
+    }
+
+    @Threads(1)
+    public static class SingleThread extends FormatBenchmark {
+    }
+
+    @Threads(4)
+    public static class Threads4 extends FormatBenchmark {
+    }
+
+    @Threads(16)
+    public static class Threads16 extends FormatBenchmark {
+    }
+}
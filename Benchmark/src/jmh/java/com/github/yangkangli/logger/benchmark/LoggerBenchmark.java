@@ -0,0 +1,105 @@
+package com.github.yangkangli.logger.benchmark;
+
+import com.github.yangkangli.logger.ALogger;
+import com.github.yangkangli.logger.adapter.DiskAdapter;
+import com.github.yangkangli.logger.disk.DiskWriter;
+import com.github.yangkangli.logger.strategy.DefaultLogStrategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ALogger.d()/e()的吞吐量与延迟
+ * <p>
+ * 按不同的配置运行：
+ * <ul>
+ * <li>none：没有日志适配器</li>
+ * <li>disabled：日志适配器均被禁用</li>
+ * <li>disk：DiskAdapter，不显示线程名与调用栈</li>
+ * <li>diskThreadName：DiskAdapter，显示线程名</li>
+ * <li>diskStackTrace：DiskAdapter，显示线程名与调用栈</li>
+ * </ul>
+ * 子类分别以1、4、16个线程同时打印日志。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class LoggerBenchmark {
+
+    private static final String TAG = "Bench";
+
+    private static final String MESSAGE = "user=42 action=login result=ok elapsed=12ms";
+
+    private static final Throwable THROWABLE = new IllegalStateException("connection reset");
+
+    @Param({"none", "disabled", "disk", "diskThreadName", "diskStackTrace"})
+    public String setup;
+
+    private File logFolder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ALogger.clearLogAdapters();
+        boolean showThreadName = setup.equals("diskThreadName") || setup.equals("diskStackTrace");
+        boolean showStackTrace = setup.equals("diskStackTrace");
+        ALogger.setLogStrategy(new DefaultLogStrategy.Builder()
+                .setShowThreadName(showThreadName)
+                .setShowStackTrace(showStackTrace)
+                .build());
+
+        if (setup.equals("disabled")) {
+            logFolder = BenchmarkUtils.createLogFolder();
+            ALogger.addLogAdapter(
+                    new BenchmarkUtils.SinkAdapter(false),
+                    new DiskAdapter.Builder().setLoggable(false).setLogFilePath(logFolder.getPath()).build());
+        } else if (setup.startsWith("disk")) {
+            logFolder = BenchmarkUtils.createLogFolder();
+            ALogger.addLogAdapter(new DiskAdapter.Builder().setLogFilePath(logFolder.getPath()).build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ALogger.clearLogAdapters();
+        if (logFolder != null) {
+            // 写入剩余的日志并结束写日志线程，再删除日志目录
+            DiskWriter.getDefault().shutdown(10 * 1000L);
+            BenchmarkUtils.deleteLogFolder(logFolder);
+        }
+    }
+
+    @Benchmark
+    public void debug() {
+        ALogger.d(TAG, MESSAGE);
+    }
+
+    @Benchmark
+    public void error() {
+        ALogger.e(TAG, MESSAGE, THROWABLE);
+    }
+
+    @Threads(1)
+    public static class SingleThread extends LoggerBenchmark {
+    }
+
+    @Threads(4)
+    public static class Threads4 extends LoggerBenchmark {
+    }
+
+    @Threads(16)
+    public static class Threads16 extends LoggerBenchmark {
+    }
+}
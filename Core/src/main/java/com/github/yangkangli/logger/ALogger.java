@@ -1,8 +1,15 @@
 package com.github.yangkangli.logger;
 
+import com.github.yangkangli.logger.core.AsyncDispatcher;
 import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.core.DuplicateFilter;
 import com.github.yangkangli.logger.core.ILogAdapter;
 import com.github.yangkangli.logger.core.LoggerCore;
+import com.github.yangkangli.logger.core.LoggerMetrics;
+import com.github.yangkangli.logger.core.MessageSupplier;
+import com.github.yangkangli.logger.core.RateLimiter;
+import com.github.yangkangli.logger.core.ThrowableRenderer;
+import com.github.yangkangli.logger.utils.Constant;
 
 public class ALogger {
 
@@ -53,12 +60,101 @@ public class ALogger {
      */
     public static void addLogAdapter(ILogAdapter... logAdapters) {
         if (logAdapters != null && logAdapters.length > 0) {
-            for (ILogAdapter adapter : logAdapters) {
-                getInstance().loggerCore.addAdapter(adapter);
-            }
+            getInstance().loggerCore.addAdapters(logAdapters);
         }
     }
 
+    /**
+     * 移除日志适配器
+     *
+     * @param logAdapter
+     * @return 是否移除成功
+     */
+    public static boolean removeLogAdapter(ILogAdapter logAdapter) {
+        return getInstance().loggerCore.removeAdapter(logAdapter);
+    }
+
+    /**
+     * 替换日志适配器，新的日志适配器位于原来的位置
+     *
+     * @param oldAdapter
+     * @param newAdapter
+     * @return 是否替换成功
+     */
+    public static boolean replaceLogAdapter(ILogAdapter oldAdapter, ILogAdapter newAdapter) {
+        return getInstance().loggerCore.replaceAdapter(oldAdapter, newAdapter);
+    }
+
+    /**
+     * 清除全部日志适配器
+     */
+    public static void clearLogAdapters() {
+        getInstance().loggerCore.clearAdapter();
+    }
+
+    /**
+     * 设置全局的最低日志级别，低于该级别的日志不会被任何日志适配器打印
+     *
+     * @param priority 如{@link Constant#INFO}
+     */
+    public static void setMinPriority(int priority) {
+        getInstance().loggerCore.setMinPriority(priority);
+    }
+
+    /**
+     * 设置日志限流器，按SubTag与日志级别限制日志速率；传入null则不限流
+     *
+     * @param rateLimiter
+     */
+    public static void setRateLimiter(RateLimiter rateLimiter) {
+        getInstance().loggerCore.setRateLimiter(rateLimiter);
+    }
+
+    /**
+     * 设置重复日志合并器，重复的日志只打印一次，并在结束时打印重复次数；传入null则不合并
+     *
+     * @param duplicateFilter
+     */
+    public static void setDuplicateFilter(DuplicateFilter duplicateFilter) {
+        getInstance().loggerCore.setDuplicateFilter(duplicateFilter);
+    }
+
+    /**
+     * 设置异常堆栈的排版，如每个cause最多打印的帧数、是否把重复的异常合并为一行引用
+     *
+     * @param renderer
+     */
+    public static void setThrowableRenderer(ThrowableRenderer renderer) {
+        getInstance().loggerCore.setThrowableRenderer(renderer);
+    }
+
+    /**
+     * 设置日志指标，统计日志数量与各个日志适配器的耗时；传入null则不统计
+     *
+     * @param metrics
+     */
+    public static void setMetrics(LoggerMetrics metrics) {
+        getInstance().loggerCore.setMetrics(metrics);
+    }
+
+    /**
+     * 获得日志指标，未设置时返回null
+     *
+     * @return
+     */
+    public static LoggerMetrics getMetrics() {
+        return getInstance().loggerCore.getMetrics();
+    }
+
+    /**
+     * 设置异步日志分发器，开启后日志在专门的线程中分发给各个日志适配器；传入null则关闭异步模式
+     *
+     * @param dispatcher
+     */
+    public static void setAsyncDispatcher(AsyncDispatcher dispatcher) {
+        getInstance().loggerCore.setAsyncDispatcher(dispatcher);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public static void v(Object message) {
@@ -81,6 +177,22 @@ public class ALogger {
         getInstance().loggerCore.v(subTag, message, throwable);
     }
 
+    public static void vLazy(MessageSupplier supplier) {
+        getInstance().loggerCore.v(null, supplier, null);
+    }
+
+    public static void vLazy(String subTag, MessageSupplier supplier) {
+        getInstance().loggerCore.v(subTag, supplier, null);
+    }
+
+    public static void vLazy(String subTag, MessageSupplier supplier, Throwable throwable) {
+        getInstance().loggerCore.v(subTag, supplier, throwable);
+    }
+
+    public static void vFormat(String subTag, String template, Object... args) {
+        getInstance().loggerCore.format(Constant.VERBOSE, subTag, template, args);
+    }
+
 
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -104,6 +216,22 @@ public class ALogger {
         getInstance().loggerCore.d(subTag, message, throwable);
     }
 
+    public static void dLazy(MessageSupplier supplier) {
+        getInstance().loggerCore.d(null, supplier, null);
+    }
+
+    public static void dLazy(String subTag, MessageSupplier supplier) {
+        getInstance().loggerCore.d(subTag, supplier, null);
+    }
+
+    public static void dLazy(String subTag, MessageSupplier supplier, Throwable throwable) {
+        getInstance().loggerCore.d(subTag, supplier, throwable);
+    }
+
+    public static void dFormat(String subTag, String template, Object... args) {
+        getInstance().loggerCore.format(Constant.DEBUG, subTag, template, args);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public static void i(Object message) {
@@ -126,6 +254,22 @@ public class ALogger {
         getInstance().loggerCore.i(subTag, message, throwable);
     }
 
+    public static void iLazy(MessageSupplier supplier) {
+        getInstance().loggerCore.i(null, supplier, null);
+    }
+
+    public static void iLazy(String subTag, MessageSupplier supplier) {
+        getInstance().loggerCore.i(subTag, supplier, null);
+    }
+
+    public static void iLazy(String subTag, MessageSupplier supplier, Throwable throwable) {
+        getInstance().loggerCore.i(subTag, supplier, throwable);
+    }
+
+    public static void iFormat(String subTag, String template, Object... args) {
+        getInstance().loggerCore.format(Constant.INFO, subTag, template, args);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public static void w(Object message) {
@@ -148,6 +292,22 @@ public class ALogger {
         getInstance().loggerCore.w(subTag, message, throwable);
     }
 
+    public static void wLazy(MessageSupplier supplier) {
+        getInstance().loggerCore.w(null, supplier, null);
+    }
+
+    public static void wLazy(String subTag, MessageSupplier supplier) {
+        getInstance().loggerCore.w(subTag, supplier, null);
+    }
+
+    public static void wLazy(String subTag, MessageSupplier supplier, Throwable throwable) {
+        getInstance().loggerCore.w(subTag, supplier, throwable);
+    }
+
+    public static void wFormat(String subTag, String template, Object... args) {
+        getInstance().loggerCore.format(Constant.WARN, subTag, template, args);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public static void e(Object message) {
@@ -170,6 +330,22 @@ public class ALogger {
         getInstance().loggerCore.e(subTag, message, throwable);
     }
 
+    public static void eLazy(MessageSupplier supplier) {
+        getInstance().loggerCore.e(null, supplier, null);
+    }
+
+    public static void eLazy(String subTag, MessageSupplier supplier) {
+        getInstance().loggerCore.e(subTag, supplier, null);
+    }
+
+    public static void eLazy(String subTag, MessageSupplier supplier, Throwable throwable) {
+        getInstance().loggerCore.e(subTag, supplier, throwable);
+    }
+
+    public static void eFormat(String subTag, String template, Object... args) {
+        getInstance().loggerCore.format(Constant.ERROR, subTag, template, args);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public static void json(String json) {
@@ -0,0 +1,918 @@
+package com.github.yangkangli.logger;
+
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.disk.TextRecordEncoder;
+import com.github.yangkangli.logger.disk.TimeIndex;
+import com.github.yangkangli.logger.strategy.DefaultLogStrategy;
+import com.github.yangkangli.logger.utils.Constant;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * 日志读取器，以内存映射的方式读取DiskAdapter写入的文本日志文件（yyyy-MM-dd.log），按日志而非按行迭代
+ * <p>
+ * 一条日志是从上边线到下边线、带有相同"时间 级别/Tag: "前缀的若干行。级别、SubTag、线程名称与关键字的过滤
+ * 直接在映射的字节上进行，只有匹配的日志才解码为字符串。有时间索引时，按时间范围读取会直接跳到范围附近。
+ * <p>
+ * 开启跟随模式后，读到文件末尾时{@link #next()}会等待新写入的日志，可用于实时显示；
+ * 在其他线程中调用{@link #close()}可结束等待。
+ * <p>
+ * 二进制格式与压缩的日志文件需先用BinaryLogDecoder或LogRangeReader还原为文本。
+ * 该类不是线程安全的，除{@link #close()}外只能在一个线程中使用。
+ */
+public class LogReader implements Closeable {
+
+    /**
+     * 默认每次映射的最大字节数
+     */
+    private static final int DEFAULT_WINDOW_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * 跟随模式下检查文件是否有新数据的间隔（毫秒）
+     */
+    private static final long FOLLOW_INTERVAL = 200L;
+
+    /**
+     * UTF-8编码
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * 上边线的起始字节
+     */
+    private static final byte[] TOP_CORNER = Constant.TOP_CORNER.getBytes(UTF_8);
+
+    /**
+     * 下边线的起始字节
+     */
+    private static final byte[] BOTTOM_CORNER = Constant.BOTTOM_CORNER.getBytes(UTF_8);
+
+    /**
+     * 分隔线的起始字节
+     */
+    private static final byte[] MIDDLE_CORNER = Constant.MIDDLE_CORNER.getBytes(UTF_8);
+
+    /**
+     * 线程名称行的起始字节
+     */
+    private static final byte[] THREAD_PREFIX = (Constant.HORIZONTAL_LINE + " Thread:").getBytes(UTF_8);
+
+    /**
+     * 消息内容行的起始字节
+     */
+    private static final byte[] MESSAGE_PREFIX = (Constant.HORIZONTAL_LINE + " ").getBytes(UTF_8);
+
+    /**
+     * 日志文件
+     */
+    private final File logFile;
+
+    /**
+     * 打印日志的最低级别
+     */
+    private final int minPriority;
+
+    /**
+     * 按SubTag过滤时完整Tag（基础Tag + 连接字符串 + SubTag）的UTF-8字节，不过滤时为null
+     */
+    private final byte[] fullTag;
+
+    /**
+     * 线程名称的UTF-8字节，不过滤时为null
+     */
+    private final byte[] threadName;
+
+    /**
+     * 关键字的UTF-8字节，不过滤时为null
+     */
+    private final byte[] keyword;
+
+    /**
+     * 时间范围的起始时间（包含）
+     */
+    private final long fromTimestamp;
+
+    /**
+     * 时间范围的结束时间（包含）
+     */
+    private final long toTimestamp;
+
+    /**
+     * 是否跟随文件的新内容
+     */
+    private final boolean follow;
+
+    /**
+     * 每次映射的最大字节数，超过该大小的单条日志会被跳过
+     */
+    private final int windowSize;
+
+    /**
+     * 时间格式器
+     */
+    private final SimpleDateFormat dateFormat;
+
+    /**
+     * 解析时间的位置
+     */
+    private final ParsePosition parsePosition = new ParsePosition(0);
+
+    /**
+     * 日志文件
+     */
+    private RandomAccessFile file;
+
+    /**
+     * 日志文件的FileChannel
+     */
+    private FileChannel channel;
+
+    /**
+     * 当前映射的窗口
+     */
+    private ByteBuffer window;
+
+    /**
+     * 窗口在文件中的起始位置
+     */
+    private long windowStart;
+
+    /**
+     * 下一条日志在文件中的起始位置
+     */
+    private long position;
+
+    /**
+     * 读取的结束位置，-1表示读到文件末尾
+     */
+    private long endPosition = -1;
+
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean closed;
+
+    /**
+     * 当前日志在窗口中的起始位置
+     */
+    private int recordStart;
+
+    /**
+     * 当前日志在窗口中的结束位置（包含最后的'\n'）
+     */
+    private int recordEnd;
+
+    /**
+     * 当前日志每行前缀的长度
+     */
+    private int prefixLength;
+
+    /**
+     * 当前日志级别字符在窗口中的位置
+     */
+    private int levelIndex;
+
+    /**
+     * 当前日志上边线与下边线之间各行内容（去掉前缀）的起始位置
+     */
+    private int[] lineStarts = new int[32];
+
+    /**
+     * 当前日志上边线与下边线之间各行内容的结束位置（不包含'\n'）
+     */
+    private int[] lineEnds = new int[32];
+
+    /**
+     * 当前日志上边线与下边线之间的行数
+     */
+    private int lineCount;
+
+    /**
+     * 上一次解析的时间字节
+     */
+    private byte[] lastDate = new byte[0];
+
+    /**
+     * 上一次解析的时间
+     */
+    private long lastTimestamp;
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    private LogReader(Builder builder) {
+        this.logFile = builder.logFile;
+        this.minPriority = builder.minPriority;
+        BaseLogStrategy strategy = builder.strategy == null ? new DefaultLogStrategy.Builder().build() : builder.strategy;
+        this.fullTag = builder.subTag == null || builder.subTag.length() == 0
+                ? null : getBytes(strategy.getFullTag(builder.subTag));
+        this.threadName = getBytes(builder.threadName);
+        this.keyword = getBytes(builder.keyword);
+        this.fromTimestamp = builder.fromTimestamp;
+        this.toTimestamp = builder.toTimestamp;
+        this.follow = builder.follow;
+        this.windowSize = builder.windowSize;
+        this.dateFormat = new SimpleDateFormat(builder.formatPattern);
+    }
+
+    /**
+     * 读取下一条匹配的日志
+     * <p>
+     * 跟随模式下，读到文件末尾时等待新写入的日志，直到被关闭或线程被中断
+     *
+     * @return 没有更多日志时返回null
+     * @throws IOException
+     */
+    public Record next() throws IOException {
+        if (closed) {
+            return null;
+        }
+        if (channel == null) {
+            open();
+        }
+        while (true) {
+            try {
+                while (readRecord()) {
+                    if (matches()) {
+                        Record record = decode();
+                        position = windowStart + recordEnd;
+                        return record;
+                    }
+                    position = windowStart + recordEnd;
+                }
+            } catch (IOException e) {
+                if (closed) {
+                    // 在其他线程中被关闭
+                    return null;
+                }
+                throw e;
+            }
+            if (!follow || closed || (endPosition >= 0 && position >= endPosition)) {
+                return null;
+            }
+            try {
+                Thread.sleep(FOLLOW_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (closed) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 关闭日志文件，可在其他线程中调用以结束跟随模式下的等待
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) { /* fail silently */ }
+        }
+    }
+
+    /**
+     * 打开日志文件，有时间索引时跳到时间范围附近；跟随模式下没有指定起始时间时从文件末尾开始
+     *
+     * @throws IOException
+     */
+    private void open() throws IOException {
+        String name = logFile.getName();
+        if (!name.endsWith(TextRecordEncoder.FILE_EXTENSION)) {
+            throw new IOException("Only uncompressed text log files can be read: " + name);
+        }
+        file = new RandomAccessFile(logFile, "r");
+        channel = file.getChannel();
+        if (fromTimestamp != Long.MIN_VALUE || toTimestamp != Long.MAX_VALUE) {
+            TimeIndex index = TimeIndex.read(logFile);
+            if (index != null) {
+                position = index.findStart(fromTimestamp);
+                if (toTimestamp != Long.MAX_VALUE) {
+                    endPosition = index.findEnd(toTimestamp);
+                }
+            }
+        } else if (follow) {
+            position = channel.size();
+        }
+        map(position);
+    }
+
+    /**
+     * 从position开始映射一个窗口
+     *
+     * @param start
+     * @throws IOException
+     */
+    private void map(long start) throws IOException {
+        long length = Math.min(windowSize, Math.max(channel.size() - start, 0));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+    }
+
+    /**
+     * 窗口中的数据不完整时，从position重新映射窗口
+     *
+     * @return 文件中没有更多数据时返回false
+     * @throws IOException
+     */
+    private boolean remap() throws IOException {
+        long windowEnd = windowStart + window.limit();
+        if (windowEnd >= channel.size()) {
+            return false;
+        }
+        if (windowStart == position && window.limit() >= windowSize) {
+            // 单条日志超过窗口大小，跳过
+            position = windowEnd;
+        }
+        map(position);
+        return true;
+    }
+
+    /**
+     * 从position开始找到下一条完整的日志，记录其各行的位置，跳过不完整或无法识别的行
+     *
+     * @return 没有更多完整的日志时返回false
+     * @throws IOException
+     */
+    private boolean readRecord() throws IOException {
+        while (true) {
+            if (endPosition >= 0 && position >= endPosition) {
+                return false;
+            }
+            ByteBuffer window = this.window;
+            int limit = window.limit();
+            int start = (int) (position - windowStart);
+            int lineEnd = indexOf(window, (byte) '\n', start, limit);
+            if (lineEnd < 0) {
+                if (!remap()) {
+                    return false;
+                }
+                continue;
+            }
+
+            // 上边线："时间 级别/Tag: ┌───"
+            int body = findTopBorder(window, start, lineEnd);
+            int level = body < 0 ? -1 : findLevel(window, start, body);
+            if (level < 0) {
+                position = windowStart + lineEnd + 1;
+                continue;
+            }
+
+            // 之后每行的前缀都相同，直到下边线
+            int prefix = body - start;
+            int lineStart = lineEnd + 1;
+            lineCount = 0;
+            while (true) {
+                int end = indexOf(window, (byte) '\n', lineStart, limit);
+                if (end < 0) {
+                    break;
+                }
+                if (end - lineStart < prefix || !regionMatches(window, lineStart, start, prefix)) {
+                    // 前缀不同，当前日志不完整，从这一行重新开始
+                    break;
+                }
+                int content = lineStart + prefix;
+                if (startsWith(window, content, end, BOTTOM_CORNER)) {
+                    recordStart = start;
+                    recordEnd = end + 1;
+                    prefixLength = prefix;
+                    levelIndex = level;
+                    return true;
+                }
+                addLine(content, end);
+                lineStart = end + 1;
+            }
+            if (indexOf(window, (byte) '\n', lineStart, limit) >= 0) {
+                position = windowStart + lineStart;
+            } else if (!remap()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 在原始字节上判断当前日志是否匹配过滤条件
+     *
+     * @return
+     */
+    private boolean matches() {
+        ByteBuffer window = this.window;
+        if (getPriority(window.get(levelIndex)) < minPriority) {
+            return false;
+        }
+        if (fullTag != null) {
+            // 整个Tag相同，只以SubTag结尾的其他Tag与基础Tag本身都不匹配
+            int tagEnd = recordStart + prefixLength - 2;
+            int tagStart = levelIndex + 2;
+            if (tagEnd - tagStart != fullTag.length || !regionMatches(window, tagStart, fullTag)) {
+                return false;
+            }
+        }
+        if (threadName != null) {
+            if (lineCount == 0 || !startsWith(window, lineStarts[0], lineEnds[0], THREAD_PREFIX)) {
+                return false;
+            }
+            int nameStart = lineStarts[0] + THREAD_PREFIX.length;
+            if (lineEnds[0] - nameStart != threadName.length || !regionMatches(window, nameStart, threadName)) {
+                return false;
+            }
+        }
+        if (keyword != null) {
+            boolean found = false;
+            for (int i = getMessageLine(); i < lineCount && !found; i++) {
+                found = indexOf(window, keyword, lineStarts[i], lineEnds[i]) >= 0;
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        if (fromTimestamp != Long.MIN_VALUE || toTimestamp != Long.MAX_VALUE) {
+            long timestamp = parseTimestamp();
+            return timestamp >= fromTimestamp && timestamp <= toTimestamp;
+        }
+        return true;
+    }
+
+    /**
+     * 把当前日志解码为{@link Record}
+     *
+     * @return
+     */
+    private Record decode() {
+        ByteBuffer window = this.window;
+        int priority = getPriority(window.get(levelIndex));
+        String tag = decodeString(levelIndex + 2, recordStart + prefixLength - 2);
+
+        String thread = null;
+        if (lineCount > 0 && startsWith(window, lineStarts[0], lineEnds[0], THREAD_PREFIX)) {
+            thread = decodeString(lineStarts[0] + THREAD_PREFIX.length, lineEnds[0]);
+        }
+
+        StringBuilder message = new StringBuilder();
+        for (int i = getMessageLine(); i < lineCount; i++) {
+            int start = lineStarts[i];
+            if (startsWith(window, start, lineEnds[i], MESSAGE_PREFIX)) {
+                start += MESSAGE_PREFIX.length;
+            }
+            if (message.length() > 0) {
+                message.append('\n');
+            }
+            message.append(decodeString(start, lineEnds[i]));
+        }
+        return new Record(parseTimestamp(), priority, tag, thread, message.toString(),
+                decodeString(recordStart, recordEnd));
+    }
+
+    /**
+     * 获得消息内容的第一行：最后一条分隔线之后
+     *
+     * @return
+     */
+    private int getMessageLine() {
+        for (int i = lineCount - 1; i >= 0; i--) {
+            if (startsWith(window, lineStarts[i], lineEnds[i], MIDDLE_CORNER)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 解析当前日志的时间，时间字节与上一条日志相同时直接复用
+     *
+     * @return 无法解析时返回0
+     */
+    private long parseTimestamp() {
+        ByteBuffer window = this.window;
+        int start = recordStart;
+        int length = levelIndex - 1 - start;
+        if (length == lastDate.length && regionMatches(window, start, lastDate)) {
+            return lastTimestamp;
+        }
+        byte[] date = new byte[length];
+        for (int i = 0; i < length; i++) {
+            date[i] = window.get(start + i);
+        }
+        parsePosition.setIndex(0);
+        parsePosition.setErrorIndex(-1);
+        Date parsed = dateFormat.parse(new String(date, UTF_8), parsePosition);
+        lastDate = date;
+        lastTimestamp = parsed == null ? 0 : parsed.getTime();
+        return lastTimestamp;
+    }
+
+    /**
+     * 记录一行内容的位置
+     *
+     * @param start
+     * @param end
+     */
+    private void addLine(int start, int end) {
+        if (lineCount == lineStarts.length) {
+            int[] newStarts = new int[lineCount * 2];
+            int[] newEnds = new int[lineCount * 2];
+            System.arraycopy(lineStarts, 0, newStarts, 0, lineCount);
+            System.arraycopy(lineEnds, 0, newEnds, 0, lineCount);
+            lineStarts = newStarts;
+            lineEnds = newEnds;
+        }
+        lineStarts[lineCount] = start;
+        lineEnds[lineCount] = end;
+        lineCount++;
+    }
+
+    /**
+     * 把窗口中的一段字节解码为字符串
+     *
+     * @param start
+     * @param end
+     * @return
+     */
+    private String decodeString(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer slice = window.duplicate();
+        slice.position(start);
+        slice.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * 在一行中找到上边线，即": ┌"之后的"┌"
+     *
+     * @param window
+     * @param start
+     * @param end
+     * @return 上边线的起始位置，没有找到时返回-1
+     */
+    private static int findTopBorder(ByteBuffer window, int start, int end) {
+        for (int i = start + 2; i + TOP_CORNER.length <= end; i++) {
+            if (window.get(i) == TOP_CORNER[0] && window.get(i - 2) == ':' && window.get(i - 1) == ' '
+                    && startsWith(window, i, end, TOP_CORNER)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 在前缀中找到级别字符，即"时间 级别/Tag"中的级别
+     *
+     * @param window
+     * @param start
+     * @param end
+     * @return 级别字符的位置，没有找到时返回-1
+     */
+    private static int findLevel(ByteBuffer window, int start, int end) {
+        for (int i = start + 1; i + 1 < end; i++) {
+            if (window.get(i + 1) == '/' && window.get(i - 1) == ' ' && getPriority(window.get(i)) > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 由级别字符获得日志级别
+     *
+     * @param level
+     * @return 不是级别字符时返回0
+     */
+    private static int getPriority(byte level) {
+        switch (level) {
+            case 'V':
+                return Constant.VERBOSE;
+            case 'D':
+                return Constant.DEBUG;
+            case 'I':
+                return Constant.INFO;
+            case 'W':
+                return Constant.WARN;
+            case 'E':
+                return Constant.ERROR;
+            case 'A':
+                return Constant.ASSERT;
+            case 'U':
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    private static int indexOf(ByteBuffer window, byte value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (window.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer window, byte[] bytes, int start, int end) {
+        byte first = bytes[0];
+        for (int i = start, last = end - bytes.length; i <= last; i++) {
+            if (window.get(i) == first && regionMatches(window, i, bytes)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuffer window, int start, int end, byte[] bytes) {
+        return end - start >= bytes.length && regionMatches(window, start, bytes);
+    }
+
+    private static boolean regionMatches(ByteBuffer window, int start, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (window.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatches(ByteBuffer window, int start, int other, int length) {
+        for (int i = 0; i < length; i++) {
+            if (window.get(start + i) != window.get(other + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] getBytes(String string) {
+        return string == null || string.length() == 0 ? null : string.getBytes(UTF_8);
+    }
+
+    /**
+     * 读取到的一条日志
+     */
+    public static class Record {
+
+        private final long timestamp;
+
+        private final int priority;
+
+        private final String tag;
+
+        private final String threadName;
+
+        private final String message;
+
+        private final String text;
+
+        Record(long timestamp, int priority, String tag, String threadName, String message, String text) {
+            this.timestamp = timestamp;
+            this.priority = priority;
+            this.tag = tag;
+            this.threadName = threadName;
+            this.message = message;
+            this.text = text;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        /**
+         * 获得完整的Tag（基础Tag + 连接字符串 + SubTag）
+         *
+         * @return
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * 获得线程名称，未显示线程名称时为null
+         *
+         * @return
+         */
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * 获得消息内容，多行以'\n'连接
+         *
+         * @return
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * 获得日志在文件中的原文，包含每行的前缀与边线
+         *
+         * @return
+         */
+        public String getText() {
+            return text;
+        }
+    }
+
+    /**
+     * 构造器，用于构造LogReader实例
+     */
+    public static class Builder {
+
+        /**
+         * 日志文件
+         */
+        private File logFile;
+
+        /**
+         * 日期时间格式化模式
+         */
+        private String formatPattern = Constant.DEFAULT_FORMAT_PATTERN;
+
+        /**
+         * 写入日志时的日志输出策略，用于得到完整的Tag
+         */
+        private BaseLogStrategy strategy;
+
+        /**
+         * 最低级别
+         */
+        private int minPriority;
+
+        /**
+         * SubTag
+         */
+        private String subTag;
+
+        /**
+         * 线程名称
+         */
+        private String threadName;
+
+        /**
+         * 关键字
+         */
+        private String keyword;
+
+        /**
+         * 时间范围的起始时间（包含）
+         */
+        private long fromTimestamp = Long.MIN_VALUE;
+
+        /**
+         * 时间范围的结束时间（包含）
+         */
+        private long toTimestamp = Long.MAX_VALUE;
+
+        /**
+         * 是否跟随文件的新内容
+         */
+        private boolean follow;
+
+        /**
+         * 每次映射的最大字节数
+         */
+        private int windowSize = DEFAULT_WINDOW_SIZE;
+
+        /**
+         * 设置日志文件（yyyy-MM-dd.log）
+         *
+         * @param file
+         * @return
+         */
+        public Builder setLogFile(File file) {
+            this.logFile = file;
+            return this;
+        }
+
+        /**
+         * 设置日期时间格式化模式，需与写入时相同
+         *
+         * @param pattern
+         * @return
+         */
+        public Builder setFormatPattern(String pattern) {
+            this.formatPattern = pattern;
+            return this;
+        }
+
+        /**
+         * 设置写入日志时的日志输出策略（基础Tag与连接字符串），需与写入时相同，默认为DefaultLogStrategy的默认值
+         *
+         * @param strategy
+         * @return
+         */
+        public Builder setStrategy(BaseLogStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * 只读取不低于指定级别的日志，如{@link Constant#WARN}
+         *
+         * @param priority
+         * @return
+         */
+        public Builder setMinPriority(int priority) {
+            this.minPriority = priority;
+            return this;
+        }
+
+        /**
+         * 只读取指定SubTag的日志，Tag需与{@link #setStrategy(BaseLogStrategy)}的基础Tag和连接字符串组成的完整Tag相同
+         *
+         * @param subTag
+         * @return
+         */
+        public Builder setSubTag(String subTag) {
+            this.subTag = subTag;
+            return this;
+        }
+
+        /**
+         * 只读取指定线程的日志，需要写入时显示线程名称
+         *
+         * @param threadName
+         * @return
+         */
+        public Builder setThreadName(String threadName) {
+            this.threadName = threadName;
+            return this;
+        }
+
+        /**
+         * 只读取消息内容中包含关键字的日志
+         *
+         * @param keyword
+         * @return
+         */
+        public Builder setKeyword(String keyword) {
+            this.keyword = keyword;
+            return this;
+        }
+
+        /**
+         * 只读取时间范围内的日志，日志文件有时间索引时直接跳到范围附近
+         *
+         * @param from 起始时间（包含）
+         * @param to   结束时间（包含），Long.MAX_VALUE表示不限制
+         * @return
+         */
+        public Builder setTimeRange(long from, long to) {
+            this.fromTimestamp = from;
+            this.toTimestamp = to;
+            return this;
+        }
+
+        /**
+         * 设置是否跟随文件的新内容，读到文件末尾时等待新写入的日志
+         * <p>
+         * 没有设置起始时间时从文件末尾开始读取
+         *
+         * @param follow
+         * @return
+         */
+        public Builder setFollow(boolean follow) {
+            this.follow = follow;
+            return this;
+        }
+
+        /**
+         * 设置每次映射的最大字节数，用于单元测试
+         *
+         * @param size
+         * @return
+         */
+        Builder setWindowSize(int size) {
+            this.windowSize = size;
+            return this;
+        }
+
+        /**
+         * 构造LogReader，第一次调用{@link LogReader#next()}时打开日志文件
+         *
+         * @return
+         */
+        public LogReader build() {
+            if (logFile == null) {
+                throw new IllegalArgumentException("logFile must be set");
+            }
+            return new LogReader(this);
+        }
+    }
+}
@@ -0,0 +1,734 @@
+package com.github.yangkangli.logger.adapter;
+
+import com.github.yangkangli.logger.utils.Constant;
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.core.ILogAdapter;
+import com.github.yangkangli.logger.core.IMetricsSource;
+import com.github.yangkangli.logger.core.LatencyHistogram;
+import com.github.yangkangli.logger.core.LogEvent;
+import com.github.yangkangli.logger.core.MetricsSnapshot;
+import com.github.yangkangli.logger.disk.BinaryRecordEncoder;
+import com.github.yangkangli.logger.disk.DiskRecord;
+import com.github.yangkangli.logger.disk.DiskRecordQueue;
+import com.github.yangkangli.logger.disk.DiskWriter;
+import com.github.yangkangli.logger.disk.LogFileWriter;
+import com.github.yangkangli.logger.disk.RecordEncoder;
+import com.github.yangkangli.logger.disk.TextRecordEncoder;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+
+public class DiskAdapter implements ILogAdapter, IMetricsSource {
+
+    /**
+     * 日志文件格式：文本（yyyy-MM-dd.log）
+     */
+    public static final int FORMAT_TEXT = 0;
+
+    /**
+     * 日志文件格式：紧凑的二进制格式（yyyy-MM-dd.blog），可使用BinaryLogDecoder还原为文本
+     */
+    public static final int FORMAT_BINARY = 1;
+
+    /**
+     * 不压缩日志文件
+     */
+    public static final int COMPRESS_NONE = LogFileWriter.COMPRESS_NONE;
+
+    /**
+     * 日期变化后压缩前一天的日志文件（yyyy-MM-dd.log.gz），启动后也会压缩之前遗留的日志文件
+     */
+    public static final int COMPRESS_ROLLED = LogFileWriter.COMPRESS_ROLLED;
+
+    /**
+     * 日志文件按块压缩写入（yyyy-MM-dd.log.gz），每次写入文件的数据是一个可独立解压的gzip成员，
+     * 崩溃时不会损坏之前已写入的数据
+     */
+    public static final int COMPRESS_BLOCKS = LogFileWriter.COMPRESS_BLOCKS;
+
+    /**
+     * 写日志队列已满时，阻塞调用线程（默认），不能用于在线程池中写日志的DiskAdapter，见{@link Builder#setExecutor(Executor)}
+     */
+    public static final int OVERFLOW_BLOCK = DiskRecordQueue.OVERFLOW_BLOCK;
+
+    /**
+     * 写日志队列已满时，丢弃新的日志
+     */
+    public static final int OVERFLOW_DROP_NEWEST = DiskRecordQueue.OVERFLOW_DROP_NEWEST;
+
+    /**
+     * 写日志队列已满时，丢弃最旧的日志
+     */
+    public static final int OVERFLOW_DROP_OLDEST = DiskRecordQueue.OVERFLOW_DROP_OLDEST;
+
+    /**
+     * 写日志队列已满时，丢弃低于指定级别的日志，见{@link Builder#setDropBelowPriority(int)}
+     */
+    public static final int OVERFLOW_DROP_BELOW_PRIORITY = DiskRecordQueue.OVERFLOW_DROP_BELOW_PRIORITY;
+
+    /**
+     * 未设置写日志队列已满时的策略，按写日志器决定
+     */
+    private static final int OVERFLOW_DEFAULT = -1;
+
+    /**
+     * 默认的写日志队列最大日志数
+     */
+    private static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    /**
+     * 默认的写日志队列最大字节数（估算）
+     */
+    private static final long DEFAULT_QUEUE_BYTES = 4 * 1024 * 1024L;
+
+    /**
+     * 关闭时每次从队列中取出的日志数
+     */
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    /**
+     * 启动后压缩遗留日志文件的延迟（毫秒）
+     */
+    private static final long COMPRESS_DELAY = 10 * 1000L;
+
+    /**
+     * 默认的内存映射缓冲区大小
+     */
+    private static final int DEFAULT_MAPPED_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * 默认的写入文件的缓冲大小
+     */
+    private static final int DEFAULT_FLUSH_SIZE = 32 * 1024;
+
+    /**
+     * 默认的写入文件的时间间隔（毫秒）
+     */
+    private static final long DEFAULT_FLUSH_INTERVAL = 1000L;
+
+    /**
+     * 内存映射缓冲文件名
+     */
+    private static final String MAPPED_BUFFER_FILE_NAME = ".alogger.buffer";
+
+    /**
+     * 是否开启打印日志
+     */
+    private boolean loggable;
+
+    /**
+     * 打印日志的最低级别
+     */
+    private int minPriority;
+
+    /**
+     * 日志输出目录
+     */
+    private String logFilePath;
+
+    /**
+     * 写日志器
+     */
+    private final DiskWriter writer;
+
+    /**
+     * 是否使用内存映射缓冲区
+     */
+    private boolean useMappedBuffer;
+
+    /**
+     * 内存映射缓冲区大小
+     */
+    private int mappedBufferSize;
+
+    /**
+     * 缓冲数据最长多久写入一次文件（毫秒）
+     */
+    private long flushInterval;
+
+    /**
+     * 日志文件写入器，只在写日志线程中访问
+     */
+    private LogFileWriter fileWriter;
+
+    /**
+     * 是否已关闭，只在写日志线程中访问
+     */
+    private boolean closed;
+
+    /**
+     * 写日志队列
+     */
+    private final DiskRecordQueue recordQueue;
+
+    /**
+     * 最近一条日志的日志输出策略，用于排版"N records dropped"日志，只在写日志线程中访问
+     */
+    private BaseLogStrategy lastStrategy;
+
+    /**
+     * 排版、编码一条日志的耗时
+     */
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+    /**
+     * 供写日志器调用，所有方法都在写日志线程中执行
+     */
+    private final DiskWriter.Client writerClient = new DiskWriter.Client() {
+        @Override
+        public boolean write(int maxRecords) {
+            return writeLog(maxRecords);
+        }
+
+        @Override
+        public boolean hasPending() {
+            return !closed && fileWriter.hasPending();
+        }
+
+        @Override
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        @Override
+        public void flush() {
+            fileWriter.flush();
+        }
+
+        @Override
+        public void close() {
+            closeLog();
+        }
+    };
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    private DiskAdapter(Builder builder) {
+        this.loggable = builder.loggable;
+        this.minPriority = builder.minPriority;
+        this.logFilePath = builder.logFilePath;
+        this.useMappedBuffer = builder.useMappedBuffer;
+        this.mappedBufferSize = builder.mappedBufferSize;
+        this.flushInterval = builder.flushInterval;
+        RecordEncoder encoder = builder.fileFormat == FORMAT_BINARY
+                ? new BinaryRecordEncoder() : new TextRecordEncoder(builder.formatPattern);
+        this.fileWriter = new LogFileWriter(logFilePath, builder.flushSize, encoder, builder.compressMode);
+        this.fileWriter.setLimits(builder.maxFileSize, builder.maxFileCount, builder.maxTotalSize);
+        this.fileWriter.setTimeIndex(builder.indexRecords, builder.indexBytes);
+
+        if (builder.writer != null) {
+            this.writer = builder.writer;
+        } else if (builder.executor != null) {
+            this.writer = new DiskWriter(builder.executor);
+        } else {
+            this.writer = DiskWriter.getDefault();
+        }
+
+        int overflowPolicy = builder.overflowPolicy;
+        if (!writer.canBlockProducers()) {
+            // 在线程池中写日志时，阻塞线程池中记录日志的线程可能造成死锁
+            if (overflowPolicy == OVERFLOW_BLOCK) {
+                throw new IllegalArgumentException("OVERFLOW_BLOCK cannot be used with a thread pool executor");
+            }
+            if (overflowPolicy == OVERFLOW_DEFAULT) {
+                overflowPolicy = OVERFLOW_DROP_OLDEST;
+            }
+        } else if (overflowPolicy == OVERFLOW_DEFAULT) {
+            overflowPolicy = OVERFLOW_BLOCK;
+        }
+        this.recordQueue = new DiskRecordQueue(builder.queueCapacity, builder.queueBytes,
+                overflowPolicy, builder.dropBelowPriority);
+        writer.register(writerClient);
+
+        if (useMappedBuffer) {
+            // 在写日志线程中打开缓冲文件，并恢复上次进程遗留的日志
+            writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    openMappedBuffer();
+                }
+            });
+        }
+        if (builder.compressMode == COMPRESS_ROLLED) {
+            // 启动一段时间后，在写日志线程中压缩之前遗留的日志文件
+            writer.executeDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    if (!closed) {
+                        fileWriter.compressRolledFiles();
+                    }
+                }
+            }, COMPRESS_DELAY);
+        }
+    }
+
+
+    @Override
+    public boolean isLoggable() {
+        return loggable;
+    }
+
+    @Override
+    public int getMinPriority() {
+        return minPriority;
+    }
+
+    @Override
+    public void log(LogEvent event, BaseLogStrategy strategy) {
+        // 只记录日志内容，排版与编码在写日志线程中进行
+        String threadName = strategy.isShowThreadName() ? event.getThreadName() : null;
+        String[] stackLines = strategy.isShowStackTrace() ? event.getStackLines() : null;
+        DiskRecord record = new DiskRecord(event.getTimestamp(), event.getPriority(), event.getSubTag(),
+                threadName, stackLines, event.getMessage(), strategy);
+
+        // 放入有界队列，队列从空闲变为有日志时才通知写日志器
+        if (recordQueue.offer(record)) {
+            writer.requestWrite(writerClient);
+        }
+    }
+
+    /**
+     * 获得因写日志队列已满而被丢弃的日志数量
+     *
+     * @return
+     */
+    public long getDroppedCount() {
+        return recordQueue.getDroppedCount();
+    }
+
+    /**
+     * 获得写日志器，可用于等待日志写入文件或关闭写日志线程
+     *
+     * @return
+     */
+    public DiskWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * 关闭：在写日志线程中写入剩余的日志并关闭日志文件，此后的日志被丢弃，不影响共用写日志器的其他DiskAdapter
+     */
+    public void close() {
+        writer.unregister(writerClient);
+    }
+
+    /**
+     * 报告写日志队列的深度、丢弃数、写入的字节数与写入耗时
+     *
+     * @param prefix
+     * @param builder
+     */
+    @Override
+    public void collectMetrics(String prefix, MetricsSnapshot.Builder builder) {
+        builder.putCounter(prefix + ".queueDepth", recordQueue.size())
+                .putCounter(prefix + ".queueBytes", recordQueue.getBytes())
+                .putCounter(prefix + ".dropped", recordQueue.getDroppedCount())
+                .putCounter(prefix + ".bytesWritten", fileWriter.getBytesWritten())
+                .putCounter(prefix + ".bytesWrittenToday", fileWriter.getBytesWrittenToday())
+                .putHistogram(prefix + ".writeLatency", writeLatency.snapshot())
+                .putHistogram(prefix + ".flushLatency", fileWriter.getFlushLatency().snapshot());
+    }
+
+    /**
+     * 从队列中取出日志写入缓冲区
+     * <p>
+     * 队列清空后，若有日志被丢弃，则写入一条"N records dropped"日志
+     *
+     * @param maxRecords 最多取出的日志数
+     * @return 队列中是否还有日志
+     */
+    private boolean writeLog(int maxRecords) {
+        if (closed) {
+            return false;
+        }
+        // 写日志线程由写日志器决定，在此记录，队列已满时避免阻塞自身
+        recordQueue.setConsumerThread(Thread.currentThread());
+        for (int i = 0; i < maxRecords; i++) {
+            DiskRecord record = recordQueue.poll();
+            if (record == null) {
+                long dropped = recordQueue.takeDroppedCount();
+                if (dropped > 0 && lastStrategy != null) {
+                    fileWriter.write(new DiskRecord(System.currentTimeMillis(), Constant.WARN, null, null, null,
+                            dropped + " records dropped", lastStrategy));
+                }
+                return false;
+            }
+            lastStrategy = record.getStrategy();
+            long start = System.nanoTime();
+            fileWriter.write(record);
+            writeLatency.record(System.nanoTime() - start);
+        }
+        return true;
+    }
+
+    /**
+     * 写入队列中剩余的日志，关闭日志文件与队列
+     */
+    private void closeLog() {
+        if (closed) {
+            return;
+        }
+        while (writeLog(DRAIN_BATCH_SIZE)) {
+            // 直到队列为空
+        }
+        fileWriter.close();
+        recordQueue.close();
+        closed = true;
+    }
+
+    /**
+     * 打开内存映射缓冲区，若存在上次进程遗留的日志，则追加到日志文件中
+     */
+    private void openMappedBuffer() {
+        if (closed) {
+            return;
+        }
+        fileWriter.openMappedBuffer(new File(logFilePath, MAPPED_BUFFER_FILE_NAME), mappedBufferSize);
+    }
+
+    /**
+     * 构造器，用于构造DefaultAdapter实例
+     */
+    public static class Builder {
+        /**
+         * 是否开启打印日志
+         */
+        private boolean loggable = true;
+
+        /**
+         * 打印日志的最低级别
+         */
+        private int minPriority = Constant.VERBOSE;
+
+        /**
+         * 日志文件输出路径
+         */
+        private String logFilePath;
+
+        /**
+         * 日期时间格式化模式
+         */
+        private String formatPattern = Constant.DEFAULT_FORMAT_PATTERN;
+
+        /**
+         * 是否使用内存映射缓冲区
+         */
+        private boolean useMappedBuffer = false;
+
+        /**
+         * 内存映射缓冲区大小
+         */
+        private int mappedBufferSize = DEFAULT_MAPPED_BUFFER_SIZE;
+
+        /**
+         * 写入文件的缓冲大小
+         */
+        private int flushSize = DEFAULT_FLUSH_SIZE;
+
+        /**
+         * 写入文件的时间间隔（毫秒）
+         */
+        private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+        /**
+         * 日志文件格式
+         */
+        private int fileFormat = FORMAT_TEXT;
+
+        /**
+         * 日志文件压缩方式
+         */
+        private int compressMode = COMPRESS_NONE;
+
+        /**
+         * 单个日志文件的最大大小（字节），0表示不限制
+         */
+        private long maxFileSize;
+
+        /**
+         * 最大日志文件数，0表示不限制
+         */
+        private int maxFileCount;
+
+        /**
+         * 日志文件的最大总大小（字节），0表示不限制
+         */
+        private long maxTotalSize;
+
+        /**
+         * 写日志队列的最大日志数
+         */
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+        /**
+         * 写日志队列的最大字节数（估算）
+         */
+        private long queueBytes = DEFAULT_QUEUE_BYTES;
+
+        /**
+         * 写日志队列已满时的策略
+         */
+        private int overflowPolicy = OVERFLOW_DEFAULT;
+
+        /**
+         * {@link #OVERFLOW_DROP_BELOW_PRIORITY}策略下保留的最低级别
+         */
+        private int dropBelowPriority = Constant.WARN;
+
+        /**
+         * 时间索引的间隔：日志条数
+         */
+        private int indexRecords;
+
+        /**
+         * 时间索引的间隔：未压缩的字节数
+         */
+        private long indexBytes;
+
+        /**
+         * 写日志器
+         */
+        private DiskWriter writer;
+
+        /**
+         * 写日志线程
+         */
+        private Executor executor;
+
+        /**
+         * 设置是否开启打印日志
+         *
+         * @param loggable
+         * @return
+         */
+        public Builder setLoggable(boolean loggable) {
+            this.loggable = loggable;
+            return this;
+        }
+
+        /**
+         * 设置打印日志的最低级别，如{@link Constant#WARN}
+         *
+         * @param priority
+         * @return
+         */
+        public Builder setMinPriority(int priority) {
+            this.minPriority = priority;
+            return this;
+        }
+
+        /**
+         * 设置日志文件输出路径
+         *
+         * @param path
+         * @return
+         */
+        public Builder setLogFilePath(String path) {
+            this.logFilePath = path;
+            return this;
+        }
+
+        /**
+         * 设置日期时间格式化模式
+         *
+         * @param pattern
+         * @return
+         */
+        public Builder setFormatPattern(String pattern) {
+            this.formatPattern = pattern;
+            return this;
+        }
+
+        /**
+         * 设置是否使用内存映射缓冲区
+         * <p>
+         * 开启后日志先写入日志目录下的缓冲文件，积累到一定大小后再整块写入日志文件，
+         * 进程被杀死时缓冲区中的日志会在下次启动时恢复
+         *
+         * @param use
+         * @return
+         */
+        public Builder setUseMappedBuffer(boolean use) {
+            this.useMappedBuffer = use;
+            return this;
+        }
+
+        /**
+         * 设置内存映射缓冲区大小（字节）
+         *
+         * @param size
+         * @return
+         */
+        public Builder setMappedBufferSize(int size) {
+            this.mappedBufferSize = size;
+            return this;
+        }
+
+        /**
+         * 设置写入文件的缓冲大小（字节），缓冲的日志达到该大小时合并为一次写操作
+         *
+         * @param size
+         * @return
+         */
+        public Builder setFlushSize(int size) {
+            this.flushSize = size;
+            return this;
+        }
+
+        /**
+         * 设置写入文件的时间间隔（毫秒），缓冲的日志最长在该时间后写入文件
+         *
+         * @param interval
+         * @return
+         */
+        public Builder setFlushInterval(long interval) {
+            this.flushInterval = interval;
+            return this;
+        }
+
+        /**
+         * 设置日志文件格式
+         *
+         * @param format {@link #FORMAT_TEXT} 或 {@link #FORMAT_BINARY}
+         * @return
+         */
+        public Builder setFileFormat(int format) {
+            this.fileFormat = format;
+            return this;
+        }
+
+        /**
+         * 设置日志文件压缩方式
+         *
+         * @param mode {@link #COMPRESS_NONE}、{@link #COMPRESS_ROLLED} 或 {@link #COMPRESS_BLOCKS}
+         * @return
+         */
+        public Builder setCompressMode(int mode) {
+            this.compressMode = mode;
+            return this;
+        }
+
+        /**
+         * 设置单个日志文件的最大大小（字节），超过后切换到yyyy-MM-dd.N.log，0表示不限制
+         *
+         * @param size
+         * @return
+         */
+        public Builder setMaxFileSize(long size) {
+            this.maxFileSize = size;
+            return this;
+        }
+
+        /**
+         * 设置最大日志文件数，超过后删除最旧的日志文件，0表示不限制
+         *
+         * @param count
+         * @return
+         */
+        public Builder setMaxFileCount(int count) {
+            this.maxFileCount = count;
+            return this;
+        }
+
+        /**
+         * 设置日志文件的最大总大小（字节），超过后删除最旧的日志文件，0表示不限制
+         *
+         * @param size
+         * @return
+         */
+        public Builder setMaxTotalSize(long size) {
+            this.maxTotalSize = size;
+            return this;
+        }
+
+        /**
+         * 设置写日志队列的容量，日志数或估算的字节数超过限制时按溢出策略处理
+         *
+         * @param capacity 最大日志数
+         * @param bytes    最大字节数
+         * @return
+         */
+        public Builder setQueueCapacity(int capacity, long bytes) {
+            this.queueCapacity = capacity;
+            this.queueBytes = bytes;
+            return this;
+        }
+
+        /**
+         * 设置写日志队列已满时的策略
+         * <p>
+         * 默认为{@link #OVERFLOW_BLOCK}，在线程池中写日志时默认为{@link #OVERFLOW_DROP_OLDEST}且不能使用{@link #OVERFLOW_BLOCK}
+         *
+         * @param policy {@link #OVERFLOW_BLOCK}、{@link #OVERFLOW_DROP_NEWEST}、{@link #OVERFLOW_DROP_OLDEST}
+         *               或 {@link #OVERFLOW_DROP_BELOW_PRIORITY}
+         * @return
+         */
+        public Builder setOverflowPolicy(int policy) {
+            this.overflowPolicy = policy;
+            return this;
+        }
+
+        /**
+         * 设置{@link #OVERFLOW_DROP_BELOW_PRIORITY}策略下保留的最低级别，默认为{@link Constant#WARN}
+         *
+         * @param priority
+         * @return
+         */
+        public Builder setDropBelowPriority(int priority) {
+            this.dropBelowPriority = priority;
+            return this;
+        }
+
+        /**
+         * 设置时间索引的间隔，每隔若干条日志或字节在日志文件旁的yyyy-MM-dd.log.idx中追加一个索引项，
+         * 可使用LogRangeReader按时间范围快速读取日志，默认不生成时间索引
+         *
+         * @param records 日志条数，0表示不按条数
+         * @param bytes   字节数（未压缩），0表示不按字节数
+         * @return
+         */
+        public Builder setTimeIndexInterval(int records, long bytes) {
+            this.indexRecords = records;
+            this.indexBytes = bytes;
+            return this;
+        }
+
+        /**
+         * 设置写日志器，多个DiskAdapter可以共用一个写日志器，默认使用{@link DiskWriter#getDefault()}
+         *
+         * @param writer
+         * @return
+         */
+        public Builder setWriter(DiskWriter writer) {
+            this.writer = writer;
+            return this;
+        }
+
+        /**
+         * 设置写日志线程，为该DiskAdapter创建单独的写日志器
+         * <p>
+         * 可以是应用已有的线程池（任务会依次执行），Android上也可使用HandlerWriterExecutor复用已有的Looper线程。
+         * 使用线程池时写日志任务不固定在一个线程中执行，队列已满时阻塞记录日志的线程池线程可能造成死锁，
+         * 因此不能使用{@link #OVERFLOW_BLOCK}策略，默认丢弃最旧的日志
+         *
+         * @param executor
+         * @return
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 构造DefaultAdapter
+         *
+         * @return
+         */
+        public DiskAdapter build() {
+            return new DiskAdapter(this);
+        }
+    }
+}
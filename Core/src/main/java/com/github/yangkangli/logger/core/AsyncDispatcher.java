@@ -0,0 +1,297 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.strategy.SleepingWaitStrategy;
+import com.github.yangkangli.logger.utils.Utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步日志分发器
+ * <p>
+ * 调用线程只把日志事件写入预分配的环形缓冲区，由专门的消费者线程把日志分发给各个日志适配器。
+ * <p>
+ * 环形缓冲区已满时的行为由{@link Builder#setFullPolicy(int)}决定：
+ * <ul>
+ * <li>{@link #FULL_POLICY_BLOCK}：调用线程自旋/让出CPU，直到消费者释放出槽位，不丢失日志（默认）</li>
+ * <li>{@link #FULL_POLICY_DISCARD}：直接丢弃该条日志并计数，调用线程不会被阻塞，
+ * 丢弃的数量可通过{@link #getDiscardedCount()}获得</li>
+ * </ul>
+ */
+public class AsyncDispatcher {
+
+    /**
+     * 缓冲区已满时，阻塞调用线程直到有空闲槽位
+     */
+    public static final int FULL_POLICY_BLOCK = 0;
+
+    /**
+     * 缓冲区已满时，丢弃该条日志
+     */
+    public static final int FULL_POLICY_DISCARD = 1;
+
+    /**
+     * 默认的环形缓冲区大小
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    /**
+     * 缓冲区已满时，阻塞等待前的自旋次数
+     */
+    private static final int FULL_SPIN_TRIES = 100;
+
+    /**
+     * 缓冲区已满时，每次阻塞等待的时间（纳秒）
+     */
+    private static final long FULL_PARK_NANOS = 100000L;
+
+    /**
+     * 环形缓冲区
+     */
+    private final LogRingBuffer ringBuffer;
+
+    /**
+     * 等待策略
+     */
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * 缓冲区已满时的策略
+     */
+    private final int fullPolicy;
+
+    /**
+     * 被丢弃的日志数量
+     */
+    private final AtomicLong discardedCount = new AtomicLong();
+
+    /**
+     * 正在发布日志的生产者数量，停止后消费者等到其为0并处理完缓冲区才退出
+     */
+    private final AtomicInteger activeProducers = new AtomicInteger();
+
+    /**
+     * 消费者线程
+     */
+    private Thread consumerThread;
+
+    /**
+     * 是否已停止
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    private AsyncDispatcher(Builder builder) {
+        this.ringBuffer = new LogRingBuffer(ceilingPowerOfTwo(builder.bufferSize));
+        this.waitStrategy = builder.waitStrategy;
+        this.fullPolicy = builder.fullPolicy;
+    }
+
+    /**
+     * 启动消费者线程，由LoggerCore调用
+     *
+     * @param loggerCore
+     */
+    synchronized void start(final LoggerCore loggerCore) {
+        if (consumerThread != null) {
+            throw new IllegalStateException("AsyncDispatcher has already been started");
+        }
+        consumerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consume(loggerCore);
+            }
+        }, "ALoggerDispatcher");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+
+    /**
+     * 停止分发，消费者线程会处理完缓冲区中已有的以及正在发布的日志后退出；之后发布的日志由调用方同步分发
+     */
+    public void shutdown() {
+        shutdown = true;
+        waitStrategy.signal();
+    }
+
+    /**
+     * 是否已停止
+     *
+     * @return
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * 是否有待处理的日志事件，只能由消费者线程（等待策略中）调用
+     *
+     * @return
+     */
+    public boolean hasPending() {
+        return ringBuffer.hasPending();
+    }
+
+    /**
+     * 获得因缓冲区已满而被丢弃的日志数量
+     *
+     * @return
+     */
+    public long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    /**
+     * 发布一条日志事件
+     *
+     * @return 已停止时返回false，由调用方自行处理该条日志
+     */
+    boolean publish(int priority, String subTag, String message, Throwable throwable,
+                    String threadName, long timestamp, String[] stackLines) {
+        // 先登记再检查是否已停止：消费者看到停止且没有登记的生产者后，不会再有日志写入缓冲区
+        activeProducers.incrementAndGet();
+        try {
+            int tries = 0;
+            while (!shutdown) {
+                if (ringBuffer.tryPublish(priority, subTag, message, throwable, threadName, timestamp, stackLines)) {
+                    waitStrategy.signal();
+                    return true;
+                }
+                if (fullPolicy == FULL_POLICY_DISCARD) {
+                    discardedCount.incrementAndGet();
+                    return true;
+                }
+                // 缓冲区已满，等待消费者释放槽位
+                if (tries < FULL_SPIN_TRIES) {
+                    tries++;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                }
+            }
+            return false;
+        } finally {
+            activeProducers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 消费者线程主循环
+     *
+     * @param loggerCore
+     */
+    private void consume(LoggerCore loggerCore) {
+        int idleCount = 0;
+        while (true) {
+            LogEvent event = ringBuffer.peek();
+            if (event != null) {
+                idleCount = 0;
+                try {
+                    loggerCore.dispatch(event);
+                } catch (Throwable t) {
+                    // 单条日志出错不能影响消费者线程
+                } finally {
+                    ringBuffer.release(event);
+                }
+                continue;
+            }
+            // 停止后，等正在发布的生产者完成，再确认缓冲区为空后退出
+            if (shutdown && activeProducers.get() == 0 && !ringBuffer.hasPending()) {
+                return;
+            }
+            try {
+                waitStrategy.waitFor(this, idleCount);
+            } catch (InterruptedException e) {
+                // 由上面的检查决定是否退出
+            }
+            // 长时间空闲时保持最大值，溢出为负数会被等待策略当作刚开始等待而重新自旋
+            if (idleCount < Integer.MAX_VALUE) {
+                idleCount++;
+            }
+        }
+    }
+
+    /**
+     * 获得不小于value的最小的2的幂
+     *
+     * @param value
+     * @return
+     */
+    private static int ceilingPowerOfTwo(int value) {
+        if (value <= 1) {
+            return 2;
+        }
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * 构造器，用于构造AsyncDispatcher实例
+     */
+    public static class Builder {
+
+        /**
+         * 环形缓冲区大小
+         */
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+        /**
+         * 等待策略
+         */
+        private WaitStrategy waitStrategy;
+
+        /**
+         * 缓冲区已满时的策略
+         */
+        private int fullPolicy = FULL_POLICY_BLOCK;
+
+        /**
+         * 设置环形缓冲区大小，会向上取整为2的幂
+         *
+         * @param size
+         * @return
+         */
+        public Builder setBufferSize(int size) {
+            this.bufferSize = size;
+            return this;
+        }
+
+        /**
+         * 设置消费者线程的等待策略
+         *
+         * @param strategy
+         * @return
+         */
+        public Builder setWaitStrategy(WaitStrategy strategy) {
+            this.waitStrategy = Utils.checkNotNull(strategy);
+            return this;
+        }
+
+        /**
+         * 设置缓冲区已满时的策略
+         *
+         * @param policy {@link #FULL_POLICY_BLOCK} 或 {@link #FULL_POLICY_DISCARD}
+         * @return
+         */
+        public Builder setFullPolicy(int policy) {
+            this.fullPolicy = policy;
+            return this;
+        }
+
+        /**
+         * 构造AsyncDispatcher
+         *
+         * @return
+         */
+        public AsyncDispatcher build() {
+            if (waitStrategy == null) {
+                waitStrategy = new SleepingWaitStrategy();
+            }
+            return new AsyncDispatcher(this);
+        }
+    }
+}
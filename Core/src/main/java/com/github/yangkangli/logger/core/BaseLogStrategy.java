@@ -0,0 +1,408 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.utils.Utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BaseLogStrategy {
+
+    /**
+     * 默认的BaseTag
+     */
+    private static final String DEFAULT_BASE_TAG = "ALogger";
+
+    /**
+     * 默认的BaseTag与SubTag之间的连接字符串
+     */
+    private static final String DEFAULT_TAG_LINKER = "->";
+
+    /**
+     * 默认的边界线长度
+     */
+    private static final int DEFAULT_BORDER_LENGTH = 120;
+
+    /**
+     * 完整Tag缓存的最大数量，超过后清空重建
+     */
+    private static final int MAX_FULL_TAG_CACHE_SIZE = 256;
+
+    /**
+     * 是否显示线程名称
+     */
+    private boolean showThreadName;
+
+    /**
+     * 是否显示调用堆栈
+     */
+    private boolean showStackTrace;
+
+    /**
+     * 显示调用堆栈的方法数
+     */
+    private int methodCount;
+
+    /**
+     * BaseTag
+     */
+    private String baseTag;
+
+    /**
+     * BaseTag 与 SubTAG 之间的连接字符串
+     */
+    private String linker;
+
+    /**
+     * BaseTag 与 SubTAG 之间的连接字符串的长度
+     */
+    private int linkerLength;
+
+    /**
+     * 获得边界线最大长度
+     */
+    private int borderMaxLength;
+
+    /**
+     * 打印JSON时是否去掉所有空白
+     */
+    private boolean minifyJson;
+
+    /**
+     * 打印JSON的最大长度，0表示不限制
+     */
+    private int maxJsonLength;
+
+    /**
+     * 打印XML的最大长度，0表示不限制
+     */
+    private int maxXmlLength;
+
+    /**
+     * 上边线缓存，下标为SubTag与连接字符串的总长度
+     */
+    private final String[] topBorders;
+
+    /**
+     * 分隔线缓存，下标为SubTag与连接字符串的总长度
+     */
+    private final String[] dividers;
+
+    /**
+     * 下边线缓存，下标为SubTag与连接字符串的总长度
+     */
+    private final String[] bottomBorders;
+
+    /**
+     * 完整Tag缓存，SubTag -> BaseTag+连接字符串+SubTag
+     */
+    private final ConcurrentHashMap<String, String> fullTags = new ConcurrentHashMap<>();
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    protected BaseLogStrategy(Builder builder) {
+        this.showThreadName = builder.showThreadName;
+        this.showStackTrace = builder.showStackTrace;
+        this.methodCount = builder.methodCount;
+        this.baseTag = builder.baseTag;
+        this.linker = builder.linker;
+        this.linkerLength = builder.linker.length();
+        this.borderMaxLength = builder.borderMaxLength;
+        this.minifyJson = builder.minifyJson;
+        this.maxJsonLength = builder.maxJsonLength;
+        this.maxXmlLength = builder.maxXmlLength;
+
+        // 边线只与SubTag的长度有关，按长度缓存，并预先生成没有SubTag时的边线
+        int cacheSize = Math.max(borderMaxLength, 0) + 1;
+        this.topBorders = new String[cacheSize];
+        this.dividers = new String[cacheSize];
+        this.bottomBorders = new String[cacheSize];
+        this.topBorders[0] = Utils.getTopBorder(null, borderMaxLength, linkerLength);
+        this.dividers[0] = Utils.getDivider(null, borderMaxLength, linkerLength);
+        this.bottomBorders[0] = Utils.getBottomBorder(null, borderMaxLength, linkerLength);
+    }
+
+    public boolean isShowThreadName() {
+        return showThreadName;
+    }
+
+    public boolean isShowStackTrace() {
+        return showStackTrace;
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public String getBaseTag() {
+        return baseTag;
+    }
+
+    public String getLinker() {
+        return linker;
+    }
+
+    public int getLinkerLength() {
+        return linkerLength;
+    }
+
+    public int getBorderMaxLength() {
+        return borderMaxLength;
+    }
+
+    public boolean isMinifyJson() {
+        return minifyJson;
+    }
+
+    public int getMaxJsonLength() {
+        return maxJsonLength;
+    }
+
+    public int getMaxXmlLength() {
+        return maxXmlLength;
+    }
+
+    /**
+     * 获得完整的Tag（BaseTag+SubTag）
+     *
+     * @param subTag
+     * @return
+     */
+    public String getFullTag(String subTag) {
+        if (subTag == null || subTag.length() == 0) {
+            return baseTag;
+        }
+        String tag = fullTags.get(subTag);
+        if (tag == null) {
+            tag = baseTag + linker + subTag;
+            if (fullTags.size() >= MAX_FULL_TAG_CACHE_SIZE) {
+                fullTags.clear();
+            }
+            fullTags.put(subTag, tag);
+        }
+        return tag;
+    }
+
+    /**
+     * 获得上边线
+     *
+     * @param subTag
+     * @return
+     */
+    public String getTopBorder(String subTag) {
+        int index = getBorderCacheIndex(subTag);
+        String border = topBorders[index];
+        if (border == null) {
+            // 多线程同时生成时结果相同，不需要加锁
+            border = Utils.getTopBorder(subTag, borderMaxLength, linkerLength);
+            topBorders[index] = border;
+        }
+        return border;
+    }
+
+    /**
+     * 获得分隔线
+     *
+     * @param subTag
+     * @return
+     */
+    public String getDivider(String subTag) {
+        int index = getBorderCacheIndex(subTag);
+        String divider = dividers[index];
+        if (divider == null) {
+            divider = Utils.getDivider(subTag, borderMaxLength, linkerLength);
+            dividers[index] = divider;
+        }
+        return divider;
+    }
+
+    /**
+     * 获得下边线
+     *
+     * @param subTag
+     * @return
+     */
+    public String getBottomBorder(String subTag) {
+        int index = getBorderCacheIndex(subTag);
+        String border = bottomBorders[index];
+        if (border == null) {
+            border = Utils.getBottomBorder(subTag, borderMaxLength, linkerLength);
+            bottomBorders[index] = border;
+        }
+        return border;
+    }
+
+    /**
+     * 获得边线缓存的下标，即SubTag与连接字符串的总长度，超过边界线长度的都对应同一条边线
+     *
+     * @param subTag
+     * @return
+     */
+    private int getBorderCacheIndex(String subTag) {
+        if (subTag == null || subTag.length() == 0) {
+            return 0;
+        }
+        return Math.min(subTag.length() + linkerLength, topBorders.length - 1);
+    }
+
+
+    /**
+     * 构造器，用于构造DefaultAdapter实例
+     *
+     * @author yangkangli
+     * @date: 2020/4/22
+     */
+    public static abstract class Builder<T extends BaseLogStrategy> {
+        /**
+         * 是否显示线程名称
+         */
+        private boolean showThreadName = true;
+
+        /**
+         * 是否显示调用堆栈
+         */
+        private boolean showStackTrace = false;
+
+        /**
+         * 显示调用堆栈的方法数
+         */
+        private int methodCount = 5;
+
+        /**
+         * BaseTag
+         */
+        private String baseTag = DEFAULT_BASE_TAG;
+
+        /**
+         * BaseTag 与 SubTAG 之间的连接字符串
+         */
+        private String linker = DEFAULT_TAG_LINKER;
+
+        /**
+         * 边界线最大长度
+         */
+        private int borderMaxLength = DEFAULT_BORDER_LENGTH;
+
+        /**
+         * 打印JSON时是否去掉所有空白
+         */
+        private boolean minifyJson = false;
+
+        /**
+         * 打印JSON的最大长度
+         */
+        private int maxJsonLength = 0;
+
+        /**
+         * 打印XML的最大长度
+         */
+        private int maxXmlLength = 0;
+
+        /**
+         * 设置是否显示线程名称
+         *
+         * @param show
+         * @return
+         */
+        public Builder setShowThreadName(boolean show) {
+            this.showThreadName = show;
+            return this;
+        }
+
+        /**
+         * 设置是否显示调用堆栈
+         *
+         * @param show
+         * @return
+         */
+        public Builder setShowStackTrace(boolean show) {
+            this.showStackTrace = show;
+            return this;
+        }
+
+        /**
+         * 设置显示调用堆栈的方法数
+         *
+         * @param count
+         * @return
+         */
+        public Builder setMethodCount(int count) {
+            this.methodCount = count;
+            return this;
+        }
+
+        /**
+         * 设置BaseTag
+         *
+         * @param baseTag
+         * @return
+         */
+        public Builder setBaseTag(String baseTag) {
+            this.baseTag = baseTag;
+            return this;
+        }
+
+        /**
+         * 设置 BaseTag 与 SubTAG 之间的连接字符串
+         *
+         * @param linker
+         * @return
+         */
+        public Builder setLinker(String linker) {
+            this.linker = linker;
+            return this;
+        }
+
+        /**
+         * 设置边界线最大长度
+         *
+         * @param length
+         * @return
+         */
+        public Builder setBordermaxLength(int length) {
+            this.borderMaxLength = length;
+            return this;
+        }
+
+        /**
+         * 设置打印JSON时是否去掉所有空白（不缩进、不换行）
+         *
+         * @param minify
+         * @return
+         */
+        public Builder setMinifyJson(boolean minify) {
+            this.minifyJson = minify;
+            return this;
+        }
+
+        /**
+         * 设置打印JSON的最大长度，超过时截断，0表示不限制
+         *
+         * @param length
+         * @return
+         */
+        public Builder setMaxJsonLength(int length) {
+            this.maxJsonLength = length;
+            return this;
+        }
+
+        /**
+         * 设置打印XML的最大长度，0表示不限制；超过该长度的XML不再排版，截断后直接打印
+         *
+         * @param length
+         * @return
+         */
+        public Builder setMaxXmlLength(int length) {
+            this.maxXmlLength = length;
+            return this;
+        }
+
+        /**
+         * 构造DefaultAdapter
+         *
+         * @return
+         */
+        public abstract T build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.ALogger;
+import com.github.yangkangli.logger.utils.Constant;
+import com.github.yangkangli.logger.utils.Utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 调用位置缓存
+ * <p>
+ * 每条日志仍需获取一次调用堆栈（new Throwable().getStackTrace()）并查找ALogger的栈帧，
+ * 缓存只按截取的methodCount个栈帧保存排版好的堆栈行：同一位置重复打印日志时省去的是排版与字符串分配，
+ * 而不是获取调用堆栈本身的开销（Android与Java 7上没有更廉价的获取方式）
+ */
+class CallSiteCache {
+
+    /**
+     * 缓存的最大调用位置数量，超过后清空重建
+     */
+    private static final int MAX_SIZE = 256;
+
+    /**
+     * 没有调用堆栈时的堆栈行
+     */
+    private static final String[] EMPTY_LINES = new String[0];
+
+    /**
+     * ALogger的类名
+     */
+    private static final String LOGGER_CLASS_NAME = ALogger.class.getName();
+
+    /**
+     * 调用位置 -> 排版好的堆栈行
+     */
+    private final ConcurrentHashMap<CallSite, String[]> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取当前线程的调用堆栈，并返回该调用位置排版好的堆栈行（命中缓存时不再排版）
+     *
+     * @param methodCount 显示的方法数
+     * @return
+     */
+    String[] getStackLines(int methodCount) {
+        StackTraceElement[] elements = new Throwable().getStackTrace();
+
+        // 跳过ALogger之前（LoggerCore内部）以及ALogger自身的栈帧
+        int start = -1;
+        for (int i = 0; i < elements.length; i++) {
+            if (LOGGER_CLASS_NAME.equals(elements[i].getClassName())) {
+                start = i + 1;
+            } else if (start >= 0) {
+                break;
+            }
+        }
+        if (start < 0 || start >= elements.length || methodCount <= 0) {
+            return EMPTY_LINES;
+        }
+
+        int count = Math.min(methodCount, elements.length - start);
+        CallSite callSite = new CallSite(elements, start, count);
+        String[] lines = cache.get(callSite);
+        if (lines == null) {
+            lines = formatLines(elements, start, count);
+            if (cache.size() >= MAX_SIZE) {
+                cache.clear();
+            }
+            cache.put(callSite.compact(), lines);
+        }
+        return lines;
+    }
+
+    /**
+     * 排版堆栈行
+     *
+     * @param elements
+     * @param start
+     * @param count
+     * @return
+     */
+    private static String[] formatLines(StackTraceElement[] elements, int start, int count) {
+        String[] lines = new String[count];
+        StringBuilder level = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            StackTraceElement element = elements[start + i];
+            StringBuilder builder = new StringBuilder();
+            builder.append(Constant.HORIZONTAL_LINE)
+                    .append(' ')
+                    .append(level)
+                    .append(Utils.getSimpleClassName(element.getClassName()))
+                    .append(".")
+                    .append(element.getMethodName())
+                    .append(" ")
+                    .append(" (")
+                    .append(element.getFileName())
+                    .append(":")
+                    .append(element.getLineNumber())
+                    .append(")");
+            level.append("    ");
+            lines[i] = builder.toString();
+        }
+        return lines;
+    }
+
+    /**
+     * 调用位置，由截取的栈帧确定
+     */
+    private static class CallSite {
+
+        private final StackTraceElement[] elements;
+
+        private final int start;
+
+        private final int count;
+
+        private final int hash;
+
+        CallSite(StackTraceElement[] elements, int start, int count) {
+            this.elements = elements;
+            this.start = start;
+            this.count = count;
+            int h = 1;
+            for (int i = start; i < start + count; i++) {
+                h = 31 * h + elements[i].hashCode();
+            }
+            this.hash = h;
+        }
+
+        /**
+         * 只保留截取的栈帧，避免缓存持有完整的调用堆栈
+         *
+         * @return
+         */
+        CallSite compact() {
+            return new CallSite(Arrays.copyOfRange(elements, start, start + count), 0, count);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CallSite)) {
+                return false;
+            }
+            CallSite other = (CallSite) obj;
+            if (hash != other.hash || count != other.count) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (!elements[start + i].equals(other.elements[other.start + i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.yangkangli.logger.core;
+
+/**
+ * 时钟，DuplicateFilter与RateLimiter通过它获取当前时间，单元测试中可替换为手动推进的时钟
+ */
+interface Clock {
+
+    /**
+     * 使用系统时间的时钟
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * 当前时间（毫秒），同{@link System#currentTimeMillis()}
+     *
+     * @return
+     */
+    long currentTimeMillis();
+
+    /**
+     * 单调时间（纳秒），同{@link System#nanoTime()}
+     *
+     * @return
+     */
+    long nanoTime();
+}
@@ -0,0 +1,411 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.utils.CachedDateFormat;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 重复日志合并器
+ * <p>
+ * 按(日志级别, SubTag, 日志内容)的哈希把日志放入固定数量的槽位，与槽位中正在进行的重复序列相同时，
+ * 只计数而不打印。序列结束（槽位被其他日志替换）或超时后，打印一条汇总日志：
+ * "Repeated N times (first 时间, last 时间): 日志内容"，汇总日志的线程名为序列中第一条日志的线程名。
+ * 超时的序列由后台定时器定期结束，不再打印日志时也会输出汇总；合并器被替换或移除时结束所有序列。
+ * <p>
+ * 槽位数为1时只合并连续的重复日志，大于1时可合并交替出现的多种重复日志。
+ * 槽位与计数都通过CAS更新，打印日志时不加锁。
+ */
+public class DuplicateFilter {
+
+    /**
+     * 默认的槽位数
+     */
+    private static final int DEFAULT_SLOTS = 16;
+
+    /**
+     * 默认的超时时间（毫秒）
+     */
+    private static final long DEFAULT_TIMEOUT = 5000L;
+
+    /**
+     * 汇总日志中日志内容的最大长度
+     */
+    private static final int MAX_PREVIEW_LENGTH = 200;
+
+    /**
+     * 汇总日志中的时间格式
+     */
+    private static final String TIME_PATTERN = "HH:mm:ss.SSS";
+
+    /**
+     * 槽位
+     */
+    private final AtomicReferenceArray<Run> slots;
+
+    /**
+     * 槽位下标掩码
+     */
+    private final int mask;
+
+    /**
+     * 一个重复序列的最长持续时间（毫秒），超过后打印汇总并重新开始
+     */
+    private final long timeout;
+
+    /**
+     * 时钟
+     */
+    private final Clock clock;
+
+    /**
+     * 汇总日志的时间格式器，使用时加锁
+     */
+    private final CachedDateFormat timeFormat = new CachedDateFormat(TIME_PATTERN);
+
+    /**
+     * 上一次检查超时序列的时间（毫秒）
+     */
+    private volatile long lastSweepTime;
+
+    /**
+     * 汇总日志的接收者，即使用该合并器的LoggerCore
+     */
+    private Listener listener;
+
+    /**
+     * 定期结束超时序列的定时器
+     */
+    private Timer timer;
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    private DuplicateFilter(Builder builder) {
+        int size = Integer.highestOneBit(Math.max(builder.slots, 1));
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.timeout = builder.timeout;
+        this.clock = builder.clock;
+    }
+
+    /**
+     * 判断日志是否与正在进行的重复序列相同，相同时计数并返回true（不打印）
+     * <p>
+     * 被替换或已超时的序列会通过listener打印汇总日志
+     *
+     * @param priority
+     * @param subTag
+     * @param message
+     * @param throwable
+     * @param listener
+     * @return
+     */
+    boolean isDuplicate(int priority, String subTag, String message, Throwable throwable, Listener listener) {
+        long now = clock.currentTimeMillis();
+        if (now - lastSweepTime >= timeout / 2) {
+            lastSweepTime = now;
+            sweep(now, listener);
+        }
+
+        String throwableKey = throwable == null ? null : throwable.toString();
+        int hash = hash(priority, subTag, message, throwableKey);
+        int index = hash & mask;
+        Run run = slots.get(index);
+        if (run != null && now - run.firstTime < timeout
+                && run.matches(hash, priority, subTag, message, throwableKey) && run.tryRepeat(now)) {
+            return true;
+        }
+
+        Run previous = slots.getAndSet(index, new Run(hash, priority, subTag, message, throwableKey,
+                Thread.currentThread().getName(), now));
+        if (previous != null) {
+            close(previous, listener);
+        }
+        return false;
+    }
+
+    /**
+     * 开始为LoggerCore合并日志，启动定期结束超时序列的定时器
+     *
+     * @param listener
+     */
+    synchronized void bind(final Listener listener) {
+        if (this.listener != null && this.listener != listener) {
+            throw new IllegalStateException("DuplicateFilter is already in use");
+        }
+        this.listener = listener;
+        if (timer == null) {
+            long period = Math.max(timeout / 2, 1);
+            timer = new Timer("DuplicateFilter", true);
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    sweep(listener);
+                }
+            }, period, period);
+        }
+    }
+
+    /**
+     * 停止合并日志，结束所有重复序列并打印汇总
+     */
+    synchronized void unbind() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        if (listener != null) {
+            flush(listener);
+            listener = null;
+        }
+    }
+
+    /**
+     * 结束所有重复序列，有重复的打印汇总日志
+     *
+     * @param listener
+     */
+    void flush(Listener listener) {
+        for (int i = 0; i < slots.length(); i++) {
+            Run run = slots.getAndSet(i, null);
+            if (run != null) {
+                close(run, listener);
+            }
+        }
+    }
+
+    /**
+     * 结束已超时的重复序列，由定时器定期调用
+     *
+     * @param listener
+     */
+    void sweep(Listener listener) {
+        sweep(clock.currentTimeMillis(), listener);
+    }
+
+    /**
+     * 结束已超时的重复序列
+     *
+     * @param now
+     * @param listener
+     */
+    private void sweep(long now, Listener listener) {
+        for (int i = 0; i < slots.length(); i++) {
+            Run run = slots.get(i);
+            if (run != null && now - run.firstTime >= timeout && slots.compareAndSet(i, run, null)) {
+                close(run, listener);
+            }
+        }
+    }
+
+    /**
+     * 结束重复序列，有重复时打印汇总日志
+     *
+     * @param run
+     * @param listener
+     */
+    private void close(Run run, Listener listener) {
+        long repeats = run.close();
+        if (repeats <= 0) {
+            return;
+        }
+        String message = run.message;
+        if (message.length() > MAX_PREVIEW_LENGTH) {
+            message = message.substring(0, MAX_PREVIEW_LENGTH) + "...";
+        }
+        StringBuilder builder = new StringBuilder("Repeated ").append(repeats).append(" times (first ");
+        synchronized (timeFormat) {
+            timeFormat.formatTo(run.firstTime, builder);
+            builder.append(", last ");
+            timeFormat.formatTo(run.lastTime, builder);
+        }
+        builder.append("): ").append(message);
+        listener.onSummary(run.priority, run.subTag, builder.toString(), run.threadName);
+    }
+
+    /**
+     * 计算日志的哈希
+     *
+     * @param priority
+     * @param subTag
+     * @param message
+     * @param throwableKey
+     * @return
+     */
+    private static int hash(int priority, String subTag, String message, String throwableKey) {
+        int h = priority;
+        h = 31 * h + (subTag == null ? 0 : subTag.hashCode());
+        h = 31 * h + message.hashCode();
+        h = 31 * h + (throwableKey == null ? 0 : throwableKey.hashCode());
+        // 打散低位，槽位下标只使用低位
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 汇总日志的接收者
+     */
+    interface Listener {
+
+        /**
+         * 打印汇总日志
+         *
+         * @param priority
+         * @param subTag
+         * @param message
+         * @param threadName 序列中第一条日志的线程名
+         */
+        void onSummary(int priority, String subTag, String message, String threadName);
+    }
+
+    /**
+     * 一个重复序列
+     */
+    private static class Run {
+
+        final int hash;
+
+        final int priority;
+
+        final String subTag;
+
+        final String message;
+
+        final String throwableKey;
+
+        /**
+         * 第一条日志的线程名
+         */
+        final String threadName;
+
+        /**
+         * 第一条日志的时间
+         */
+        final long firstTime;
+
+        /**
+         * 最后一条重复日志的时间
+         */
+        volatile long lastTime;
+
+        /**
+         * 重复次数，序列结束后为-1
+         */
+        final AtomicLong repeats = new AtomicLong();
+
+        Run(int hash, int priority, String subTag, String message, String throwableKey, String threadName,
+            long time) {
+            this.hash = hash;
+            this.priority = priority;
+            this.subTag = subTag;
+            this.message = message;
+            this.throwableKey = throwableKey;
+            this.threadName = threadName;
+            this.firstTime = time;
+            this.lastTime = time;
+        }
+
+        boolean matches(int hash, int priority, String subTag, String message, String throwableKey) {
+            return this.hash == hash
+                    && this.priority == priority
+                    && (this.subTag == null ? subTag == null : this.subTag.equals(subTag))
+                    && this.message.equals(message)
+                    && (this.throwableKey == null ? throwableKey == null : this.throwableKey.equals(throwableKey));
+        }
+
+        /**
+         * 计入一次重复
+         *
+         * @param now
+         * @return 序列已结束时返回false
+         */
+        boolean tryRepeat(long now) {
+            while (true) {
+                long count = repeats.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (repeats.compareAndSet(count, count + 1)) {
+                    lastTime = now;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 结束序列
+         *
+         * @return 重复次数，已经结束过时返回-1
+         */
+        long close() {
+            return repeats.getAndSet(-1);
+        }
+    }
+
+    /**
+     * 构造器，用于构造DuplicateFilter实例
+     */
+    public static class Builder {
+
+        /**
+         * 槽位数
+         */
+        private int slots = DEFAULT_SLOTS;
+
+        /**
+         * 超时时间（毫秒）
+         */
+        private long timeout = DEFAULT_TIMEOUT;
+
+        /**
+         * 时钟
+         */
+        private Clock clock = Clock.SYSTEM;
+
+        /**
+         * 设置槽位数（向下取整为2的幂），1表示只合并连续的重复日志
+         *
+         * @param slots
+         * @return
+         */
+        public Builder setSlots(int slots) {
+            this.slots = slots;
+            return this;
+        }
+
+        /**
+         * 设置一个重复序列的最长持续时间（毫秒），超过后打印汇总，并重新打印一次该日志
+         *
+         * @param timeout
+         * @return
+         */
+        public Builder setTimeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * 设置时钟，用于单元测试
+         *
+         * @param clock
+         * @return
+         */
+        Builder setClock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * 构造DuplicateFilter
+         *
+         * @return
+         */
+        public DuplicateFilter build() {
+            return new DuplicateFilter(this);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.yangkangli.logger.core;
+
+import java.util.Locale;
+
+/**
+ * 耗时直方图的快照，时间单位为纳秒
+ */
+public final class HistogramSnapshot {
+
+    /**
+     * 各个桶的计数
+     */
+    private final long[] counts;
+
+    /**
+     * 记录次数
+     */
+    private final long count;
+
+    /**
+     * 总耗时
+     */
+    private final long sum;
+
+    /**
+     * 最大耗时
+     */
+    private final long max;
+
+    /**
+     * 构造方法
+     *
+     * @param counts
+     * @param sum
+     * @param max
+     */
+    HistogramSnapshot(long[] counts, long sum, long max) {
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * 获得平均耗时
+     *
+     * @return
+     */
+    public long getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * 获得百分位数（近似值，取所在桶的上界）
+     *
+     * @param percentile 0~100
+     * @return
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                long upper = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upper, max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count
+                + " mean=" + formatNanos(getMean())
+                + " p50=" + formatNanos(getPercentile(50))
+                + " p90=" + formatNanos(getPercentile(90))
+                + " p99=" + formatNanos(getPercentile(99))
+                + " max=" + formatNanos(max);
+    }
+
+    /**
+     * 格式化耗时
+     *
+     * @param nanos
+     * @return
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos < 1000) {
+            return nanos + "ns";
+        } else if (nanos < 1000000) {
+            return String.format(Locale.US, "%.1fus", nanos / 1000.0);
+        }
+        return String.format(Locale.US, "%.1fms", nanos / 1000000.0);
+    }
+}
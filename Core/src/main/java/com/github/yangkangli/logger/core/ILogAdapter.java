@@ -0,0 +1,27 @@
+package com.github.yangkangli.logger.core;
+
+public interface ILogAdapter {
+    /**
+     * 用于确定是否应打印日志
+     *
+     * @return true：打印日志，否则不打印
+     */
+    boolean isLoggable();
+
+    /**
+     * 获得打印日志的最低级别，低于该级别的日志不会交给该日志适配器
+     *
+     * @return
+     */
+    int getMinPriority();
+
+    /**
+     * 打印日志
+     * <p>
+     * 异步模式下日志事件会被复用，方法返回后不应再访问event
+     *
+     * @param event
+     * @param strategy
+     */
+    void log(LogEvent event, BaseLogStrategy strategy);
+}
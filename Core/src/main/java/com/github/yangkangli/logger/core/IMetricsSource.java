@@ -0,0 +1,15 @@
+package com.github.yangkangli.logger.core;
+
+/**
+ * 提供自身指标的日志适配器，生成指标快照时被调用
+ */
+public interface IMetricsSource {
+
+    /**
+     * 把指标写入快照
+     *
+     * @param prefix  指标名称的前缀，如"adapter.DiskAdapter"
+     * @param builder
+     */
+    void collectMetrics(String prefix, MetricsSnapshot.Builder builder);
+}
@@ -0,0 +1,73 @@
+package com.github.yangkangli.logger.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 耗时直方图
+ * <p>
+ * 按2的幂划分桶：第i个桶记录[2^(i-1), 2^i)纳秒的耗时，记录时只做原子加，不加锁。
+ * 百分位数取所在桶的上界，误差在2倍以内。
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 桶数
+     */
+    static final int BUCKETS = 64;
+
+    /**
+     * 各个桶的计数
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * 总耗时（纳秒）
+     */
+    private final StripedCounter total = new StripedCounter();
+
+    /**
+     * 最大耗时（纳秒）
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.getAndIncrement(bucketOf(nanos));
+        total.add(nanos);
+        long current;
+        while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+            // 重试
+        }
+    }
+
+    /**
+     * 获得快照
+     *
+     * @return
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new HistogramSnapshot(counts, total.sum(), max.get());
+    }
+
+    /**
+     * 耗时所在的桶
+     *
+     * @param nanos
+     * @return
+     */
+    static int bucketOf(long nanos) {
+        return Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.yangkangli.logger.core;
+
+/**
+ * 日志事件，记录一条日志的全部信息
+ * <p>
+ * 在异步模式下，日志事件是环形缓冲区中可复用的槽位，{@link ILogAdapter#log(LogEvent, BaseLogStrategy)}
+ * 返回后事件即可能被复用，日志适配器不应持有事件对象本身。
+ */
+public class LogEvent {
+
+    /**
+     * 日志级别
+     */
+    private int priority;
+
+    /**
+     * SubTag
+     */
+    private String subTag;
+
+    /**
+     * 日志内容
+     */
+    private String message;
+
+    /**
+     * 异常
+     */
+    private Throwable throwable;
+
+    /**
+     * 打印日志的线程名称
+     */
+    private String threadName;
+
+    /**
+     * 打印日志的时间
+     */
+    private long timestamp;
+
+    /**
+     * 排版好的调用堆栈行（未开启显示调用堆栈时为null）
+     */
+    private String[] stackLines;
+
+    /**
+     * 环形缓冲区中的序号，用于生产者与消费者之间的同步
+     */
+    volatile long sequence;
+
+    /**
+     * 设置日志事件的内容
+     *
+     * @param priority
+     * @param subTag
+     * @param message
+     * @param throwable
+     * @param threadName
+     * @param timestamp
+     * @param stackLines
+     */
+    void set(int priority, String subTag, String message, Throwable throwable,
+             String threadName, long timestamp, String[] stackLines) {
+        this.priority = priority;
+        this.subTag = subTag;
+        this.message = message;
+        this.throwable = throwable;
+        this.threadName = threadName;
+        this.timestamp = timestamp;
+        this.stackLines = stackLines;
+    }
+
+    /**
+     * 清除对日志内容的引用，以便被回收
+     */
+    void clear() {
+        this.subTag = null;
+        this.message = null;
+        this.throwable = null;
+        this.threadName = null;
+        this.stackLines = null;
+    }
+
+    void setMessage(String message) {
+        this.message = message;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public String getSubTag() {
+        return subTag;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String[] getStackLines() {
+        return stackLines;
+    }
+}
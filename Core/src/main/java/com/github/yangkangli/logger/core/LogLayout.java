@@ -0,0 +1,264 @@
+package com.github.yangkangli.logger.core;
+
+import androidx.annotation.Nullable;
+
+import com.github.yangkangli.logger.utils.Constant;
+
+/**
+ * 日志排版器
+ * <p>
+ * 把一条日志的上边线、线程名称、调用堆栈、消息内容和下边线逐行写入可复用的字符缓冲区，
+ * 每行以'\n'结束。缓冲区在多条日志之间复用，排版一条普通大小的日志不产生任何对象；
+ * 超长日志使缓冲区扩容后，下一条日志开始时会恢复为默认大小，避免长期占用内存。
+ * <p>
+ * 该类不是线程安全的。写日志线程可以持有自己的实例，其他线程通过{@link #obtain()}获得当前线程的实例。
+ */
+public final class LogLayout {
+
+    /**
+     * 缓冲区的默认大小（字符数）
+     */
+    private static final int DEFAULT_CAPACITY = 2048;
+
+    /**
+     * 缓冲区超过该大小（字符数）后不再保留
+     */
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    /**
+     * 行数组的默认大小
+     */
+    private static final int DEFAULT_LINE_CAPACITY = 32;
+
+    /**
+     * 消息内容的换行符
+     */
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator", "\n");
+
+    /**
+     * 每个线程的实例
+     */
+    private static final ThreadLocal<LogLayout> LOCAL = new ThreadLocal<LogLayout>() {
+        @Override
+        protected LogLayout initialValue() {
+            return new LogLayout();
+        }
+    };
+
+    /**
+     * 字符缓冲区
+     */
+    private char[] chars = new char[DEFAULT_CAPACITY];
+
+    /**
+     * 已写入的字符数
+     */
+    private int length;
+
+    /**
+     * 每行的结束位置（不包含'\n'）
+     */
+    private int[] lineEnds = new int[DEFAULT_LINE_CAPACITY];
+
+    /**
+     * 行数
+     */
+    private int lineCount;
+
+    /**
+     * 获得当前线程的实例
+     *
+     * @return
+     */
+    public static LogLayout obtain() {
+        return LOCAL.get();
+    }
+
+    /**
+     * 排版一条日志
+     *
+     * @param strategy
+     * @param subTag
+     * @param threadName 线程名称，不显示时为null
+     * @param stackLines 排版好的调用堆栈行，不显示时为null
+     * @param message
+     */
+    public void layout(BaseLogStrategy strategy, @Nullable String subTag, @Nullable String threadName,
+                       @Nullable String[] stackLines, String message) {
+        reset();
+
+        // 上边线
+        appendLine(strategy.getTopBorder(subTag));
+
+        // 线程名称
+        if (threadName != null) {
+            append(Constant.HORIZONTAL_LINE);
+            append(" Thread:");
+            append(threadName);
+            endLine();
+            // 分隔线
+            appendLine(strategy.getDivider(subTag));
+        }
+
+        // 调用堆栈
+        if (stackLines != null) {
+            for (String line : stackLines) {
+                appendLine(line);
+            }
+            // 分隔线
+            appendLine(strategy.getDivider(subTag));
+        }
+
+        // 消息内容
+        appendMessage(message);
+
+        // 下边线
+        appendLine(strategy.getBottomBorder(subTag));
+    }
+
+    /**
+     * 获得字符缓冲区，第i行位于[getLineStart(i), getLineEnd(i))，其后是'\n'
+     *
+     * @return
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * 获得行数
+     *
+     * @return
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * 获得一行的起始位置
+     *
+     * @param line
+     * @return
+     */
+    public int getLineStart(int line) {
+        return line == 0 ? 0 : lineEnds[line - 1] + 1;
+    }
+
+    /**
+     * 获得一行的结束位置（不包含'\n'）
+     *
+     * @param line
+     * @return
+     */
+    public int getLineEnd(int line) {
+        return lineEnds[line];
+    }
+
+    /**
+     * 清空缓冲区，过大的缓冲区恢复为默认大小
+     */
+    private void reset() {
+        if (chars.length > MAX_RETAINED_CAPACITY) {
+            chars = new char[DEFAULT_CAPACITY];
+        }
+        if (lineEnds.length > MAX_RETAINED_CAPACITY) {
+            lineEnds = new int[DEFAULT_LINE_CAPACITY];
+        }
+        length = 0;
+        lineCount = 0;
+    }
+
+    /**
+     * 按换行符把消息内容分为多行，每行前加"| "
+     * <p>
+     * 与String.split()的结果一致：末尾的空行被忽略
+     *
+     * @param message
+     */
+    private void appendMessage(String message) {
+        int separatorLength = LINE_SEPARATOR.length();
+        int end = message.length();
+        // 忽略末尾的空行
+        while (end >= separatorLength && message.startsWith(LINE_SEPARATOR, end - separatorLength)) {
+            end -= separatorLength;
+        }
+        if (end == 0 && message.length() > 0) {
+            return;
+        }
+
+        int start = 0;
+        while (true) {
+            int index = message.indexOf(LINE_SEPARATOR, start);
+            if (index < 0 || index >= end) {
+                index = end;
+            }
+            append(Constant.HORIZONTAL_LINE);
+            append(" ");
+            append(message, start, index);
+            endLine();
+            if (index >= end) {
+                return;
+            }
+            start = index + separatorLength;
+        }
+    }
+
+    /**
+     * 写入一行
+     *
+     * @param line
+     */
+    private void appendLine(String line) {
+        append(line);
+        endLine();
+    }
+
+    /**
+     * 结束当前行
+     */
+    private void endLine() {
+        if (lineCount == lineEnds.length) {
+            int[] newLineEnds = new int[lineEnds.length * 2];
+            System.arraycopy(lineEnds, 0, newLineEnds, 0, lineCount);
+            lineEnds = newLineEnds;
+        }
+        lineEnds[lineCount++] = length;
+        ensureCapacity(1);
+        chars[length++] = '\n';
+    }
+
+    /**
+     * 写入字符串
+     *
+     * @param text
+     */
+    private void append(String text) {
+        append(text, 0, text.length());
+    }
+
+    /**
+     * 写入字符串的一部分
+     *
+     * @param text
+     * @param start
+     * @param end
+     */
+    private void append(String text, int start, int end) {
+        ensureCapacity(end - start);
+        text.getChars(start, end, chars, length);
+        length += end - start;
+    }
+
+    /**
+     * 确保缓冲区剩余空间足够
+     *
+     * @param size
+     */
+    private void ensureCapacity(int size) {
+        if (length + size > chars.length) {
+            char[] newChars = new char[Math.max(chars.length * 2, length + size)];
+            System.arraycopy(chars, 0, newChars, 0, length);
+            chars = newChars;
+        }
+    }
+}
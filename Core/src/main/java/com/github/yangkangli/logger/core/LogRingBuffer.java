@@ -0,0 +1,105 @@
+package com.github.yangkangli.logger.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 预分配、无锁的多生产者/单消费者环形缓冲区
+ * <p>
+ * 每个槽位带有一个序号：序号等于写入位置时槽位可写，等于写入位置+1时槽位可读。
+ * 生产者只需一次CAS抢占写入位置，再写入槽位字段并发布序号。
+ */
+class LogRingBuffer {
+
+    /**
+     * 槽位数组
+     */
+    private final LogEvent[] slots;
+
+    /**
+     * 下标掩码
+     */
+    private final int mask;
+
+    /**
+     * 下一个写入位置（多个生产者竞争）
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取位置（只由消费者线程访问）
+     */
+    private long head;
+
+    /**
+     * 构造方法
+     *
+     * @param capacity 容量，必须是2的幂
+     */
+    LogRingBuffer(int capacity) {
+        this.slots = new LogEvent[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            LogEvent event = new LogEvent();
+            event.sequence = i;
+            slots[i] = event;
+        }
+    }
+
+    /**
+     * 尝试发布一条日志事件
+     *
+     * @return 缓冲区已满时返回false
+     */
+    boolean tryPublish(int priority, String subTag, String message, Throwable throwable,
+                       String threadName, long timestamp, String[] stackLines) {
+        long position = tail.get();
+        while (true) {
+            LogEvent event = slots[(int) (position & mask)];
+            long difference = event.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    event.set(priority, subTag, message, throwable, threadName, timestamp, stackLines);
+                    // volatile写，保证槽位字段对消费者可见
+                    event.sequence = position + 1;
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // 槽位尚未被消费者释放，缓冲区已满
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 获得下一条可读的日志事件，只能由消费者线程调用
+     *
+     * @return 没有可读事件时返回null
+     */
+    LogEvent peek() {
+        LogEvent event = slots[(int) (head & mask)];
+        return event.sequence == head + 1 ? event : null;
+    }
+
+    /**
+     * 释放由{@link #peek()}获得的日志事件，使槽位可以被生产者复用
+     *
+     * @param event
+     */
+    void release(LogEvent event) {
+        event.clear();
+        event.sequence = head + slots.length;
+        head++;
+    }
+
+    /**
+     * 是否有待处理的日志事件
+     *
+     * @return
+     */
+    boolean hasPending() {
+        return slots[(int) (head & mask)].sequence == head + 1;
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.utils.Constant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日志配置快照
+ * <p>
+ * 不可变对象，包含日志适配器、日志输出策略和日志级别阈值。重新配置时生成新的快照，
+ * 由LoggerCore通过一个volatile引用整体替换，打印日志时只需读取一次该引用。
+ */
+final class LoggerConfig {
+
+    /**
+     * 空的日志适配器数组
+     */
+    private static final ILogAdapter[] EMPTY_ADAPTERS = new ILogAdapter[0];
+
+    /**
+     * 日志适配器，按加入的顺序排列
+     */
+    private final ILogAdapter[] adapters;
+
+    /**
+     * 按日志级别预先计算好的日志适配器，下标为日志级别
+     */
+    private final ILogAdapter[][] priorityAdapters;
+
+    /**
+     * 日志输出策略
+     */
+    private final BaseLogStrategy strategy;
+
+    /**
+     * 全局的最低日志级别
+     */
+    private final int minPriority;
+
+    /**
+     * 日志限流器，为null时不限流
+     */
+    private final RateLimiter rateLimiter;
+
+    /**
+     * 重复日志合并器，为null时不合并
+     */
+    private final DuplicateFilter duplicateFilter;
+
+    /**
+     * 日志指标，为null时不统计
+     */
+    private final LoggerMetrics metrics;
+
+    /**
+     * 异常堆栈的排版
+     */
+    private final ThrowableRenderer throwableRenderer;
+
+    /**
+     * 构造方法
+     *
+     * @param adapters
+     * @param strategy
+     * @param minPriority
+     * @param rateLimiter
+     * @param duplicateFilter
+     * @param metrics
+     * @param throwableRenderer
+     */
+    LoggerConfig(ILogAdapter[] adapters, BaseLogStrategy strategy, int minPriority, RateLimiter rateLimiter,
+                 DuplicateFilter duplicateFilter, LoggerMetrics metrics, ThrowableRenderer throwableRenderer) {
+        this.adapters = adapters;
+        this.strategy = strategy;
+        this.minPriority = minPriority;
+        this.rateLimiter = rateLimiter;
+        this.duplicateFilter = duplicateFilter;
+        this.metrics = metrics;
+        this.throwableRenderer = throwableRenderer;
+        this.priorityAdapters = buildPriorityAdapters(adapters, minPriority);
+    }
+
+    /**
+     * 获得全部日志适配器
+     *
+     * @return
+     */
+    ILogAdapter[] getAdapters() {
+        return adapters;
+    }
+
+    /**
+     * 获得会打印该级别日志的日志适配器
+     *
+     * @param priority
+     * @return
+     */
+    ILogAdapter[] getAdapters(int priority) {
+        if (priority < 0 || priority >= priorityAdapters.length) {
+            return EMPTY_ADAPTERS;
+        }
+        return priorityAdapters[priority];
+    }
+
+    BaseLogStrategy getStrategy() {
+        return strategy;
+    }
+
+    int getMinPriority() {
+        return minPriority;
+    }
+
+    RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    DuplicateFilter getDuplicateFilter() {
+        return duplicateFilter;
+    }
+
+    LoggerMetrics getMetrics() {
+        return metrics;
+    }
+
+    ThrowableRenderer getThrowableRenderer() {
+        return throwableRenderer;
+    }
+
+    /**
+     * 生成使用新日志适配器的快照
+     *
+     * @param adapters
+     * @return
+     */
+    LoggerConfig withAdapters(ILogAdapter[] adapters) {
+        return new LoggerConfig(adapters, strategy, minPriority, rateLimiter, duplicateFilter, metrics,
+                throwableRenderer);
+    }
+
+    /**
+     * 生成使用新日志输出策略的快照
+     *
+     * @param strategy
+     * @return
+     */
+    LoggerConfig withStrategy(BaseLogStrategy strategy) {
+        return new LoggerConfig(adapters, strategy, minPriority, rateLimiter, duplicateFilter, metrics,
+                throwableRenderer);
+    }
+
+    /**
+     * 生成使用新最低日志级别的快照
+     *
+     * @param minPriority
+     * @return
+     */
+    LoggerConfig withMinPriority(int minPriority) {
+        return new LoggerConfig(adapters, strategy, minPriority, rateLimiter, duplicateFilter, metrics,
+                throwableRenderer);
+    }
+
+    /**
+     * 生成使用新日志限流器的快照
+     *
+     * @param rateLimiter
+     * @return
+     */
+    LoggerConfig withRateLimiter(RateLimiter rateLimiter) {
+        return new LoggerConfig(adapters, strategy, minPriority, rateLimiter, duplicateFilter, metrics,
+                throwableRenderer);
+    }
+
+    /**
+     * 生成使用新重复日志合并器的快照
+     *
+     * @param duplicateFilter
+     * @return
+     */
+    LoggerConfig withDuplicateFilter(DuplicateFilter duplicateFilter) {
+        return new LoggerConfig(adapters, strategy, minPriority, rateLimiter, duplicateFilter, metrics,
+                throwableRenderer);
+    }
+
+    /**
+     * 生成使用新日志指标的快照
+     *
+     * @param metrics
+     * @return
+     */
+    LoggerConfig withMetrics(LoggerMetrics metrics) {
+        return new LoggerConfig(adapters, strategy, minPriority, rateLimiter, duplicateFilter, metrics,
+                throwableRenderer);
+    }
+
+    /**
+     * 生成使用新异常堆栈排版的快照
+     *
+     * @param throwableRenderer
+     * @return
+     */
+    LoggerConfig withThrowableRenderer(ThrowableRenderer throwableRenderer) {
+        return new LoggerConfig(adapters, strategy, minPriority, rateLimiter, duplicateFilter, metrics,
+                throwableRenderer);
+    }
+
+    /**
+     * 按日志级别计算会打印该级别日志的日志适配器
+     * <p>
+     * 日志适配器的isLoggable()与getMinPriority()在生成快照时即被确定
+     *
+     * @param adapters
+     * @param minPriority
+     * @return
+     */
+    private static ILogAdapter[][] buildPriorityAdapters(ILogAdapter[] adapters, int minPriority) {
+        ILogAdapter[][] result = new ILogAdapter[Constant.ASSERT + 1][];
+        for (int priority = 0; priority < result.length; priority++) {
+            List<ILogAdapter> list = new ArrayList<>();
+            if (priority >= minPriority) {
+                for (ILogAdapter adapter : adapters) {
+                    if (adapter.isLoggable() && priority >= adapter.getMinPriority()) {
+                        list.add(adapter);
+                    }
+                }
+            }
+            result[priority] = list.isEmpty() ? EMPTY_ADAPTERS : list.toArray(new ILogAdapter[list.size()]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,554 @@
+package com.github.yangkangli.logger.core;
+
+import androidx.annotation.Nullable;
+
+import com.github.yangkangli.logger.utils.Constant;
+import com.github.yangkangli.logger.strategy.DefaultLogStrategy;
+import com.github.yangkangli.logger.utils.JsonFormatter;
+import com.github.yangkangli.logger.utils.Utils;
+import com.github.yangkangli.logger.utils.XmlFormatter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class LoggerCore {
+
+    /**
+     * 限流汇总日志的SubTag
+     */
+    private static final String RATE_LIMITER_TAG = "RateLimiter";
+
+    /**
+     * 日志配置快照，重新配置时整体替换（写时复制），打印日志时无需加锁
+     */
+    private volatile LoggerConfig config;
+
+    /**
+     * 调用位置缓存
+     */
+    private final CallSiteCache callSiteCache = new CallSiteCache();
+
+    /**
+     * 异步日志分发器，为null时在调用线程中同步分发
+     */
+    private volatile AsyncDispatcher asyncDispatcher;
+
+    /**
+     * 打印重复日志的汇总
+     */
+    private final DuplicateFilter.Listener duplicateListener = new DuplicateFilter.Listener() {
+        @Override
+        public void onSummary(int priority, String subTag, String message, String threadName) {
+            emit(config, priority, subTag, message, null, threadName, false);
+        }
+    };
+
+    /**
+     * 打印被限流日志的汇总
+     */
+    private final RateLimiter.Listener rateLimiterListener = new RateLimiter.Listener() {
+        @Override
+        public void onReport(String report, String threadName) {
+            emit(config, Constant.WARN, RATE_LIMITER_TAG, report, null, threadName, false);
+        }
+    };
+
+    /**
+     * 构造方法
+     */
+    public LoggerCore() {
+        // 构造默认的日志输出策略
+        this.config = new LoggerConfig(new ILogAdapter[0], new DefaultLogStrategy.Builder().build(), Constant.VERBOSE,
+                null, null, null, new ThrowableRenderer.Builder().build());
+    }
+
+    /**
+     * 设置日志输出策略
+     *
+     * @param strategy
+     */
+    public synchronized void setStrategy(BaseLogStrategy strategy) {
+        Utils.checkNotNull(strategy);
+        config = config.withStrategy(strategy);
+    }
+
+    /**
+     * 网日志适配器列表中加入一个日志适配器
+     *
+     * @param adapter
+     */
+    public void addAdapter(ILogAdapter adapter) {
+        addAdapters(adapter);
+    }
+
+    /**
+     * 往日志适配器列表中加入多个日志适配器，其他线程要么看到全部加入后的配置，要么看到加入前的配置
+     *
+     * @param adapters
+     */
+    public synchronized void addAdapters(ILogAdapter... adapters) {
+        ILogAdapter[] current = config.getAdapters();
+        ILogAdapter[] result = Arrays.copyOf(current, current.length + adapters.length);
+        for (int i = 0; i < adapters.length; i++) {
+            result[current.length + i] = Utils.checkNotNull(adapters[i]);
+        }
+        config = config.withAdapters(result);
+    }
+
+    /**
+     * 从日志适配器列表中移除一个日志适配器
+     *
+     * @param adapter
+     * @return 是否移除成功
+     */
+    public synchronized boolean removeAdapter(ILogAdapter adapter) {
+        ILogAdapter[] current = config.getAdapters();
+        int index = indexOf(current, adapter);
+        if (index < 0) {
+            return false;
+        }
+        ILogAdapter[] result = new ILogAdapter[current.length - 1];
+        System.arraycopy(current, 0, result, 0, index);
+        System.arraycopy(current, index + 1, result, index, current.length - index - 1);
+        config = config.withAdapters(result);
+        return true;
+    }
+
+    /**
+     * 用新的日志适配器替换日志适配器列表中的一个日志适配器，位置保持不变
+     *
+     * @param oldAdapter
+     * @param newAdapter
+     * @return 是否替换成功
+     */
+    public synchronized boolean replaceAdapter(ILogAdapter oldAdapter, ILogAdapter newAdapter) {
+        Utils.checkNotNull(newAdapter);
+        ILogAdapter[] current = config.getAdapters();
+        int index = indexOf(current, oldAdapter);
+        if (index < 0) {
+            return false;
+        }
+        ILogAdapter[] result = current.clone();
+        result[index] = newAdapter;
+        config = config.withAdapters(result);
+        return true;
+    }
+
+    /**
+     * 清除日志适配器列表
+     */
+    public synchronized void clearAdapter() {
+        config = config.withAdapters(new ILogAdapter[0]);
+    }
+
+    /**
+     * 获得当前的日志适配器
+     *
+     * @return
+     */
+    public List<ILogAdapter> getAdapters() {
+        return Collections.unmodifiableList(Arrays.asList(config.getAdapters()));
+    }
+
+    /**
+     * 设置全局的最低日志级别
+     *
+     * @param priority
+     */
+    public synchronized void setMinPriority(int priority) {
+        config = config.withMinPriority(priority);
+    }
+
+    /**
+     * 设置日志限流器，传入null则不限流；原有限流器会打印最后一次汇总
+     *
+     * @param rateLimiter
+     */
+    public synchronized void setRateLimiter(@Nullable RateLimiter rateLimiter) {
+        RateLimiter old = config.getRateLimiter();
+        if (old == rateLimiter) {
+            return;
+        }
+        if (rateLimiter != null) {
+            rateLimiter.bind(rateLimiterListener);
+        }
+        config = config.withRateLimiter(rateLimiter);
+        if (old != null) {
+            old.unbind();
+        }
+    }
+
+    /**
+     * 设置重复日志合并器，为null时不合并；原有合并器中尚未结束的重复序列会打印汇总
+     *
+     * @param duplicateFilter
+     */
+    public synchronized void setDuplicateFilter(@Nullable DuplicateFilter duplicateFilter) {
+        DuplicateFilter old = config.getDuplicateFilter();
+        if (old == duplicateFilter) {
+            return;
+        }
+        if (duplicateFilter != null) {
+            duplicateFilter.bind(duplicateListener);
+        }
+        config = config.withDuplicateFilter(duplicateFilter);
+        if (old != null) {
+            // 原有合并器中正在进行的重复序列打印汇总
+            old.unbind();
+        }
+    }
+
+    /**
+     * 设置异常堆栈的排版
+     *
+     * @param renderer
+     */
+    public synchronized void setThrowableRenderer(ThrowableRenderer renderer) {
+        Utils.checkNotNull(renderer);
+        config = config.withThrowableRenderer(renderer);
+    }
+
+    /**
+     * 设置异步日志分发器，传入null则恢复为在调用线程中同步分发
+     * <p>
+     * 原有的异步日志分发器会被停止，其缓冲区中的日志仍会被处理完
+     *
+     * @param dispatcher
+     */
+    public synchronized void setAsyncDispatcher(@Nullable AsyncDispatcher dispatcher) {
+        AsyncDispatcher old = this.asyncDispatcher;
+        if (old == dispatcher) {
+            return;
+        }
+        if (dispatcher != null) {
+            dispatcher.start(this);
+        }
+        this.asyncDispatcher = dispatcher;
+        if (old != null) {
+            old.shutdown();
+        }
+    }
+
+    /**
+     * 获得异步日志分发器
+     *
+     * @return
+     */
+    AsyncDispatcher getAsyncDispatcher() {
+        return asyncDispatcher;
+    }
+
+    /**
+     * 设置日志指标，传入null则不统计
+     *
+     * @param metrics
+     */
+    public synchronized void setMetrics(@Nullable LoggerMetrics metrics) {
+        LoggerMetrics old = config.getMetrics();
+        if (old == metrics) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.bind(this);
+        }
+        config = config.withMetrics(metrics);
+        if (old != null) {
+            old.unbind();
+        }
+    }
+
+    /**
+     * 获得日志指标，未设置时返回null
+     *
+     * @return
+     */
+    @Nullable
+    public LoggerMetrics getMetrics() {
+        return config.getMetrics();
+    }
+
+
+    /**
+     * 打印日志
+     *
+     * @param tag
+     * @param message
+     * @param throwable
+     */
+    public void v(String tag, Object message, Throwable throwable) {
+        log(Constant.VERBOSE, tag, message, throwable);
+    }
+
+
+    /**
+     * 打印日志
+     *
+     * @param tag
+     * @param message
+     * @param throwable
+     */
+    public void d(String tag, Object message, Throwable throwable) {
+        log(Constant.DEBUG, tag, message, throwable);
+    }
+
+
+    /**
+     * 打印日志
+     *
+     * @param tag
+     * @param message
+     * @param throwable
+     */
+    public void i(String tag, Object message, Throwable throwable) {
+        log(Constant.INFO, tag, message, throwable);
+    }
+
+
+    /**
+     * 打印日志
+     *
+     * @param tag
+     * @param message
+     * @param throwable
+     */
+    public void w(String tag, Object message, Throwable throwable) {
+        log(Constant.WARN, tag, message, throwable);
+    }
+
+
+    /**
+     * 打印日志
+     *
+     * @param tag
+     * @param message
+     * @param throwable
+     */
+    public void e(String tag, Object message, Throwable throwable) {
+        log(Constant.ERROR, tag, message, throwable);
+    }
+
+
+    /**
+     * 打印日志（模板），模板中的"{}"依次替换为参数，最后一个多余的Throwable参数作为异常打印
+     *
+     * @param priority
+     * @param subTag
+     * @param template
+     * @param args
+     */
+    public void format(int priority, String subTag, final String template, final Object... args) {
+        if (!isLoggable(priority)) {
+            return;
+        }
+        Throwable throwable = Utils.getTemplateThrowable(template, args);
+        // 被限流的日志不替换模板
+        log(priority, subTag, new MessageSupplier() {
+            @Override
+            public Object get() {
+                return Utils.formatTemplate(template, args);
+            }
+        }, throwable);
+    }
+
+    /**
+     * 是否有日志适配器会打印该级别的日志
+     *
+     * @param priority
+     * @return
+     */
+    public boolean isLoggable(int priority) {
+        return config.getAdapters(priority).length > 0;
+    }
+
+    /**
+     * 查找日志适配器的位置
+     *
+     * @param adapters
+     * @param adapter
+     * @return
+     */
+    private static int indexOf(ILogAdapter[] adapters, ILogAdapter adapter) {
+        for (int i = 0; i < adapters.length; i++) {
+            if (adapters[i] == adapter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 打印日志（JSON）
+     *
+     * @param subTag
+     * @param title
+     * @param json
+     */
+    public void json(String subTag, String title, String json) {
+        if (!isLoggable(Constant.DEBUG) && !isLoggable(Constant.ERROR)) {
+            return;
+        }
+        // 流式重新缩进，直接写入日志内容，不构造JSON对象
+        StringBuilder builder = new StringBuilder(json.length() + 64);
+        if (!Utils.isEmpty(title)) {
+            builder.append(title).append(":\n");
+        }
+        BaseLogStrategy strategy = config.getStrategy();
+        if (JsonFormatter.format(json, Constant.JSON_INDENT, strategy.isMinifyJson(), strategy.getMaxJsonLength(),
+                builder)) {
+            d(subTag, builder.toString(), null);
+        } else if (Utils.isEmpty(title)) {
+            e(subTag, "Invalid Json", null);
+        } else {
+            e(subTag, title + ":\n" + "Invalid Json", null);
+        }
+    }
+
+    /**
+     * 打印日志（Xml）
+     *
+     * @param subTag
+     * @param title
+     * @param xml
+     */
+    public void xml(String subTag, String title, String xml) {
+        if (!isLoggable(Constant.DEBUG) && !isLoggable(Constant.ERROR)) {
+            return;
+        }
+        StringBuilder builder = new StringBuilder(xml.length() + 64);
+        if (!Utils.isEmpty(title)) {
+            builder.append(title).append(":\n");
+        }
+        if (XmlFormatter.format(xml, config.getStrategy().getMaxXmlLength(), builder)) {
+            d(subTag, builder.toString(), null);
+        } else if (Utils.isEmpty(title)) {
+            e(subTag, "Invalid Xml", null);
+        } else {
+            e(subTag, title + ":\n" + "Invalid Xml", null);
+        }
+    }
+
+
+    /**
+     * 打印日志
+     *
+     * @param priority
+     * @param subTag
+     * @param message
+     * @param throwable
+     */
+    private void log(int priority, String subTag, Object content, @Nullable Throwable throwable) {
+        // 整条日志使用同一个配置快照，先判断是否会被打印，再生成日志内容
+        LoggerConfig snapshot = config;
+        if (snapshot.getAdapters(priority).length == 0) {
+            return;
+        }
+
+        // 限流，被限流的日志不生成日志内容
+        RateLimiter rateLimiter = snapshot.getRateLimiter();
+        if (rateLimiter != null) {
+            if (!rateLimiter.tryAcquire(priority, subTag)) {
+                if (snapshot.getMetrics() != null) {
+                    snapshot.getMetrics().onRateLimited();
+                }
+                return;
+            }
+        }
+
+        if (content instanceof MessageSupplier) {
+            content = ((MessageSupplier) content).get();
+        }
+        String message = Utils.toString(content);
+
+        // 合并重复日志，重复的日志不获取调用栈
+        DuplicateFilter duplicateFilter = snapshot.getDuplicateFilter();
+        if (duplicateFilter != null && message != null
+                && duplicateFilter.isDuplicate(priority, subTag, message, throwable, duplicateListener)) {
+            if (snapshot.getMetrics() != null) {
+                snapshot.getMetrics().onDuplicate();
+            }
+            return;
+        }
+        // 线程名称必须在调用线程中获取
+        emit(snapshot, priority, subTag, message, throwable, Thread.currentThread().getName(), true);
+    }
+
+    /**
+     * 生成日志事件，并同步或异步分发
+     *
+     * @param snapshot
+     * @param priority
+     * @param subTag
+     * @param message
+     * @param throwable
+     * @param threadName
+     * @param withStackTrace 是否按日志输出策略获取调用堆栈
+     */
+    private void emit(LoggerConfig snapshot, int priority, String subTag, String message,
+                      @Nullable Throwable throwable, String threadName, boolean withStackTrace) {
+        LoggerMetrics metrics = snapshot.getMetrics();
+        if (metrics != null) {
+            metrics.onRecord(priority, subTag);
+        }
+
+        // 时间和调用堆栈必须在调用线程中获取
+        long timestamp = System.currentTimeMillis();
+        BaseLogStrategy strategy = snapshot.getStrategy();
+        String[] stackLines = withStackTrace && strategy.isShowStackTrace()
+                ? callSiteCache.getStackLines(strategy.getMethodCount()) : null;
+
+        AsyncDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null
+                && dispatcher.publish(priority, subTag, message, throwable, threadName, timestamp, stackLines)) {
+            return;
+        }
+
+        LogEvent event = new LogEvent();
+        event.set(priority, subTag, message, throwable, threadName, timestamp, stackLines);
+        dispatch(event, snapshot);
+    }
+
+    /**
+     * 将日志事件分发给各个日志适配器，在异步分发器的消费者线程中执行，使用分发时的配置
+     *
+     * @param event
+     */
+    void dispatch(LogEvent event) {
+        dispatch(event, config);
+    }
+
+    /**
+     * 将日志事件分发给各个日志适配器
+     *
+     * @param event
+     * @param snapshot
+     */
+    private void dispatch(LogEvent event, LoggerConfig snapshot) {
+        String message = event.getMessage();
+        Throwable throwable = event.getThrowable();
+        if (throwable != null) {
+            String trace = snapshot.getThrowableRenderer().render(throwable);
+            if (Utils.isEmpty(message)) {
+                message = trace;
+            } else {
+                message += " : " + trace;
+            }
+        }
+        if (Utils.isEmpty(message)) {
+            message = "Empty/NULL log message";
+        }
+        event.setMessage(message);
+
+        BaseLogStrategy strategy = snapshot.getStrategy();
+        LoggerMetrics metrics = snapshot.getMetrics();
+        for (ILogAdapter adapter : snapshot.getAdapters(event.getPriority())) {
+            if (metrics == null) {
+                adapter.log(event, strategy);
+            } else {
+                long start = System.nanoTime();
+                adapter.log(event, strategy);
+                metrics.onAdapterLog(adapter, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.utils.Constant;
+import com.github.yangkangli.logger.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日志自身的指标
+ * <p>
+ * 统计各级别、各SubTag打印的日志数，被限流与被合并的日志数，以及各个日志适配器的耗时；
+ * 实现了{@link IMetricsSource}的日志适配器（如DiskAdapter）还会报告自己的指标。
+ * 计数使用分段计数器，记录时不加锁。
+ * <p>
+ * 通过{@link #snapshot()}获取快照，或通过{@link Builder#setDumpInterval(long, Listener)}定期获取。
+ * 指标名称：
+ * <ul>
+ * <li>records.V ~ records.A：各级别的日志数</li>
+ * <li>records.tag.SubTag：各SubTag的日志数，超出数量上限的SubTag计入records.tag.(other)</li>
+ * <li>records.rateLimited、records.duplicate：被限流、被合并的日志数</li>
+ * <li>async.discarded：异步分发器丢弃的日志数</li>
+ * <li>adapter.适配器名.latency：日志适配器处理一条日志的耗时</li>
+ * </ul>
+ */
+public class LoggerMetrics {
+
+    /**
+     * 单独统计的SubTag数量上限
+     */
+    private static final int MAX_TAGS = 128;
+
+    /**
+     * 没有SubTag的日志
+     */
+    private static final String NONE_TAG = "(none)";
+
+    /**
+     * 超出数量上限的SubTag
+     */
+    private static final String OTHER_TAG = "(other)";
+
+    /**
+     * 各级别的日志数，下标为日志级别
+     */
+    private final StripedCounter[] levelCounters = new StripedCounter[Constant.ASSERT + 1];
+
+    /**
+     * 各SubTag的日志数
+     */
+    private final ConcurrentHashMap<String, StripedCounter> tagCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 超出数量上限的SubTag的日志数
+     */
+    private final StripedCounter otherTagCounter = new StripedCounter();
+
+    /**
+     * 被限流的日志数
+     */
+    private final StripedCounter rateLimitedCounter = new StripedCounter();
+
+    /**
+     * 被合并的重复日志数
+     */
+    private final StripedCounter duplicateCounter = new StripedCounter();
+
+    /**
+     * 各个日志适配器的耗时
+     */
+    private final ConcurrentHashMap<ILogAdapter, LatencyHistogram> adapterLatencies = new ConcurrentHashMap<>();
+
+    /**
+     * 定期获取快照的间隔（毫秒），0表示不定期获取
+     */
+    private final long dumpInterval;
+
+    /**
+     * 定期获取快照的接收者
+     */
+    private final Listener listener;
+
+    /**
+     * 使用该指标的LoggerCore
+     */
+    private volatile LoggerCore loggerCore;
+
+    /**
+     * 定期获取快照的定时器
+     */
+    private Timer timer;
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    private LoggerMetrics(Builder builder) {
+        for (int i = 0; i < levelCounters.length; i++) {
+            levelCounters[i] = new StripedCounter();
+        }
+        this.dumpInterval = builder.dumpInterval;
+        this.listener = builder.listener;
+    }
+
+    /**
+     * 获得指标快照
+     *
+     * @return
+     */
+    public MetricsSnapshot snapshot() {
+        MetricsSnapshot.Builder builder = new MetricsSnapshot.Builder(System.currentTimeMillis());
+        for (int priority = Constant.VERBOSE; priority <= Constant.ASSERT; priority++) {
+            builder.putCounter("records." + Utils.getLevelName(priority), levelCounters[priority].sum());
+        }
+        for (Map.Entry<String, StripedCounter> entry : tagCounters.entrySet()) {
+            builder.putCounter("records.tag." + entry.getKey(), entry.getValue().sum());
+        }
+        builder.putCounter("records.tag." + OTHER_TAG, otherTagCounter.sum());
+        builder.putCounter("records.rateLimited", rateLimitedCounter.sum());
+        builder.putCounter("records.duplicate", duplicateCounter.sum());
+
+        LoggerCore core = loggerCore;
+        if (core != null) {
+            AsyncDispatcher dispatcher = core.getAsyncDispatcher();
+            if (dispatcher != null) {
+                builder.putCounter("async.discarded", dispatcher.getDiscardedCount());
+            }
+            collectAdapters(core.getAdapters(), builder);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 写入各个日志适配器的指标，同类的多个日志适配器以"#序号"区分
+     *
+     * @param adapters
+     * @param builder
+     */
+    private void collectAdapters(List<ILogAdapter> adapters, MetricsSnapshot.Builder builder) {
+        Map<String, Integer> nameCounts = new HashMap<>();
+        for (ILogAdapter adapter : adapters) {
+            String name = adapter.getClass().getSimpleName();
+            Integer count = nameCounts.get(name);
+            nameCounts.put(name, count == null ? 1 : count + 1);
+        }
+
+        Map<String, Integer> nameIndexes = new HashMap<>();
+        for (ILogAdapter adapter : adapters) {
+            String name = adapter.getClass().getSimpleName();
+            if (nameCounts.get(name) > 1) {
+                Integer index = nameIndexes.get(name);
+                index = index == null ? 0 : index + 1;
+                nameIndexes.put(name, index);
+                name = name + "#" + index;
+            }
+            String prefix = "adapter." + name;
+            LatencyHistogram histogram = adapterLatencies.get(adapter);
+            if (histogram != null) {
+                builder.putHistogram(prefix + ".latency", histogram.snapshot());
+            }
+            if (adapter instanceof IMetricsSource) {
+                ((IMetricsSource) adapter).collectMetrics(prefix, builder);
+            }
+        }
+
+        // 丢弃已移除的日志适配器的耗时
+        adapterLatencies.keySet().retainAll(new ArrayList<>(adapters));
+    }
+
+    /**
+     * 记录一条打印的日志
+     *
+     * @param priority
+     * @param subTag
+     */
+    void onRecord(int priority, String subTag) {
+        if (priority >= 0 && priority < levelCounters.length) {
+            levelCounters[priority].increment();
+        }
+        String tag = subTag == null ? NONE_TAG : subTag;
+        StripedCounter counter = tagCounters.get(tag);
+        if (counter == null) {
+            if (tagCounters.size() >= MAX_TAGS) {
+                otherTagCounter.increment();
+                return;
+            }
+            StripedCounter created = new StripedCounter();
+            counter = tagCounters.putIfAbsent(tag, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.increment();
+    }
+
+    /**
+     * 记录一条被限流的日志
+     */
+    void onRateLimited() {
+        rateLimitedCounter.increment();
+    }
+
+    /**
+     * 记录一条被合并的重复日志
+     */
+    void onDuplicate() {
+        duplicateCounter.increment();
+    }
+
+    /**
+     * 记录日志适配器处理一条日志的耗时
+     *
+     * @param adapter
+     * @param nanos
+     */
+    void onAdapterLog(ILogAdapter adapter, long nanos) {
+        LatencyHistogram histogram = adapterLatencies.get(adapter);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = adapterLatencies.putIfAbsent(adapter, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * 开始为LoggerCore统计指标
+     *
+     * @param core
+     */
+    synchronized void bind(LoggerCore core) {
+        if (loggerCore != null && loggerCore != core) {
+            throw new IllegalStateException("LoggerMetrics is already in use");
+        }
+        loggerCore = core;
+        if (dumpInterval > 0 && listener != null && timer == null) {
+            timer = new Timer("LoggerMetrics", true);
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    listener.onMetrics(snapshot());
+                }
+            }, dumpInterval, dumpInterval);
+        }
+    }
+
+    /**
+     * 停止统计指标
+     */
+    synchronized void unbind() {
+        loggerCore = null;
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    /**
+     * 定期获取快照的接收者
+     */
+    public interface Listener {
+
+        /**
+         * 在定时器线程中回调
+         *
+         * @param snapshot
+         */
+        void onMetrics(MetricsSnapshot snapshot);
+    }
+
+    /**
+     * 构造器，用于构造LoggerMetrics实例
+     */
+    public static class Builder {
+
+        /**
+         * 定期获取快照的间隔（毫秒）
+         */
+        private long dumpInterval;
+
+        /**
+         * 定期获取快照的接收者
+         */
+        private Listener listener;
+
+        /**
+         * 设置定期获取快照的间隔（毫秒）与接收者，用于把指标上报到自己的监控系统
+         *
+         * @param interval
+         * @param listener
+         * @return
+         */
+        public Builder setDumpInterval(long interval, Listener listener) {
+            this.dumpInterval = interval;
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * 构造LoggerMetrics
+         *
+         * @return
+         */
+        public LoggerMetrics build() {
+            return new LoggerMetrics(this);
+        }
+    }
+}
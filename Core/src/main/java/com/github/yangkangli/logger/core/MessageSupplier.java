@@ -0,0 +1,17 @@
+package com.github.yangkangli.logger.core;
+
+/**
+ * 延迟生成日志内容
+ * <p>
+ * 只有在至少一个日志适配器会打印该级别的日志时，{@link #get()}才会被调用，
+ * 因此被关闭的日志不会产生拼接字符串的开销
+ */
+public interface MessageSupplier {
+
+    /**
+     * 生成日志内容
+     *
+     * @return
+     */
+    Object get();
+}
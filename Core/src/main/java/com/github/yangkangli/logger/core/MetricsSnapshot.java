@@ -0,0 +1,136 @@
+package com.github.yangkangli.logger.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 日志指标的快照，包含计数（名称到数值）与耗时直方图（名称到直方图快照），名称按字母排序
+ */
+public final class MetricsSnapshot {
+
+    /**
+     * 生成快照的时间
+     */
+    private final long timestamp;
+
+    /**
+     * 计数
+     */
+    private final Map<String, Long> counters;
+
+    /**
+     * 耗时直方图
+     */
+    private final Map<String, HistogramSnapshot> histograms;
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    private MetricsSnapshot(Builder builder) {
+        this.timestamp = builder.timestamp;
+        this.counters = Collections.unmodifiableMap(builder.counters);
+        this.histograms = Collections.unmodifiableMap(builder.histograms);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * 获得计数，不存在时返回0
+     *
+     * @param name
+     * @return
+     */
+    public long getCounter(String name) {
+        Long value = counters.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * 获得耗时直方图，不存在时返回null
+     *
+     * @param name
+     * @return
+     */
+    public HistogramSnapshot getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            builder.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        for (Map.Entry<String, HistogramSnapshot> entry : histograms.entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 构造器，用于构造MetricsSnapshot实例
+     */
+    public static class Builder {
+
+        private final long timestamp;
+
+        private final Map<String, Long> counters = new TreeMap<>();
+
+        private final Map<String, HistogramSnapshot> histograms = new TreeMap<>();
+
+        /**
+         * 构造方法
+         *
+         * @param timestamp
+         */
+        Builder(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * 写入计数
+         *
+         * @param name
+         * @param value
+         * @return
+         */
+        public Builder putCounter(String name, long value) {
+            counters.put(name, value);
+            return this;
+        }
+
+        /**
+         * 写入耗时直方图
+         *
+         * @param name
+         * @param histogram
+         * @return
+         */
+        public Builder putHistogram(String name, HistogramSnapshot histogram) {
+            histograms.put(name, histogram);
+            return this;
+        }
+
+        /**
+         * 构造MetricsSnapshot
+         *
+         * @return
+         */
+        public MetricsSnapshot build() {
+            return new MetricsSnapshot(this);
+        }
+    }
+}
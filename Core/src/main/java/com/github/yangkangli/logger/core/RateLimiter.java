@@ -0,0 +1,611 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.utils.Constant;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志限流器
+ * <p>
+ * 按(SubTag, 日志级别)使用令牌桶限制日志速率，并可按SubTag每N条只保留1条（采样）。
+ * 令牌桶使用GCRA算法实现，每个桶只有一个通过CAS更新的long，打印日志时不加锁、不产生对象。
+ * <p>
+ * SubTag的状态保存在ConcurrentHashMap中，数量超过上限时先清除长时间未使用的SubTag（清除时打印其汇总），
+ * 仍然超过时，新的SubTag共用一个溢出状态。被限流的日志数按SubTag累计，
+ * 后台定时器每隔一段时间由LoggerCore以"RateLimiter"为SubTag为每个有日志被限流的SubTag打印一条汇总日志，
+ * 线程名为该SubTag最近一条被限流日志的线程名，限流器被替换或移除时打印最后一次汇总。
+ * <p>
+ * 默认不限制{@link Constant#ERROR}及以上级别的日志。
+ */
+public class RateLimiter {
+
+    /**
+     * 默认的速率（条/秒）
+     */
+    private static final double DEFAULT_RATE = 50;
+
+    /**
+     * 默认的突发数量
+     */
+    private static final int DEFAULT_BURST = 100;
+
+    /**
+     * 默认的SubTag最大数量
+     */
+    private static final int DEFAULT_MAX_TAGS = 512;
+
+    /**
+     * 默认的SubTag空闲清除时间（毫秒）
+     */
+    private static final long DEFAULT_IDLE_TIMEOUT = 60 * 1000L;
+
+    /**
+     * 默认的汇总间隔（毫秒）
+     */
+    private static final long DEFAULT_REPORT_INTERVAL = 10 * 1000L;
+
+    /**
+     * 更新最近使用时间的最小间隔（纳秒），减少对同一缓存行的写入
+     */
+    private static final long ACCESS_GRANULARITY = 1000000000L;
+
+    /**
+     * 没有SubTag时使用的键
+     */
+    private static final String NO_TAG = "";
+
+    /**
+     * 不受限制的最低日志级别
+     */
+    private final int exemptPriority;
+
+    /**
+     * 默认的令牌间隔（纳秒）
+     */
+    private final long defaultInterval;
+
+    /**
+     * 默认的突发容忍时间（纳秒）
+     */
+    private final long defaultTolerance;
+
+    /**
+     * 默认的采样间隔，1表示不采样
+     */
+    private final int defaultSampleRate;
+
+    /**
+     * 单独设置了速率的SubTag -> {令牌间隔, 突发容忍时间}
+     */
+    private final Map<String, long[]> tagRates;
+
+    /**
+     * 单独设置了采样间隔的SubTag -> 采样间隔
+     */
+    private final Map<String, Integer> tagSampleRates;
+
+    /**
+     * SubTag的最大数量
+     */
+    private final int maxTags;
+
+    /**
+     * SubTag空闲清除时间（纳秒）
+     */
+    private final long idleTimeout;
+
+    /**
+     * 汇总间隔（纳秒）
+     */
+    private final long reportInterval;
+
+    /**
+     * 时钟
+     */
+    private final Clock clock;
+
+    /**
+     * SubTag -> 状态
+     */
+    private final ConcurrentHashMap<String, TagState> states = new ConcurrentHashMap<>();
+
+    /**
+     * SubTag数量超过上限后，新SubTag共用的状态
+     */
+    private final TagState overflowState;
+
+    /**
+     * 上一次汇总的时间（纳秒）
+     */
+    private volatile long lastReportTime;
+
+    /**
+     * 汇总日志的接收者，即使用该限流器的LoggerCore
+     */
+    private volatile Listener listener;
+
+    /**
+     * 定期汇总的定时器
+     */
+    private Timer timer;
+
+    /**
+     * 上一次清除空闲SubTag的时间（纳秒），SubTag已满时每秒最多清除一次
+     */
+    private volatile long lastEvictTime;
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    private RateLimiter(Builder builder) {
+        this.exemptPriority = builder.exemptPriority;
+        this.defaultInterval = toInterval(builder.rate);
+        this.defaultTolerance = defaultInterval * (Math.max(builder.burst, 1) - 1);
+        this.defaultSampleRate = Math.max(builder.sampleRate, 1);
+        this.tagRates = new HashMap<>(builder.tagRates);
+        this.tagSampleRates = new HashMap<>(builder.tagSampleRates);
+        this.maxTags = builder.maxTags;
+        this.idleTimeout = builder.idleTimeout * 1000000L;
+        this.reportInterval = builder.reportInterval * 1000000L;
+        this.clock = builder.clock;
+        this.overflowState = new TagState("*", defaultInterval, defaultTolerance, defaultSampleRate, clock.nanoTime());
+        this.lastReportTime = clock.nanoTime();
+        this.lastEvictTime = lastReportTime - ACCESS_GRANULARITY;
+    }
+
+    /**
+     * 判断该条日志是否可以打印，不可以时计入被限流的日志数
+     *
+     * @param priority
+     * @param subTag
+     * @return
+     */
+    public boolean tryAcquire(int priority, String subTag) {
+        if (priority >= exemptPriority || priority < 0 || priority > Constant.ASSERT) {
+            return true;
+        }
+        long now = clock.nanoTime();
+        TagState state = getState(subTag == null ? NO_TAG : subTag, now);
+        if (state.tryAcquire(priority, now)) {
+            return true;
+        }
+        state.threadName = Thread.currentThread().getName();
+        state.suppressed.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 开始为LoggerCore限流，启动定期汇总的定时器
+     *
+     * @param listener
+     */
+    synchronized void bind(final Listener listener) {
+        if (this.listener != null && this.listener != listener) {
+            throw new IllegalStateException("RateLimiter is already in use");
+        }
+        this.listener = listener;
+        if (timer == null && reportInterval > 0) {
+            long period = reportInterval / 1000000L;
+            timer = new Timer("RateLimiter", true);
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    report(listener);
+                }
+            }, period, period);
+        }
+    }
+
+    /**
+     * 停止限流，打印最后一次汇总
+     */
+    synchronized void unbind() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        if (listener != null) {
+            report(listener);
+            listener = null;
+        }
+    }
+
+    /**
+     * 为上一次汇总以来有日志被限流的SubTag各打印一条汇总，并清零被限流的日志数
+     *
+     * @param listener
+     */
+    void report(Listener listener) {
+        long elapsed = pollElapsed();
+        for (TagState state : states.values()) {
+            report(state, elapsed, listener);
+        }
+        report(overflowState, elapsed, listener);
+    }
+
+    /**
+     * 返回距上一次汇总的时间（毫秒），并开始新的汇总周期
+     *
+     * @return
+     */
+    private synchronized long pollElapsed() {
+        long now = clock.nanoTime();
+        long elapsed = now - lastReportTime;
+        lastReportTime = now;
+        return elapsed / 1000000L;
+    }
+
+    /**
+     * 取出并清零一个SubTag被限流的日志数，有被限流的日志时打印汇总
+     *
+     * @param state
+     * @param elapsed 距上一次汇总的时间（毫秒）
+     * @param listener
+     */
+    private static void report(TagState state, long elapsed, Listener listener) {
+        long suppressed = state.suppressed.getAndSet(0);
+        if (suppressed > 0) {
+            listener.onReport((state.tag.length() == 0 ? "(no tag)" : state.tag) + ": " + suppressed
+                    + " records suppressed in the last " + elapsed + "ms", state.threadName);
+        }
+    }
+
+    /**
+     * 获得SubTag的状态
+     *
+     * @param tag
+     * @param now
+     * @return
+     */
+    private TagState getState(String tag, long now) {
+        TagState state = states.get(tag);
+        if (state == null) {
+            if (states.size() >= maxTags) {
+                if (now - lastEvictTime > ACCESS_GRANULARITY) {
+                    lastEvictTime = now;
+                    evictIdle(now);
+                }
+                if (states.size() >= maxTags) {
+                    state = overflowState;
+                    state.touch(now);
+                    return state;
+                }
+            }
+            long[] rate = tagRates.get(tag);
+            Integer sampleRate = tagSampleRates.get(tag);
+            TagState created = new TagState(tag,
+                    rate == null ? defaultInterval : rate[0],
+                    rate == null ? defaultTolerance : rate[1],
+                    sampleRate == null ? defaultSampleRate : sampleRate,
+                    now);
+            state = states.putIfAbsent(tag, created);
+            if (state == null) {
+                state = created;
+            }
+        }
+        state.touch(now);
+        return state;
+    }
+
+    /**
+     * 清除长时间未使用的SubTag，并打印其被限流日志的汇总；未绑定LoggerCore时被限流的日志数并入溢出状态
+     *
+     * @param now
+     */
+    private void evictIdle(long now) {
+        Listener listener = this.listener;
+        long elapsed = (now - lastReportTime) / 1000000L;
+        Iterator<TagState> iterator = states.values().iterator();
+        while (iterator.hasNext()) {
+            TagState state = iterator.next();
+            if (now - state.lastAccess > idleTimeout) {
+                iterator.remove();
+                if (listener != null) {
+                    report(state, elapsed, listener);
+                } else {
+                    overflowState.suppressed.addAndGet(state.suppressed.getAndSet(0));
+                }
+            }
+        }
+    }
+
+    /**
+     * 把速率转换为令牌间隔（纳秒）
+     *
+     * @param rate 条/秒
+     * @return 不限制速率时返回0
+     */
+    private static long toInterval(double rate) {
+        if (rate <= 0) {
+            return 0;
+        }
+        return Math.max((long) (1000000000L / rate), 1);
+    }
+
+    /**
+     * 汇总日志的接收者
+     */
+    interface Listener {
+
+        /**
+         * 打印汇总日志
+         *
+         * @param report
+         * @param threadName 最近一条被限流日志的线程名
+         */
+        void onReport(String report, String threadName);
+    }
+
+    /**
+     * 一个SubTag的限流状态
+     */
+    private static class TagState {
+
+        /**
+         * SubTag
+         */
+        final String tag;
+
+        /**
+         * 令牌间隔（纳秒）
+         */
+        final long interval;
+
+        /**
+         * 突发容忍时间（纳秒）
+         */
+        final long tolerance;
+
+        /**
+         * 采样间隔
+         */
+        final int sampleRate;
+
+        /**
+         * 每个日志级别的理论到达时间（GCRA），下标为日志级别
+         */
+        final AtomicLong[] arrivalTimes = new AtomicLong[Constant.ASSERT + 1];
+
+        /**
+         * 采样计数
+         */
+        final AtomicLong sampleCount = new AtomicLong();
+
+        /**
+         * 被限流的日志数
+         */
+        final AtomicLong suppressed = new AtomicLong();
+
+        /**
+         * 最近一条被限流日志的线程名
+         */
+        volatile String threadName;
+
+        /**
+         * 最近使用时间（纳秒）
+         */
+        volatile long lastAccess;
+
+        TagState(String tag, long interval, long tolerance, int sampleRate, long now) {
+            this.tag = tag;
+            this.interval = interval;
+            this.tolerance = tolerance;
+            this.sampleRate = sampleRate;
+            this.lastAccess = now;
+            for (int i = 0; i < arrivalTimes.length; i++) {
+                arrivalTimes[i] = new AtomicLong(now - tolerance);
+            }
+        }
+
+        void touch(long now) {
+            if (now - lastAccess > ACCESS_GRANULARITY) {
+                lastAccess = now;
+            }
+        }
+
+        /**
+         * 先采样，再从令牌桶中获取令牌
+         *
+         * @param priority
+         * @param now
+         * @return
+         */
+        boolean tryAcquire(int priority, long now) {
+            if (sampleRate > 1 && sampleCount.getAndIncrement() % sampleRate != 0) {
+                return false;
+            }
+            if (interval == 0) {
+                return true;
+            }
+            AtomicLong arrivalTime = arrivalTimes[priority];
+            while (true) {
+                long tat = arrivalTime.get();
+                long start = tat - now > 0 ? tat : now;
+                if (start - now > tolerance) {
+                    return false;
+                }
+                if (arrivalTime.compareAndSet(tat, start + interval)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 构造器，用于构造RateLimiter实例
+     */
+    public static class Builder {
+
+        /**
+         * 默认的速率（条/秒）
+         */
+        private double rate = DEFAULT_RATE;
+
+        /**
+         * 默认的突发数量
+         */
+        private int burst = DEFAULT_BURST;
+
+        /**
+         * 默认的采样间隔
+         */
+        private int sampleRate = 1;
+
+        /**
+         * 单独设置了速率的SubTag
+         */
+        private final Map<String, long[]> tagRates = new HashMap<>();
+
+        /**
+         * 单独设置了采样间隔的SubTag
+         */
+        private final Map<String, Integer> tagSampleRates = new HashMap<>();
+
+        /**
+         * 不受限制的最低日志级别
+         */
+        private int exemptPriority = Constant.ERROR;
+
+        /**
+         * SubTag的最大数量
+         */
+        private int maxTags = DEFAULT_MAX_TAGS;
+
+        /**
+         * SubTag空闲清除时间（毫秒）
+         */
+        private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+        /**
+         * 汇总间隔（毫秒）
+         */
+        private long reportInterval = DEFAULT_REPORT_INTERVAL;
+
+        /**
+         * 时钟
+         */
+        private Clock clock = Clock.SYSTEM;
+
+        /**
+         * 设置每个(SubTag, 日志级别)默认的速率
+         *
+         * @param permitsPerSecond 每秒允许的日志数，小于等于0表示不限制速率
+         * @param burst            允许的突发数量
+         * @return
+         */
+        public Builder setRate(double permitsPerSecond, int burst) {
+            this.rate = permitsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * 单独设置某个SubTag的速率
+         *
+         * @param subTag           为null时表示没有SubTag的日志
+         * @param permitsPerSecond 每秒允许的日志数，小于等于0表示不限制速率
+         * @param burst            允许的突发数量
+         * @return
+         */
+        public Builder setTagRate(String subTag, double permitsPerSecond, int burst) {
+            long interval = toInterval(permitsPerSecond);
+            tagRates.put(subTag == null ? NO_TAG : subTag, new long[]{interval, interval * (Math.max(burst, 1) - 1)});
+            return this;
+        }
+
+        /**
+         * 设置默认的采样间隔，每N条日志只保留1条，1表示不采样
+         *
+         * @param n
+         * @return
+         */
+        public Builder setSampleRate(int n) {
+            this.sampleRate = n;
+            return this;
+        }
+
+        /**
+         * 单独设置某个SubTag的采样间隔
+         *
+         * @param subTag 为null时表示没有SubTag的日志
+         * @param n
+         * @return
+         */
+        public Builder setTagSampleRate(String subTag, int n) {
+            tagSampleRates.put(subTag == null ? NO_TAG : subTag, Math.max(n, 1));
+            return this;
+        }
+
+        /**
+         * 设置不受限制的最低日志级别，默认为{@link Constant#ERROR}
+         *
+         * @param priority
+         * @return
+         */
+        public Builder setExemptPriority(int priority) {
+            this.exemptPriority = priority;
+            return this;
+        }
+
+        /**
+         * 设置SubTag的最大数量
+         *
+         * @param count
+         * @return
+         */
+        public Builder setMaxTags(int count) {
+            this.maxTags = count;
+            return this;
+        }
+
+        /**
+         * 设置SubTag空闲清除时间（毫秒）
+         *
+         * @param timeout
+         * @return
+         */
+        public Builder setIdleTimeout(long timeout) {
+            this.idleTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * 设置汇总被限流日志数的间隔（毫秒），小于等于0时只在限流器被替换或移除时汇总
+         *
+         * @param interval
+         * @return
+         */
+        public Builder setReportInterval(long interval) {
+            this.reportInterval = interval;
+            return this;
+        }
+
+        /**
+         * 设置时钟，用于单元测试
+         *
+         * @param clock
+         * @return
+         */
+        Builder setClock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * 构造RateLimiter
+         *
+         * @return
+         */
+        public RateLimiter build() {
+            return new RateLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.yangkangli.logger.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段计数器
+ * <p>
+ * 不同线程累加到不同的分段，每个分段独占一个缓存行，避免多线程同时计数时争用同一个变量；
+ * 读取时把各分段相加。作用与LongAdder相同，可在低版本Android上使用。
+ */
+public final class StripedCounter {
+
+    /**
+     * 每个分段占用的long数量（64字节，一个缓存行）
+     */
+    private static final int PADDING = 8;
+
+    /**
+     * 最大分段数
+     */
+    private static final int MAX_STRIPES = 8;
+
+    /**
+     * 分段数，为2的幂
+     */
+    private static final int STRIPES = stripes();
+
+    /**
+     * 分段
+     */
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    /**
+     * 加1
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * 累加
+     *
+     * @param value
+     */
+    public void add(long value) {
+        cells.getAndAdd(index(), value);
+    }
+
+    /**
+     * 获得各分段的和，计数的同时读取时结果不是某一时刻的精确值
+     *
+     * @return
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * 当前线程使用的分段
+     *
+     * @return
+     */
+    private static int index() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return ((int) (h >>> 32) & (STRIPES - 1)) * PADDING;
+    }
+
+    /**
+     * 按CPU核数计算分段数
+     *
+     * @return
+     */
+    private static int stripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while (stripes < processors && stripes < MAX_STRIPES) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+}
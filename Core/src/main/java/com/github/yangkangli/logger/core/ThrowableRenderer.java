@@ -0,0 +1,343 @@
+package com.github.yangkangli.logger.core;
+
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 异常堆栈的排版
+ * <p>
+ * 按异常类与栈顶的若干帧（包括各级cause）计算指纹，排版结果保存在有界的LRU缓存中。
+ * 开启合并时（默认关闭），同一指纹的异常第一次打印完整堆栈并标注"(trace #id)"，之后只打印标题行与
+ * "same as trace #id (N times)"；缓存淘汰后会重新打印完整堆栈。
+ * <p>
+ * 格式与printStackTrace()相同（不包括suppressed异常），每个cause最多打印指定数量的帧，
+ * 省略的帧与和外层相同的帧合并为"... N more"。
+ * 与Log.getStackTraceString()一样，包含UnknownHostException的异常不打印堆栈。
+ */
+public class ThrowableRenderer {
+
+    /**
+     * 默认的指纹包含的栈顶帧数
+     */
+    private static final int DEFAULT_FINGERPRINT_FRAMES = 8;
+
+    /**
+     * 默认的缓存数量
+     */
+    private static final int DEFAULT_CACHE_SIZE = 64;
+
+    /**
+     * 查找cause的最大深度，避免cause循环引用时死循环
+     */
+    private static final int MAX_CAUSE_DEPTH = 16;
+
+    /**
+     * 每个cause最多打印的帧数，0表示不限制
+     */
+    private final int maxFrames;
+
+    /**
+     * 指纹包含的栈顶帧数
+     */
+    private final int fingerprintFrames;
+
+    /**
+     * 是否把重复的异常合并为一行引用
+     */
+    private final boolean deduplicate;
+
+    /**
+     * 排版结果的LRU缓存，指纹 -> 排版结果
+     */
+    private final LinkedHashMap<Long, CachedTrace> cache;
+
+    /**
+     * 下一个堆栈编号
+     */
+    private int nextId = 1;
+
+    /**
+     * 构造方法
+     *
+     * @param builder
+     */
+    private ThrowableRenderer(Builder builder) {
+        this.maxFrames = Math.max(builder.maxFrames, 0);
+        this.fingerprintFrames = Math.max(builder.fingerprintFrames, 1);
+        this.deduplicate = builder.deduplicate;
+        final int cacheSize = Math.max(builder.cacheSize, 1);
+        this.cache = new LinkedHashMap<Long, CachedTrace>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedTrace> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * 排版异常堆栈
+     *
+     * @param throwable
+     * @return
+     */
+    public String render(Throwable throwable) {
+        if (throwable == null) {
+            return "";
+        }
+        // 减少网络不可用时的日志
+        int depth = 0;
+        for (Throwable t = throwable; t != null && depth < MAX_CAUSE_DEPTH; t = t.getCause(), depth++) {
+            if (t instanceof UnknownHostException) {
+                return "";
+            }
+        }
+
+        String headline = throwable.toString();
+        long fingerprint = fingerprint(throwable);
+        CachedTrace entry;
+        int id;
+        synchronized (cache) {
+            entry = cache.get(fingerprint);
+            if (entry != null && !entry.className.equals(throwable.getClass().getName())) {
+                // 指纹冲突，视为新的异常
+                entry = null;
+            }
+            if (entry != null) {
+                entry.count++;
+                if (deduplicate) {
+                    return headline + "\n\tsame as trace #" + entry.id + " (" + entry.count + " times)";
+                }
+                if (headline.equals(entry.headline)) {
+                    return entry.rendered;
+                }
+            }
+            id = entry != null ? entry.id : nextId++;
+        }
+
+        // 在锁外排版
+        StringBuilder builder = new StringBuilder(1024);
+        builder.append(headline);
+        if (deduplicate) {
+            builder.append(" (trace #").append(id).append(')');
+        }
+        appendTrace(builder, throwable);
+        String rendered = builder.toString();
+
+        synchronized (cache) {
+            CachedTrace cached = new CachedTrace(id, throwable.getClass().getName(), headline, rendered);
+            cached.count = entry != null ? entry.count : 1;
+            cache.put(fingerprint, cached);
+        }
+        return rendered;
+    }
+
+    /**
+     * 按各级异常的类名与栈顶的帧计算指纹
+     *
+     * @param throwable
+     * @return
+     */
+    private long fingerprint(Throwable throwable) {
+        long hash = 1125899906842597L;
+        int depth = 0;
+        for (Throwable t = throwable; t != null && depth < MAX_CAUSE_DEPTH; t = t.getCause(), depth++) {
+            hash = 31 * hash + t.getClass().getName().hashCode();
+            StackTraceElement[] frames = t.getStackTrace();
+            int count = Math.min(frames.length, fingerprintFrames);
+            for (int i = 0; i < count; i++) {
+                StackTraceElement frame = frames[i];
+                hash = 31 * hash + frame.getClassName().hashCode();
+                hash = 31 * hash + frame.getMethodName().hashCode();
+                hash = 31 * hash + frame.getLineNumber();
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 排版堆栈（标题行之后的部分）
+     *
+     * @param builder
+     * @param throwable
+     */
+    private void appendTrace(StringBuilder builder, Throwable throwable) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>());
+        seen.add(throwable);
+        StackTraceElement[] frames = throwable.getStackTrace();
+        appendFrames(builder, frames, 0);
+
+        StackTraceElement[] enclosing = frames;
+        Throwable cause = throwable.getCause();
+        while (cause != null) {
+            if (!seen.add(cause)) {
+                builder.append("\n[CIRCULAR REFERENCE: ").append(cause).append(']');
+                return;
+            }
+            frames = cause.getStackTrace();
+            builder.append("\nCaused by: ").append(cause);
+            appendFrames(builder, frames, framesInCommon(frames, enclosing));
+            enclosing = frames;
+            cause = cause.getCause();
+        }
+    }
+
+    /**
+     * 排版帧，超过最大帧数的与和外层相同的帧合并为"... N more"
+     *
+     * @param builder
+     * @param frames
+     * @param inCommon 与外层相同的帧数
+     */
+    private void appendFrames(StringBuilder builder, StackTraceElement[] frames, int inCommon) {
+        int unique = frames.length - inCommon;
+        int count = maxFrames > 0 ? Math.min(unique, maxFrames) : unique;
+        for (int i = 0; i < count; i++) {
+            builder.append("\n\tat ").append(frames[i]);
+        }
+        int omitted = frames.length - count;
+        if (omitted > 0) {
+            builder.append("\n\t... ").append(omitted).append(" more");
+        }
+    }
+
+    /**
+     * 计算与外层堆栈末尾相同的帧数
+     *
+     * @param frames
+     * @param enclosing
+     * @return
+     */
+    private static int framesInCommon(StackTraceElement[] frames, StackTraceElement[] enclosing) {
+        int m = frames.length - 1;
+        int n = enclosing.length - 1;
+        while (m >= 0 && n >= 0 && frames[m].equals(enclosing[n])) {
+            m--;
+            n--;
+        }
+        return frames.length - 1 - m;
+    }
+
+    /**
+     * 缓存的排版结果
+     */
+    private static class CachedTrace {
+
+        /**
+         * 堆栈编号
+         */
+        final int id;
+
+        /**
+         * 异常类名，用于排除指纹冲突
+         */
+        final String className;
+
+        /**
+         * 标题行（异常类: 消息）
+         */
+        final String headline;
+
+        /**
+         * 完整的排版结果
+         */
+        final String rendered;
+
+        /**
+         * 出现次数
+         */
+        int count;
+
+        CachedTrace(int id, String className, String headline, String rendered) {
+            this.id = id;
+            this.className = className;
+            this.headline = headline;
+            this.rendered = rendered;
+        }
+    }
+
+    /**
+     * 构造器，用于构造ThrowableRenderer实例
+     */
+    public static class Builder {
+
+        /**
+         * 每个cause最多打印的帧数
+         */
+        private int maxFrames = 0;
+
+        /**
+         * 指纹包含的栈顶帧数
+         */
+        private int fingerprintFrames = DEFAULT_FINGERPRINT_FRAMES;
+
+        /**
+         * 缓存数量
+         */
+        private int cacheSize = DEFAULT_CACHE_SIZE;
+
+        /**
+         * 是否合并重复的异常
+         */
+        private boolean deduplicate;
+
+        /**
+         * 设置每个cause最多打印的帧数，0表示不限制
+         *
+         * @param count
+         * @return
+         */
+        public Builder setMaxFrames(int count) {
+            this.maxFrames = count;
+            return this;
+        }
+
+        /**
+         * 设置指纹包含的栈顶帧数
+         *
+         * @param count
+         * @return
+         */
+        public Builder setFingerprintFrames(int count) {
+            this.fingerprintFrames = count;
+            return this;
+        }
+
+        /**
+         * 设置缓存的堆栈数量
+         *
+         * @param size
+         * @return
+         */
+        public Builder setCacheSize(int size) {
+            this.cacheSize = size;
+            return this;
+        }
+
+        /**
+         * 设置是否把重复的异常合并为标题行与"same as trace #id (N times)"的引用，默认不合并
+         * <p>
+         * 合并状态由所有日志适配器共用，且不随进程重启或日志文件删除而重置：只有所有日志适配器的最低级别相同、
+         * 并且只查看同一份输出时，才能保证每份输出中都有完整的堆栈
+         *
+         * @param deduplicate
+         * @return
+         */
+        public Builder setDeduplicate(boolean deduplicate) {
+            this.deduplicate = deduplicate;
+            return this;
+        }
+
+        /**
+         * 构造ThrowableRenderer
+         *
+         * @return
+         */
+        public ThrowableRenderer build() {
+            return new ThrowableRenderer(this);
+        }
+    }
+}
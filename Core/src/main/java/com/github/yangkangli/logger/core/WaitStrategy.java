@@ -0,0 +1,23 @@
+package com.github.yangkangli.logger.core;
+
+/**
+ * 异步模式下，消费者线程没有待处理日志时的等待策略
+ */
+public interface WaitStrategy {
+
+    /**
+     * 等待新的日志事件，由消费者线程调用
+     * <p>
+     * 实现可以提前返回，消费者会重新检查环形缓冲区后再次调用
+     *
+     * @param dispatcher
+     * @param idleCount  连续空闲的次数
+     * @throws InterruptedException
+     */
+    void waitFor(AsyncDispatcher dispatcher, int idleCount) throws InterruptedException;
+
+    /**
+     * 通知消费者有新的日志事件，由生产者线程在发布事件后调用，应尽可能轻量
+     */
+    void signal();
+}
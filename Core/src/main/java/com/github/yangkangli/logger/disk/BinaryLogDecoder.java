@@ -0,0 +1,322 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.utils.CachedDateFormat;
+import com.github.yangkangli.logger.utils.Constant;
+import com.github.yangkangli.logger.utils.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PushbackInputStream;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 二进制日志解码器，把{@link BinaryRecordEncoder}写入的日志还原为与文本格式相同的排版
+ * <p>
+ * 不依赖Android，可以直接在JVM上运行：
+ * <pre>
+ * java -cp logger.jar com.github.yangkangli.logger.disk.BinaryLogDecoder [-p 时间格式] 2020-04-22.blog [输出文件]
+ * </pre>
+ * 遇到不完整的数据（如进程被杀死时只写入了一半的记录）时，会跳到下一个数据段继续解码
+ */
+public class BinaryLogDecoder {
+
+    /**
+     * 字符串长度上限，超过时认为数据已损坏
+     */
+    private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * 输入流
+     */
+    private final PushbackInputStream input;
+
+    /**
+     * 时间格式器
+     */
+    private final CachedDateFormat dateFormat;
+
+    /**
+     * Tag字典
+     */
+    private final Map<Integer, TagEntry> tags = new HashMap<>();
+
+    /**
+     * 线程字典
+     */
+    private final Map<Integer, String> threads = new HashMap<>();
+
+    /**
+     * 上一条日志的时间
+     */
+    private long lastTimestamp;
+
+    /**
+     * 输出日志的时间范围的起始时间（包含）
+     */
+    private long fromTimestamp = Long.MIN_VALUE;
+
+    /**
+     * 输出日志的时间范围的结束时间（包含）
+     */
+    private long toTimestamp = Long.MAX_VALUE;
+
+    /**
+     * 构造方法
+     *
+     * @param input
+     * @param formatPattern 日期时间格式化模式
+     */
+    public BinaryLogDecoder(InputStream input, String formatPattern) {
+        this.input = new PushbackInputStream(new BufferedInputStream(input), BinaryLogFormat.MAGIC.length);
+        this.dateFormat = new CachedDateFormat(formatPattern);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String pattern = Constant.DEFAULT_FORMAT_PATTERN;
+        String inputPath = null;
+        String outputPath = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("-p".equals(args[i]) && i + 1 < args.length) {
+                pattern = args[++i];
+            } else if (inputPath == null) {
+                inputPath = args[i];
+            } else {
+                outputPath = args[i];
+            }
+        }
+        if (inputPath == null) {
+            System.err.println("Usage: BinaryLogDecoder [-p pattern] <input.blog[.gz]> [output.log]");
+            System.exit(1);
+            return;
+        }
+
+        InputStream in = new FileInputStream(inputPath);
+        if (inputPath.endsWith(LogCompressor.GZIP_EXTENSION)) {
+            // 压缩后的日志文件（可能由多个gzip成员组成）
+            in = new GZIPInputStream(in);
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                outputPath == null ? System.out : new FileOutputStream(outputPath), "UTF-8"));
+        try {
+            new BinaryLogDecoder(in, pattern).decodeTo(out);
+        } finally {
+            out.flush();
+            in.close();
+            if (outputPath != null) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * 设置输出日志的时间范围，范围之外的日志只解码不输出
+     *
+     * @param from 起始时间（包含）
+     * @param to   结束时间（包含）
+     * @return
+     */
+    public BinaryLogDecoder setTimeRange(long from, long to) {
+        this.fromTimestamp = from;
+        this.toTimestamp = to;
+        return this;
+    }
+
+    /**
+     * 解码全部日志，按文本格式写入out
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void decodeTo(Writer out) throws IOException {
+        if (!nextSegment()) {
+            return;
+        }
+        DataInputStream data = new DataInputStream(input);
+        while (true) {
+            int type = input.read();
+            if (type < 0) {
+                return;
+            }
+            try {
+                switch (type) {
+                    case BinaryLogFormat.TYPE_TAG:
+                        int tagId = readVarint(data);
+                        String tag = readString(data);
+                        tags.put(tagId, new TagEntry(tag, readVarint(data), readVarint(data)));
+                        break;
+                    case BinaryLogFormat.TYPE_THREAD:
+                        int threadId = readVarint(data);
+                        threads.put(threadId, readString(data));
+                        break;
+                    case BinaryLogFormat.TYPE_LOG:
+                        readRecord(data, out);
+                        break;
+                    default:
+                        // 可能是新的数据段，也可能是损坏的数据
+                        input.unread(type);
+                        if (!nextSegment()) {
+                            return;
+                        }
+                        break;
+                }
+            } catch (EOFException e) {
+                // 文件末尾的记录不完整
+                return;
+            } catch (IOException e) {
+                if (!nextSegment()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 解码一条日志并写入out
+     *
+     * @param data
+     * @param out
+     * @throws IOException
+     */
+    private void readRecord(DataInputStream data, Writer out) throws IOException {
+        long zigzag = readVarLong(data);
+        long timestamp = lastTimestamp + ((zigzag >>> 1) ^ -(zigzag & 1));
+        lastTimestamp = timestamp;
+        int priority = data.readUnsignedByte();
+        TagEntry tag = tags.get(readVarint(data));
+        int threadId = readVarint(data);
+        int stackCount = readVarint(data);
+        String[] stackLines = new String[stackCount];
+        for (int i = 0; i < stackCount; i++) {
+            stackLines[i] = readString(data);
+        }
+        String message = readString(data);
+        if (tag == null) {
+            throw new IOException("Unknown tag");
+        }
+        if (timestamp < fromTimestamp || timestamp > toTimestamp) {
+            return;
+        }
+
+        String commonInfo = dateFormat.format(timestamp) + " " + Utils.getLevelName(priority) + "/" + tag.tag + ": ";
+        String divider = buildBorder(Constant.MIDDLE_CORNER, Constant.DASH_LINE_DIVIDER, tag);
+
+        writeLine(out, commonInfo, buildBorder(Constant.TOP_CORNER, Constant.REAL_LINE_DIVIDER, tag));
+        if (threadId != 0) {
+            writeLine(out, commonInfo, Constant.HORIZONTAL_LINE + " Thread:" + threads.get(threadId));
+            writeLine(out, commonInfo, divider);
+        }
+        if (stackCount > 0) {
+            for (String line : stackLines) {
+                writeLine(out, commonInfo, line);
+            }
+            writeLine(out, commonInfo, divider);
+        }
+        for (String line : message.split("\n")) {
+            writeLine(out, commonInfo, Constant.HORIZONTAL_LINE + " " + line);
+        }
+        writeLine(out, commonInfo, buildBorder(Constant.BOTTOM_CORNER, Constant.REAL_LINE_DIVIDER, tag));
+    }
+
+    /**
+     * 跳到下一个数据段的段头并读取，重置字典
+     *
+     * @return 没有更多数据段时返回false
+     * @throws IOException
+     */
+    private boolean nextSegment() throws IOException {
+        byte[] magic = BinaryLogFormat.MAGIC;
+        int matched = 0;
+        while (matched < magic.length) {
+            int b = input.read();
+            if (b < 0) {
+                return false;
+            }
+            if (b == (magic[matched] & 0xFF)) {
+                matched++;
+            } else {
+                matched = b == (magic[0] & 0xFF) ? 1 : 0;
+            }
+        }
+        DataInputStream data = new DataInputStream(input);
+        try {
+            data.readUnsignedByte();
+            lastTimestamp = data.readLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        tags.clear();
+        threads.clear();
+        return true;
+    }
+
+    private static void writeLine(Writer out, String commonInfo, String line) throws IOException {
+        out.write(commonInfo);
+        out.write(line);
+        out.write('\n');
+    }
+
+    /**
+     * 生成边线，与文本格式使用相同的规则
+     */
+    private static String buildBorder(String corner, String fill, TagEntry tag) {
+        return Utils.getBorder(corner, fill, tag.tagLength, tag.borderMaxLength);
+    }
+
+    private static int readVarint(DataInputStream data) throws IOException {
+        long value = readVarLong(data);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Varint overflow");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = readVarint(data);
+        if (length > MAX_STRING_LENGTH) {
+            throw new IOException("String too long");
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    /**
+     * Tag字典项
+     */
+    private static class TagEntry {
+
+        private final String tag;
+
+        private final int borderMaxLength;
+
+        private final int tagLength;
+
+        TagEntry(String tag, int borderMaxLength, int tagLength) {
+            this.tag = tag;
+            this.borderMaxLength = borderMaxLength;
+            this.tagLength = tagLength;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.yangkangli.logger.disk;
+
+/**
+ * 二进制日志格式的常量定义
+ * <p>
+ * 文件由若干数据段组成，每次打开日志文件都会开始一个新的数据段：
+ * <pre>
+ * 段头：      'A' 'L' 'G' 'B' | 版本(1字节) | 起始时间(8字节，大端)
+ * Tag定义：   0x01 | id | Tag | 边界线最大长度 | SubTag与连接字符串的总长度
+ * 线程定义：  0x02 | id | 线程名称
+ * 日志：      0x03 | 时间差(zigzag) | 级别(1字节) | Tag id | 线程id(0表示不显示) | 堆栈行数 | 堆栈行... | 日志内容
+ * </pre>
+ * 其中整数均为varint编码，字符串为"varint字节数 + UTF-8字节"。
+ * Tag与线程的字典只在所在数据段内有效，时间差相对于上一条日志（或段头的起始时间）。
+ */
+public class BinaryLogFormat {
+
+    /**
+     * 二进制日志文件扩展名
+     */
+    public static final String FILE_EXTENSION = ".blog";
+
+    /**
+     * 段头标识
+     */
+    public static final byte[] MAGIC = {'A', 'L', 'G', 'B'};
+
+    /**
+     * 格式版本
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * 记录类型：Tag定义
+     */
+    public static final int TYPE_TAG = 0x01;
+
+    /**
+     * 记录类型：线程定义
+     */
+    public static final int TYPE_THREAD = 0x02;
+
+    /**
+     * 记录类型：日志
+     */
+    public static final int TYPE_LOG = 0x03;
+
+    private BinaryLogFormat() {
+    }
+}
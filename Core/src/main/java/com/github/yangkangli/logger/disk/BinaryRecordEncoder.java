@@ -0,0 +1,148 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.utils.Utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 紧凑的二进制日志格式，格式定义见{@link BinaryLogFormat}
+ * <p>
+ * 边线、线程名称等排版信息不再逐行写入，Tag与线程名称通过字典只写一次，
+ * 可以使用{@link BinaryLogDecoder}还原为文本格式
+ */
+public class BinaryRecordEncoder implements RecordEncoder {
+
+    /**
+     * Tag字典
+     */
+    private final Map<String, TagEntry> tagIds = new HashMap<>();
+
+    /**
+     * 下一个Tag字典id，同一个Tag的边线或连接符变化时会重新定义，因此不能使用字典的大小
+     */
+    private int nextTagId;
+
+    /**
+     * 线程字典
+     */
+    private final Map<String, Integer> threadIds = new HashMap<>();
+
+    /**
+     * 上一条日志的时间
+     */
+    private long lastTimestamp;
+
+    @Override
+    public String getFileExtension() {
+        return BinaryLogFormat.FILE_EXTENSION;
+    }
+
+    @Override
+    public void startSegment(LogFileWriter writer, long timestamp) {
+        tagIds.clear();
+        nextTagId = 1;
+        threadIds.clear();
+        lastTimestamp = timestamp;
+
+        writer.writeBytes(BinaryLogFormat.MAGIC);
+        writer.writeByte(BinaryLogFormat.VERSION);
+        writer.writeLong(timestamp);
+    }
+
+    @Override
+    public void encode(DiskRecord record, LogFileWriter writer) {
+        int tagId = getTagId(record, writer);
+        int threadId = getThreadId(record.getThreadName(), writer);
+
+        writer.writeByte(BinaryLogFormat.TYPE_LOG);
+        long delta = record.getTimestamp() - lastTimestamp;
+        writer.writeVarint((delta << 1) ^ (delta >> 63));
+        lastTimestamp = record.getTimestamp();
+        writer.writeByte(record.getPriority());
+        writer.writeVarint(tagId);
+        writer.writeVarint(threadId);
+
+        String[] stackLines = record.getStackLines();
+        if (stackLines == null) {
+            writer.writeVarint(0);
+        } else {
+            writer.writeVarint(stackLines.length);
+            for (String line : stackLines) {
+                writer.writeString(line);
+            }
+        }
+
+        writer.writeString(record.getMessage());
+    }
+
+    /**
+     * 获得Tag的字典id，第一次出现时写入Tag定义
+     *
+     * @param record
+     * @param writer
+     * @return
+     */
+    private int getTagId(DiskRecord record, LogFileWriter writer) {
+        BaseLogStrategy strategy = record.getStrategy();
+        String subTag = record.getSubTag();
+        String tag = strategy.getFullTag(subTag);
+        int borderMaxLength = strategy.getBorderMaxLength();
+        int tagLength = Utils.getTagLength(subTag, strategy.getLinkerLength());
+
+        TagEntry entry = tagIds.get(tag);
+        if (entry == null || entry.borderMaxLength != borderMaxLength || entry.tagLength != tagLength) {
+            entry = new TagEntry(nextTagId++, borderMaxLength, tagLength);
+            tagIds.put(tag, entry);
+
+            writer.writeByte(BinaryLogFormat.TYPE_TAG);
+            writer.writeVarint(entry.id);
+            writer.writeString(tag);
+            writer.writeVarint(borderMaxLength);
+            writer.writeVarint(tagLength);
+        }
+        return entry.id;
+    }
+
+    /**
+     * 获得线程的字典id，第一次出现时写入线程定义
+     *
+     * @param threadName
+     * @param writer
+     * @return 不显示线程名称时返回0
+     */
+    private int getThreadId(String threadName, LogFileWriter writer) {
+        if (threadName == null) {
+            return 0;
+        }
+        Integer id = threadIds.get(threadName);
+        if (id == null) {
+            id = threadIds.size() + 1;
+            threadIds.put(threadName, id);
+
+            writer.writeByte(BinaryLogFormat.TYPE_THREAD);
+            writer.writeVarint(id);
+            writer.writeString(threadName);
+        }
+        return id;
+    }
+
+    /**
+     * Tag字典项
+     */
+    private static class TagEntry {
+
+        private final int id;
+
+        private final int borderMaxLength;
+
+        private final int tagLength;
+
+        TagEntry(int id, int borderMaxLength, int tagLength) {
+            this.id = id;
+            this.borderMaxLength = borderMaxLength;
+            this.tagLength = tagLength;
+        }
+    }
+}
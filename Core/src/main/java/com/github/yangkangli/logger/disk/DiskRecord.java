@@ -0,0 +1,119 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+
+/**
+ * 交给写日志线程的一条日志记录，由写日志线程按日志文件格式进行编码
+ */
+public class DiskRecord {
+
+    /**
+     * 每条记录的固定开销（对象头与字段），用于估算占用的内存
+     */
+    private static final int RECORD_OVERHEAD = 64;
+
+    /**
+     * 打印日志的时间，用于确定日志文件
+     */
+    private final long timestamp;
+
+    /**
+     * 日志级别
+     */
+    private final int priority;
+
+    /**
+     * SubTag
+     */
+    private final String subTag;
+
+    /**
+     * 线程名称，不显示线程名称时为null
+     */
+    private final String threadName;
+
+    /**
+     * 排版好的调用堆栈行，不显示调用堆栈时为null
+     */
+    private final String[] stackLines;
+
+    /**
+     * 日志内容
+     */
+    private final String message;
+
+    /**
+     * 打印日志时的日志输出策略
+     */
+    private final BaseLogStrategy strategy;
+
+    /**
+     * 估算的内存占用（字节），调用堆栈行由调用位置缓存共享，不计入
+     */
+    private final int estimatedSize;
+
+    /**
+     * 构造方法
+     *
+     * @param timestamp
+     * @param priority
+     * @param subTag
+     * @param threadName
+     * @param stackLines
+     * @param message
+     * @param strategy
+     */
+    public DiskRecord(long timestamp, int priority, String subTag, String threadName, String[] stackLines,
+                      String message, BaseLogStrategy strategy) {
+        this.timestamp = timestamp;
+        this.priority = priority;
+        this.subTag = subTag;
+        this.threadName = threadName;
+        this.stackLines = stackLines;
+        this.message = message;
+        this.strategy = strategy;
+        this.estimatedSize = RECORD_OVERHEAD + 2 * (length(subTag) + length(threadName) + length(message));
+    }
+
+    /**
+     * 获得字符串长度，null时为0
+     *
+     * @param string
+     * @return
+     */
+    private static int length(String string) {
+        return string == null ? 0 : string.length();
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public String getSubTag() {
+        return subTag;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public String[] getStackLines() {
+        return stackLines;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public BaseLogStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getEstimatedSize() {
+        return estimatedSize;
+    }
+}
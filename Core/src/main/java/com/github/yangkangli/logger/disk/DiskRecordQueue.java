@@ -0,0 +1,351 @@
+package com.github.yangkangli.logger.disk;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有界的日志记录队列
+ * <p>
+ * 调用线程把日志记录放入队列，写日志线程取出并写入文件。队列同时限制记录数与估算的字节数，
+ * 超出时按溢出策略处理：
+ * <ul>
+ * <li>{@link #OVERFLOW_BLOCK}：阻塞调用线程，直到写日志线程取出记录</li>
+ * <li>{@link #OVERFLOW_DROP_NEWEST}：丢弃新的记录</li>
+ * <li>{@link #OVERFLOW_DROP_OLDEST}：丢弃队列中最旧的记录</li>
+ * <li>{@link #OVERFLOW_DROP_BELOW_PRIORITY}：丢弃低于指定级别的新记录；达到该级别的新记录
+ * 优先挤掉队列中最旧的低级别记录，没有时挤掉最旧的记录</li>
+ * </ul>
+ * 被丢弃的记录数可通过{@link #takeDroppedCount()}取出，由写日志线程在队列清空后记录到日志中。
+ */
+public class DiskRecordQueue {
+
+    /**
+     * 队列已满时，阻塞调用线程
+     */
+    public static final int OVERFLOW_BLOCK = 0;
+
+    /**
+     * 队列已满时，丢弃新的记录
+     */
+    public static final int OVERFLOW_DROP_NEWEST = 1;
+
+    /**
+     * 队列已满时，丢弃最旧的记录
+     */
+    public static final int OVERFLOW_DROP_OLDEST = 2;
+
+    /**
+     * 队列已满时，丢弃低于指定级别的记录
+     */
+    public static final int OVERFLOW_DROP_BELOW_PRIORITY = 3;
+
+    /**
+     * 最大记录数
+     */
+    private final int capacity;
+
+    /**
+     * 最大字节数（估算）
+     */
+    private final long byteBudget;
+
+    /**
+     * 溢出策略
+     */
+    private final int overflowPolicy;
+
+    /**
+     * {@link #OVERFLOW_DROP_BELOW_PRIORITY}策略下，低于该级别的记录会被丢弃
+     */
+    private final int dropBelowPriority;
+
+    /**
+     * 锁
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 队列不满的条件
+     */
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * 记录
+     */
+    private final ArrayDeque<DiskRecord> records = new ArrayDeque<>();
+
+    /**
+     * 队列中记录的估算字节数
+     */
+    private long bytes;
+
+    /**
+     * 是否已通知写日志线程取出记录
+     */
+    private boolean drainScheduled;
+
+    /**
+     * 尚未记录到日志中的丢弃数
+     */
+    private long pendingDropped;
+
+    /**
+     * 累计的丢弃数
+     */
+    private long totalDropped;
+
+    /**
+     * 写日志线程，该线程放入记录时不会阻塞
+     */
+    private volatile Thread consumerThread;
+
+    /**
+     * 是否已关闭，关闭后放入的记录都被丢弃
+     */
+    private boolean closed;
+
+    /**
+     * 构造方法
+     *
+     * @param capacity          最大记录数
+     * @param byteBudget        最大字节数（估算）
+     * @param overflowPolicy    溢出策略
+     * @param dropBelowPriority {@link #OVERFLOW_DROP_BELOW_PRIORITY}策略下保留的最低级别
+     */
+    public DiskRecordQueue(int capacity, long byteBudget, int overflowPolicy, int dropBelowPriority) {
+        this.capacity = Math.max(capacity, 1);
+        this.byteBudget = Math.max(byteBudget, 1);
+        this.overflowPolicy = overflowPolicy;
+        this.dropBelowPriority = dropBelowPriority;
+    }
+
+    /**
+     * 设置写日志线程
+     *
+     * @param thread
+     */
+    public void setConsumerThread(Thread thread) {
+        this.consumerThread = thread;
+    }
+
+    /**
+     * 放入一条记录
+     *
+     * @param record
+     * @return 是否需要通知写日志线程取出记录（队列从空闲变为有记录）
+     */
+    public boolean offer(DiskRecord record) {
+        int size = record.getEstimatedSize();
+        lock.lock();
+        try {
+            if (closed) {
+                drop(1);
+                return false;
+            }
+            if (isFull(size)) {
+                if (!makeRoom(record, size)) {
+                    drop(1);
+                    return false;
+                }
+            }
+            records.addLast(record);
+            bytes += size;
+            if (drainScheduled) {
+                return false;
+            }
+            drainScheduled = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取出一条记录，由写日志线程调用
+     *
+     * @return 队列为空时返回null，此后放入记录会再次通知写日志线程
+     */
+    public DiskRecord poll() {
+        lock.lock();
+        try {
+            DiskRecord record = records.pollFirst();
+            if (record == null) {
+                drainScheduled = false;
+                return null;
+            }
+            bytes -= record.getEstimatedSize();
+            notFull.signal();
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭队列，丢弃队列中剩余的记录，唤醒等待中的调用线程，此后放入的记录都被丢弃
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            drop(records.size());
+            records.clear();
+            bytes = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取出尚未记录到日志中的丢弃数，并清零
+     *
+     * @return
+     */
+    public long takeDroppedCount() {
+        lock.lock();
+        try {
+            long dropped = pendingDropped;
+            pendingDropped = 0;
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获得累计的丢弃数
+     *
+     * @return
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return totalDropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获得队列中的记录数
+     *
+     * @return
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return records.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获得队列中记录的估算字节数
+     *
+     * @return
+     */
+    public long getBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 放入该大小的记录后是否超出限制；队列为空时总能放入，避免单条超大记录永远无法写入
+     *
+     * @param size
+     * @return
+     */
+    private boolean isFull(int size) {
+        return !records.isEmpty() && (records.size() >= capacity || bytes + size > byteBudget);
+    }
+
+    /**
+     * 按溢出策略为新记录腾出空间，持有锁时调用
+     *
+     * @param record
+     * @param size
+     * @return 是否可以放入新记录
+     */
+    private boolean makeRoom(DiskRecord record, int size) {
+        switch (overflowPolicy) {
+            case OVERFLOW_BLOCK:
+                if (Thread.currentThread() == consumerThread) {
+                    // 写日志线程自己等待会造成死锁
+                    return false;
+                }
+                try {
+                    while (isFull(size) && !closed) {
+                        notFull.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                return !closed;
+            case OVERFLOW_DROP_OLDEST:
+                while (isFull(size)) {
+                    removeOldest();
+                }
+                return true;
+            case OVERFLOW_DROP_BELOW_PRIORITY:
+                if (record.getPriority() < dropBelowPriority) {
+                    return false;
+                }
+                while (isFull(size)) {
+                    if (!removeOldestBelowPriority()) {
+                        removeOldest();
+                    }
+                }
+                return true;
+            case OVERFLOW_DROP_NEWEST:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 丢弃队列中最旧的记录
+     */
+    private void removeOldest() {
+        DiskRecord oldest = records.pollFirst();
+        bytes -= oldest.getEstimatedSize();
+        drop(1);
+    }
+
+    /**
+     * 丢弃队列中最旧的低级别记录
+     *
+     * @return 是否找到了低级别记录
+     */
+    private boolean removeOldestBelowPriority() {
+        Iterator<DiskRecord> iterator = records.iterator();
+        while (iterator.hasNext()) {
+            DiskRecord queued = iterator.next();
+            if (queued.getPriority() < dropBelowPriority) {
+                iterator.remove();
+                bytes -= queued.getEstimatedSize();
+                drop(1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录丢弃数
+     *
+     * @param count
+     */
+    private void drop(long count) {
+        pendingDropped += count;
+        totalDropped += count;
+    }
+}
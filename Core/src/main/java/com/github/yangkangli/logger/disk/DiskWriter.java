@@ -0,0 +1,412 @@
+package com.github.yangkangli.logger.disk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 写日志器，在一个{@link WriterExecutor}上为多个DiskAdapter写入日志文件
+ * <p>
+ * 默认所有DiskAdapter共用进程内唯一的写日志器（{@link #getDefault()}），只占用一个后台线程。
+ * 一次唤醒中轮流从各个有日志的DiskAdapter队列中取出日志写入，定时写入文件时也一次处理所有有缓冲数据的DiskAdapter。
+ * <p>
+ * {@link #flush(long)}等待所有日志写入文件，{@link #shutdown(long)}写入后关闭日志文件并结束自己创建的线程，
+ * 关闭后使用该写日志器的DiskAdapter会丢弃新的日志。
+ */
+public class DiskWriter {
+
+    /**
+     * 默认的写日志线程名
+     */
+    private static final String THREAD_NAME = "AndroidFileLogger";
+
+    /**
+     * 每次唤醒从一个DiskAdapter中取出的最大日志数，处理完后轮到下一个
+     */
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    /**
+     * 进程内共用的写日志器
+     */
+    private static DiskWriter defaultWriter;
+
+    /**
+     * 写日志线程
+     */
+    private final WriterExecutor executor;
+
+    /**
+     * 自己创建的写日志线程，关闭时结束；使用外部的Executor时为null
+     */
+    private final ThreadWriterExecutor ownedExecutor;
+
+    /**
+     * 使用该写日志器的DiskAdapter
+     */
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    /**
+     * 队列中有日志、等待写入的DiskAdapter
+     */
+    private final ConcurrentLinkedQueue<Client> readyClients = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 是否已提交写日志任务
+     */
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    /**
+     * 是否已关闭
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * 已安排的定时写入文件的最早时间，只在写日志线程中访问
+     */
+    private long flushDue = Long.MAX_VALUE;
+
+    /**
+     * 任务：轮流从各个DiskAdapter的队列中取出日志并写入
+     */
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    /**
+     * 任务：将所有DiskAdapter缓冲区中的日志写入文件
+     */
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushDue = Long.MAX_VALUE;
+            for (Client client : clients) {
+                if (client.hasPending()) {
+                    client.flush();
+                }
+            }
+        }
+    };
+
+    /**
+     * 构造方法，使用新建的后台线程
+     */
+    public DiskWriter() {
+        this.ownedExecutor = new ThreadWriterExecutor(THREAD_NAME);
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * 构造方法，在指定的写日志线程中写入，如Android上的HandlerWriterExecutor
+     *
+     * @param executor
+     */
+    public DiskWriter(WriterExecutor executor) {
+        if (executor == null) {
+            throw new NullPointerException();
+        }
+        this.ownedExecutor = null;
+        this.executor = executor;
+    }
+
+    /**
+     * 构造方法，在应用已有的Executor（如线程池）中依次执行写日志任务
+     * <p>
+     * 写日志任务可能在线程池的任一线程中执行，队列已满时阻塞记录日志的线程池线程可能使有界线程池无法再执行写日志任务，
+     * 因此使用该写日志器的DiskAdapter不能使用{@link DiskRecordQueue#OVERFLOW_BLOCK}策略，默认丢弃最旧的日志
+     *
+     * @param executor
+     */
+    public DiskWriter(Executor executor) {
+        this(executor instanceof WriterExecutor
+                ? (WriterExecutor) executor : new SerialWriterExecutor(executor));
+    }
+
+    /**
+     * 写日志队列已满时能否阻塞记录日志的线程
+     * <p>
+     * 在线程池中依次执行写日志任务时（{@link SerialWriterExecutor}），执行任务的线程不固定，
+     * 阻塞线程池中的线程可能造成死锁，此时不能阻塞
+     *
+     * @return
+     */
+    public boolean canBlockProducers() {
+        return !(executor instanceof SerialWriterExecutor);
+    }
+
+    /**
+     * 获得进程内共用的写日志器，之前的已关闭时创建新的
+     *
+     * @return
+     */
+    public static synchronized DiskWriter getDefault() {
+        if (defaultWriter == null) {
+            defaultWriter = new DiskWriter();
+        }
+        return defaultWriter;
+    }
+
+    /**
+     * 注册一个DiskAdapter
+     *
+     * @param client
+     */
+    public void register(Client client) {
+        if (shutdown) {
+            throw new IllegalStateException("DiskWriter has been shut down");
+        }
+        clients.add(client);
+    }
+
+    /**
+     * 注销一个DiskAdapter：在写日志线程中写入剩余的日志并关闭其日志文件
+     *
+     * @param client
+     */
+    public void unregister(final Client client) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                clients.remove(client);
+                client.close();
+            }
+        });
+    }
+
+    /**
+     * 在写日志线程中执行任务
+     *
+     * @param task
+     */
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 已关闭
+        }
+    }
+
+    /**
+     * 在写日志线程中延迟执行任务
+     *
+     * @param task
+     * @param delayMillis
+     */
+    public void executeDelayed(Runnable task, long delayMillis) {
+        try {
+            executor.executeDelayed(task, delayMillis);
+        } catch (RejectedExecutionException e) {
+            // 已关闭
+        }
+    }
+
+    /**
+     * DiskAdapter的队列从空闲变为有日志时调用，安排写日志任务
+     *
+     * @param client
+     */
+    public void requestWrite(Client client) {
+        if (shutdown) {
+            return;
+        }
+        readyClients.offer(client);
+        if (drainScheduled.compareAndSet(false, true)) {
+            execute(drainTask);
+        }
+    }
+
+    /**
+     * 等待所有DiskAdapter队列中的日志都写入文件
+     *
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 是否在等待时间内完成
+     */
+    public boolean flush(long timeoutMillis) {
+        return runAndWait(new Runnable() {
+            @Override
+            public void run() {
+                drainAll();
+                flushTask.run();
+            }
+        }, timeoutMillis);
+    }
+
+    /**
+     * 关闭写日志器：写入所有日志、关闭日志文件，并结束自己创建的写日志线程
+     * <p>
+     * 关闭后使用该写日志器的DiskAdapter会丢弃新的日志；关闭的是默认写日志器时，
+     * 之后创建的DiskAdapter会使用新的默认写日志器
+     *
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 是否在等待时间内完成
+     */
+    public boolean shutdown(long timeoutMillis) {
+        synchronized (DiskWriter.class) {
+            if (defaultWriter == this) {
+                defaultWriter = null;
+            }
+        }
+        shutdown = true;
+        boolean done = runAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (Client client : clients) {
+                    client.close();
+                }
+                clients.clear();
+                readyClients.clear();
+            }
+        }, timeoutMillis);
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        return done;
+    }
+
+    /**
+     * 是否已关闭
+     *
+     * @return
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * 轮流从各个DiskAdapter的队列中取出一批日志写入，还有日志的DiskAdapter留到下一次唤醒
+     */
+    private void drain() {
+        // 先清除标记，之后变为有日志的DiskAdapter会再次提交任务
+        drainScheduled.set(false);
+        List<Client> unfinished = null;
+        for (int i = readyClients.size(); i > 0; i--) {
+            Client client = readyClients.poll();
+            if (client == null) {
+                break;
+            }
+            if (client.write(DRAIN_BATCH_SIZE)) {
+                if (unfinished == null) {
+                    unfinished = new ArrayList<>();
+                }
+                unfinished.add(client);
+            }
+            scheduleFlush(client);
+        }
+        if (unfinished != null) {
+            // 还有日志，处理完其他任务后继续
+            readyClients.addAll(unfinished);
+            if (drainScheduled.compareAndSet(false, true)) {
+                execute(drainTask);
+            }
+        }
+    }
+
+    /**
+     * 取出所有DiskAdapter队列中的全部日志并写入
+     */
+    private void drainAll() {
+        for (Client client : clients) {
+            while (client.write(DRAIN_BATCH_SIZE)) {
+                // 直到队列为空
+            }
+        }
+    }
+
+    /**
+     * DiskAdapter有尚未写入文件的日志时，安排定时写入文件
+     *
+     * @param client
+     */
+    private void scheduleFlush(Client client) {
+        if (!client.hasPending()) {
+            return;
+        }
+        long interval = client.getFlushInterval();
+        long due = System.currentTimeMillis() + interval;
+        if (due < flushDue) {
+            flushDue = due;
+            executeDelayed(flushTask, interval);
+        }
+    }
+
+    /**
+     * 在写日志线程中执行任务并等待完成，在写日志线程中调用时直接执行
+     *
+     * @param task
+     * @param timeoutMillis
+     * @return 是否在等待时间内完成
+     */
+    private boolean runAndWait(final Runnable task, long timeoutMillis) {
+        if (executor.isInExecutor()) {
+            task.run();
+            return true;
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        try {
+            return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 使用写日志器的DiskAdapter，所有方法都在写日志线程中调用
+     */
+    public interface Client {
+
+        /**
+         * 从队列中取出日志写入缓冲区
+         *
+         * @param maxRecords 最多取出的日志数
+         * @return 队列中是否还有日志；返回false后，队列再次有日志时会调用{@link DiskWriter#requestWrite(Client)}
+         */
+        boolean write(int maxRecords);
+
+        /**
+         * 是否有尚未写入文件的日志
+         *
+         * @return
+         */
+        boolean hasPending();
+
+        /**
+         * 获得缓冲数据写入文件的最长间隔（毫秒）
+         *
+         * @return
+         */
+        long getFlushInterval();
+
+        /**
+         * 将缓冲区中的日志写入文件
+         */
+        void flush();
+
+        /**
+         * 写入剩余的日志并关闭日志文件，此后放入队列的日志被丢弃
+         */
+        void close();
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.yangkangli.logger.disk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 按块压缩写入日志文件
+ * <p>
+ * 每次写入的数据被压缩为一个完整的gzip成员追加到文件末尾。多个gzip成员首尾相接仍是合法的gzip文件，
+ * 可以直接用gzip/zcat或GZIPInputStream读取；进程崩溃时最多损坏最后一个成员，之前写入的数据不受影响。
+ * <p>
+ * 压缩器持有本地内存，不再写入时应调用{@link #close()}释放；关闭后再写入会创建新的压缩器。
+ * <p>
+ * 该类不是线程安全的，只能在写日志线程中使用。
+ */
+class GzipBlockWriter {
+
+    /**
+     * gzip成员头：ID1 ID2 CM FLG MTIME(4) XFL OS
+     */
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    /**
+     * 读写缓冲大小
+     */
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * 压缩器，每个成员重置后复用，关闭后为null
+     */
+    private Deflater deflater;
+
+    /**
+     * 校验和
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * 待压缩数据的缓冲
+     */
+    private final byte[] input = new byte[BUFFER_SIZE];
+
+    /**
+     * 压缩后数据的缓冲
+     */
+    private final ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * 当前成员已写入channel的字节数
+     */
+    private long written;
+
+    /**
+     * 把data中剩余的数据压缩为一个gzip成员写入channel
+     *
+     * @param data
+     * @param channel
+     * @return 写入channel的字节数
+     * @throws IOException
+     */
+    long writeBlock(ByteBuffer data, FileChannel channel) throws IOException {
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        deflater.reset();
+        crc.reset();
+        written = 0;
+        int totalSize = data.remaining();
+
+        output.clear();
+        output.put(HEADER);
+
+        while (data.hasRemaining()) {
+            int count = Math.min(data.remaining(), input.length);
+            data.get(input, 0, count);
+            crc.update(input, 0, count);
+            deflater.setInput(input, 0, count);
+            while (!deflater.needsInput()) {
+                deflate(channel);
+            }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate(channel);
+        }
+
+        // 成员尾：CRC32 与原始长度（小端）
+        if (output.remaining() < 8) {
+            writeOutput(channel);
+        }
+        putIntLittleEndian((int) crc.getValue());
+        putIntLittleEndian(totalSize);
+        writeOutput(channel);
+        return written;
+    }
+
+    /**
+     * 压缩一部分数据到输出缓冲，输出缓冲已满时写入channel
+     *
+     * @param channel
+     * @throws IOException
+     */
+    private void deflate(FileChannel channel) throws IOException {
+        if (!output.hasRemaining()) {
+            writeOutput(channel);
+        }
+        int count = deflater.deflate(output.array(), output.arrayOffset() + output.position(), output.remaining());
+        output.position(output.position() + count);
+    }
+
+    /**
+     * 将输出缓冲写入channel
+     *
+     * @param channel
+     * @throws IOException
+     */
+    private void writeOutput(FileChannel channel) throws IOException {
+        output.flip();
+        written += output.remaining();
+        while (output.hasRemaining()) {
+            channel.write(output);
+        }
+        output.clear();
+    }
+
+    /**
+     * 释放压缩器占用的本地内存
+     */
+    void close() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+    }
+
+    private void putIntLittleEndian(int value) {
+        output.put((byte) value);
+        output.put((byte) (value >>> 8));
+        output.put((byte) (value >>> 16));
+        output.put((byte) (value >>> 24));
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.yangkangli.logger.disk;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 日志文件压缩工具，以流的方式压缩，不会把整个文件读入内存
+ */
+public class LogCompressor {
+
+    /**
+     * 压缩文件扩展名
+     */
+    public static final String GZIP_EXTENSION = ".gz";
+
+    /**
+     * 压缩过程中的临时文件扩展名
+     */
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    /**
+     * 已写入临时文件、等待临时文件改名的原文件扩展名
+     */
+    private static final String MERGED_EXTENSION = ".merged";
+
+    /**
+     * 读写缓冲大小
+     */
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private LogCompressor() {
+    }
+
+    /**
+     * 压缩目录中除current以外的所有未压缩日志文件，并完成或清理上次未完成的压缩
+     *
+     * @param folder
+     * @param extension 日志文件扩展名
+     * @param current   正在写入的日志文件，可以为null
+     */
+    public static void compressRolledFiles(File folder, final String extension, File current) {
+        File[] files = folder.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(extension) || name.endsWith(extension + MERGED_EXTENSION)
+                        || name.endsWith(GZIP_EXTENSION + TEMP_EXTENSION);
+            }
+        });
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String path = file.getPath();
+            if (path.endsWith(MERGED_EXTENSION)) {
+                finishMerge(new File(path.substring(0, path.length() - MERGED_EXTENSION.length())));
+            }
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_EXTENSION)) {
+                file.delete();
+            } else if (name.endsWith(extension) && !file.equals(current)) {
+                compress(file);
+            }
+        }
+    }
+
+    /**
+     * 压缩日志文件为"文件名.gz"，成功后删除原文件
+     * <p>
+     * 先压缩到临时文件再改名，压缩过程中进程被杀死不会留下损坏的压缩文件；
+     * 若压缩文件已存在（同一天的日志被再次写入），临时文件为已有内容加上新的gzip成员。
+     * 临时文件改名前先把原文件改名为标记文件（"文件名.merged"），改名后删除，
+     * 任一步骤中进程被杀死，下次{@link #compressRolledFiles(File, String, File)}都不会重复追加同一份日志
+     *
+     * @param source
+     * @return 压缩文件，压缩失败时返回null
+     */
+    public static File compress(File source) {
+        File target = new File(source.getPath() + GZIP_EXTENSION);
+        File temp = new File(target.getPath() + TEMP_EXTENSION);
+        File marker = new File(source.getPath() + MERGED_EXTENSION);
+        if (!finishMerge(source)) {
+            return null;
+        }
+        boolean append = target.exists();
+        try {
+            temp.delete();
+            if (append) {
+                append(target, temp);
+            }
+            FileInputStream in = new FileInputStream(source);
+            try {
+                GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(temp, true), BUFFER_SIZE);
+                try {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int count;
+                    while ((count = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, count);
+                    }
+                } finally {
+                    out.close();
+                }
+            } finally {
+                in.close();
+            }
+
+            if (!source.renameTo(marker)) {
+                temp.delete();
+                return null;
+            }
+            if (append) {
+                // 时间索引中的位置不再对应追加后的内容
+                TimeIndex.getIndexFile(source).delete();
+            }
+            if (!temp.renameTo(target)) {
+                marker.renameTo(source);
+                temp.delete();
+                return null;
+            }
+            marker.delete();
+            return target;
+        } catch (IOException e) {
+            // fail silently，保留原文件，下次再压缩
+            temp.delete();
+            return null;
+        }
+    }
+
+    /**
+     * 完成上次被中断的压缩：原文件已改名为标记文件时，临时文件已完整写入，改名为压缩文件后删除标记文件
+     *
+     * @param source
+     * @return 没有未完成的压缩时返回true
+     */
+    private static boolean finishMerge(File source) {
+        File marker = new File(source.getPath() + MERGED_EXTENSION);
+        if (!marker.exists()) {
+            return true;
+        }
+        File target = new File(source.getPath() + GZIP_EXTENSION);
+        File temp = new File(target.getPath() + TEMP_EXTENSION);
+        if (temp.exists() && !temp.renameTo(target)) {
+            return false;
+        }
+        return marker.delete();
+    }
+
+    /**
+     * 将source的内容追加到target末尾
+     *
+     * @param source
+     * @param target
+     * @throws IOException
+     */
+    private static void append(File source, File target) throws IOException {
+        FileInputStream in = new FileInputStream(source);
+        try {
+            FileOutputStream out = new FileOutputStream(target, true);
+            try {
+                FileChannel inChannel = in.getChannel();
+                FileChannel outChannel = out.getChannel();
+                long position = 0;
+                long size = inChannel.size();
+                while (position < size) {
+                    position += inChannel.transferTo(position, size - position, outChannel);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+}
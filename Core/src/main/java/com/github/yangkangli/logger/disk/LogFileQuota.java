@@ -0,0 +1,306 @@
+package com.github.yangkangli.logger.disk;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 日志文件配额
+ * <p>
+ * 只在初始化时列出一次日志目录，之后通过写入的字节数增量维护每个日志文件的大小和总大小，
+ * 超过最大文件数或最大总大小时，从最旧的日志文件开始删除。
+ * <p>
+ * 日志文件名为"yyyy-MM-dd[.N]扩展名[.gz]"，按日期和序号N排序。
+ * <p>
+ * 该类不是线程安全的，只能在写日志线程中使用。
+ */
+class LogFileQuota {
+
+    /**
+     * 日期部分的长度（yyyy-MM-dd）
+     */
+    private static final int DAY_LENGTH = 10;
+
+    /**
+     * 日志输出目录
+     */
+    private final File folder;
+
+    /**
+     * 日志文件扩展名
+     */
+    private final String extension;
+
+    /**
+     * 最大文件数，0表示不限制
+     */
+    private final int maxFileCount;
+
+    /**
+     * 最大总大小（字节），0表示不限制
+     */
+    private final long maxTotalSize;
+
+    /**
+     * 日志文件，从旧到新排列
+     */
+    private final List<FileEntry> entries = new ArrayList<>();
+
+    /**
+     * 所有日志文件的总大小
+     */
+    private long totalSize;
+
+    /**
+     * 构造方法
+     *
+     * @param folder
+     * @param extension
+     * @param maxFileCount
+     * @param maxTotalSize
+     */
+    LogFileQuota(File folder, String extension, int maxFileCount, long maxTotalSize) {
+        this.folder = folder;
+        this.extension = extension;
+        this.maxFileCount = maxFileCount;
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    /**
+     * 列出日志目录，重新建立日志文件列表
+     */
+    void scan() {
+        entries.clear();
+        totalSize = 0;
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            FileEntry entry = parse(file);
+            if (entry != null) {
+                entry.size = file.length();
+                entries.add(entry);
+                totalSize += entry.size;
+            }
+        }
+        Collections.sort(entries, ORDER);
+    }
+
+    /**
+     * 获得某一天最新的日志文件，没有时返回null
+     *
+     * @param day yyyy-MM-dd
+     * @return
+     */
+    FileEntry getLatest(String day) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            FileEntry entry = entries.get(i);
+            int compare = entry.day.compareTo(day);
+            if (compare == 0) {
+                return entry;
+            } else if (compare < 0) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获得日志文件对应的记录，没有时加入一条新记录
+     *
+     * @param file
+     * @param size 文件当前大小
+     * @return
+     */
+    FileEntry open(File file, long size) {
+        FileEntry entry = find(file);
+        if (entry == null) {
+            entry = parse(file);
+            if (entry == null) {
+                // 不符合命名规则的文件不计入配额
+                entry = new FileEntry(file, "", 0);
+            } else {
+                entries.add(entry);
+                Collections.sort(entries, ORDER);
+            }
+        }
+        totalSize += size - entry.size;
+        entry.size = size;
+        return entry;
+    }
+
+    /**
+     * 记录写入日志文件的字节数
+     *
+     * @param entry
+     * @param count
+     */
+    void addBytes(FileEntry entry, long count) {
+        entry.size += count;
+        totalSize += count;
+    }
+
+    /**
+     * 日志文件被压缩后，用压缩文件替换原来的记录
+     *
+     * @param source
+     * @param target
+     */
+    void replace(File source, File target) {
+        FileEntry entry = find(source);
+        if (entry != null) {
+            entries.remove(entry);
+            totalSize -= entry.size;
+        }
+        open(target, target.length());
+    }
+
+    /**
+     * 删除最旧的日志文件，直到不超过最大文件数和最大总大小，正在写入的文件不会被删除
+     *
+     * @param current 正在写入的日志文件
+     */
+    void enforce(FileEntry current) {
+        while (!entries.isEmpty() && isExceeded()) {
+            FileEntry oldest = entries.get(0);
+            if (oldest == current) {
+                return;
+            }
+            oldest.file.delete();
+            TimeIndex.getIndexFile(oldest.file).delete();
+            entries.remove(0);
+            totalSize -= oldest.size;
+        }
+    }
+
+    /**
+     * 是否超过配额
+     *
+     * @return
+     */
+    private boolean isExceeded() {
+        return (maxFileCount > 0 && entries.size() > maxFileCount)
+                || (maxTotalSize > 0 && totalSize > maxTotalSize);
+    }
+
+    /**
+     * 查找日志文件对应的记录
+     *
+     * @param file
+     * @return
+     */
+    private FileEntry find(File file) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            FileEntry entry = entries.get(i);
+            if (entry.file.equals(file)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析日志文件名，不符合命名规则时返回null
+     *
+     * @param file
+     * @return
+     */
+    private FileEntry parse(File file) {
+        String name = file.getName();
+        if (name.endsWith(LogCompressor.GZIP_EXTENSION)) {
+            name = name.substring(0, name.length() - LogCompressor.GZIP_EXTENSION.length());
+        }
+        if (!name.endsWith(extension) || name.length() < DAY_LENGTH + extension.length()) {
+            return null;
+        }
+        String day = name.substring(0, DAY_LENGTH);
+        if (!isDay(day)) {
+            return null;
+        }
+        String rest = name.substring(DAY_LENGTH, name.length() - extension.length());
+        int index = 0;
+        if (rest.length() > 0) {
+            if (rest.length() < 2 || rest.charAt(0) != '.') {
+                return null;
+            }
+            try {
+                index = Integer.parseInt(rest.substring(1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (index <= 0) {
+                return null;
+            }
+        }
+        return new FileEntry(file, day, index);
+    }
+
+    /**
+     * 是否是yyyy-MM-dd格式的日期
+     *
+     * @param day
+     * @return
+     */
+    private static boolean isDay(String day) {
+        for (int i = 0; i < DAY_LENGTH; i++) {
+            char c = day.charAt(i);
+            if (i == 4 || i == 7) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 日志文件的排列顺序：先按日期，再按序号
+     */
+    private static final Comparator<FileEntry> ORDER = new Comparator<FileEntry>() {
+        @Override
+        public int compare(FileEntry o1, FileEntry o2) {
+            int result = o1.day.compareTo(o2.day);
+            if (result != 0) {
+                return result;
+            }
+            return o1.index < o2.index ? -1 : (o1.index == o2.index ? 0 : 1);
+        }
+    };
+
+    /**
+     * 一个日志文件
+     */
+    static class FileEntry {
+
+        /**
+         * 日志文件
+         */
+        final File file;
+
+        /**
+         * 日期（yyyy-MM-dd）
+         */
+        final String day;
+
+        /**
+         * 同一天内的序号，第一个文件为0
+         */
+        final int index;
+
+        /**
+         * 文件大小
+         */
+        long size;
+
+        FileEntry(File file, String day, int index) {
+            this.file = file;
+            this.day = day;
+            this.index = index;
+        }
+    }
+}
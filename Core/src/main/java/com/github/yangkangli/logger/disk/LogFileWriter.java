@@ -0,0 +1,894 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.core.LatencyHistogram;
+import com.github.yangkangli.logger.utils.CachedDateFormat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * 日志文件写入器
+ * <p>
+ * 保持当天日志文件的FileChannel一直打开，只在日期变化时重新打开。
+ * 日志由{@link RecordEncoder}编码到可复用的缓冲区（直接内存或内存映射缓冲区）中，
+ * 达到大小阈值或调用{@link #flush()}时，再一次性写入文件，从而把多条日志合并为一次写操作。
+ * <p>
+ * 设置了{@link #setLimits(long, int, long)}后，单个文件超过最大大小时在记录边界处切换到
+ * yyyy-MM-dd.N.log，并按{@link LogFileQuota}删除最旧的日志文件。
+ * <p>
+ * 设置了{@link #setTimeIndex(int, long)}后，每隔若干条日志或字节在日志文件旁追加一项{@link TimeIndex}，
+ * 二进制格式在索引位置开始新的数据段，使解码可以从索引位置开始。
+ * <p>
+ * 该类不是线程安全的，只能在写日志线程中使用。
+ */
+public class LogFileWriter {
+
+    /**
+     * 压缩方式：不压缩
+     */
+    public static final int COMPRESS_NONE = 0;
+
+    /**
+     * 压缩方式：日期变化后压缩前一天的日志文件（yyyy-MM-dd.log.gz）
+     */
+    public static final int COMPRESS_ROLLED = 1;
+
+    /**
+     * 压缩方式：日志文件本身按块压缩写入（yyyy-MM-dd.log.gz），每次写入文件的数据是一个独立的gzip成员
+     */
+    public static final int COMPRESS_BLOCKS = 2;
+
+    /**
+     * 缓冲区的最小大小，至少能放下一个UTF-8编码的字符
+     */
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    /**
+     * 日志文件名的日期格式
+     */
+    private static final String FILE_NAME_PATTERN = "yyyy-MM-dd";
+
+    /**
+     * 日志输出目录
+     */
+    private final File folder;
+
+    /**
+     * 日志文件名格式器
+     */
+    private final CachedDateFormat fileNameFormat = new CachedDateFormat(FILE_NAME_PATTERN);
+
+    /**
+     * 日志文件格式
+     */
+    private final RecordEncoder recordEncoder;
+
+    /**
+     * 压缩方式
+     */
+    private final int compressMode;
+
+    /**
+     * 按块压缩写入器，未使用按块压缩时为null
+     */
+    private final GzipBlockWriter blockWriter;
+
+    /**
+     * 缓冲区，日志数据从bufferStart开始，到position结束
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * 缓冲区中日志数据的起始位置
+     */
+    private int bufferStart;
+
+    /**
+     * 缓冲数据达到该位置时写入文件
+     */
+    private int flushThreshold;
+
+    /**
+     * 内存映射缓冲区，未使用时为null
+     */
+    private MappedLogBuffer mappedBuffer;
+
+    /**
+     * 当前日志文件的输出流
+     */
+    private FileOutputStream outputStream;
+
+    /**
+     * 当前日志文件的FileChannel
+     */
+    private FileChannel channel;
+
+    /**
+     * 当前日志文件
+     */
+    private File currentFile;
+
+    /**
+     * 当前日志文件的日期（yyyy-MM-dd）
+     */
+    private String currentDay;
+
+    /**
+     * 当前日志文件在同一天内的序号
+     */
+    private int currentIndex;
+
+    /**
+     * 单个日志文件的最大大小（字节），0表示不限制
+     */
+    private long maxFileSize;
+
+    /**
+     * 日志文件配额，未设置任何限制时为null
+     */
+    private LogFileQuota quota;
+
+    /**
+     * 日志文件配额是否已经初始化
+     */
+    private boolean quotaScanned;
+
+    /**
+     * 当前日志文件在配额中的记录
+     */
+    private LogFileQuota.FileEntry currentEntry;
+
+    /**
+     * 当前日志文件对应日期的起始时间（包含）
+     */
+    private long dayStart;
+
+    /**
+     * 当前日志文件对应日期的结束时间（不包含）
+     */
+    private long dayEnd;
+
+    /**
+     * 当前日志文件是否已开始数据段
+     */
+    private boolean segmentStarted;
+
+    /**
+     * 累计写入文件的字节数
+     */
+    private volatile long bytesWritten;
+
+    /**
+     * 当前日期写入文件的字节数
+     */
+    private volatile long bytesWrittenToday;
+
+    /**
+     * bytesWrittenToday对应的日期
+     */
+    private String bytesDay;
+
+    /**
+     * 写入文件的耗时
+     */
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+
+    /**
+     * 时间索引的间隔：日志条数，0表示不按条数
+     */
+    private int indexRecords;
+
+    /**
+     * 时间索引的间隔：未压缩的字节数，0表示不按字节数
+     */
+    private long indexBytes;
+
+    /**
+     * 当前日志文件的时间索引写入器，未开启时间索引时为null
+     */
+    private TimeIndexWriter indexWriter;
+
+    /**
+     * 当前日志文件的大小，即下一次写入的文件位置
+     */
+    private long fileOffset;
+
+    /**
+     * 当前日志文件已写入的未压缩数据量（按块压缩时从打开文件时开始计算）
+     */
+    private long streamOffset;
+
+    /**
+     * 上一个索引项在未压缩数据中的位置，-1表示当前日志文件还没有索引项
+     */
+    private long lastIndexStream = -1;
+
+    /**
+     * 上一个索引项之后写入的日志条数
+     */
+    private int recordsSinceIndex;
+
+    /**
+     * 当前日志文件中已写入日志的最大时间
+     */
+    private long maxTimestamp;
+
+    /**
+     * 缓冲区中待写入的索引项的时间
+     */
+    private long[] pendingTimestamps = new long[4];
+
+    /**
+     * 缓冲区中待写入的索引项在缓冲区中的位置
+     */
+    private int[] pendingPositions = new int[4];
+
+    /**
+     * 缓冲区中待写入的索引项数量
+     */
+    private int pendingCount;
+
+    /**
+     * 构造方法
+     *
+     * @param folderPath   日志输出目录
+     * @param flushSize    缓冲数据达到该大小（字节）时写入文件
+     * @param encoder      日志文件格式
+     * @param compressMode 压缩方式
+     */
+    public LogFileWriter(String folderPath, int flushSize, RecordEncoder encoder, int compressMode) {
+        this.folder = new File(folderPath);
+        this.recordEncoder = encoder;
+        this.compressMode = compressMode;
+        this.blockWriter = compressMode == COMPRESS_BLOCKS ? new GzipBlockWriter() : null;
+        int size = Math.max(flushSize, MIN_BUFFER_SIZE);
+        this.buffer = ByteBuffer.allocateDirect(size);
+        this.bufferStart = 0;
+        this.flushThreshold = size;
+    }
+
+    /**
+     * 设置日志文件的大小与数量限制，需要在写入日志之前调用
+     *
+     * @param maxFileSize  单个日志文件的最大大小（字节），0表示不限制
+     * @param maxFileCount 最大文件数，0表示不限制
+     * @param maxTotalSize 所有日志文件的最大总大小（字节），0表示不限制
+     */
+    public void setLimits(long maxFileSize, int maxFileCount, long maxTotalSize) {
+        this.maxFileSize = maxFileSize;
+        if (maxFileSize > 0 || maxFileCount > 0 || maxTotalSize > 0) {
+            this.quota = new LogFileQuota(folder, recordEncoder.getFileExtension(), maxFileCount, maxTotalSize);
+        } else {
+            this.quota = null;
+        }
+        this.quotaScanned = false;
+    }
+
+    /**
+     * 开启时间索引，需要在写入日志之前调用，两个间隔都为0时不生成时间索引
+     * <p>
+     * 按块压缩时，每个索引项都会结束当前的gzip成员，间隔过小会降低压缩率
+     *
+     * @param recordInterval 每隔多少条日志添加一个索引项，0表示不按条数
+     * @param byteInterval   每隔多少字节（未压缩）添加一个索引项，0表示不按字节数
+     */
+    public void setTimeIndex(int recordInterval, long byteInterval) {
+        this.indexRecords = Math.max(recordInterval, 0);
+        this.indexBytes = Math.max(byteInterval, 0);
+    }
+
+    /**
+     * 改为使用内存映射缓冲区，若存在上次进程遗留的日志，则追加到其所属日期的日志文件中
+     *
+     * @param bufferFile
+     * @param capacity
+     */
+    public void openMappedBuffer(File bufferFile, int capacity) {
+        try {
+            flush();
+            MappedLogBuffer mapped = new MappedLogBuffer(bufferFile, capacity);
+            this.mappedBuffer = mapped;
+            this.buffer = mapped.getBuffer();
+            this.bufferStart = mapped.getDataStart();
+            this.flushThreshold = bufferStart + capacity / 2;
+            if (mapped.hasPending()) {
+                recover(mapped);
+            }
+        } catch (IOException e) {
+            // 无法建立映射时，继续使用直接内存缓冲区
+        }
+    }
+
+    /**
+     * 把上次进程遗留在映射缓冲区中的日志写入其所属日期的日志文件
+     * <p>
+     * 映射缓冲区中的数据总是从新的数据段开始，不依赖已写入文件的数据即可解码
+     *
+     * @param mapped
+     */
+    private void recover(MappedLogBuffer mapped) {
+        long timestamp = mapped.getTimestamp();
+        if (timestamp > 0) {
+            try {
+                openChannel(timestamp);
+            } catch (IOException e) {
+                // fail silently，写入当前日期的日志文件
+            }
+        }
+        flush();
+    }
+
+    /**
+     * 写入一条日志记录
+     *
+     * @param record
+     */
+    public void write(DiskRecord record) {
+        try {
+            long timestamp = record.getTimestamp();
+            if (channel == null || timestamp < dayStart || timestamp >= dayEnd) {
+                // 日期变化，先把缓冲数据写入原来的文件
+                flush();
+                openChannel(timestamp);
+            }
+
+            if (indexWriter != null) {
+                maxTimestamp = Math.max(maxTimestamp, timestamp);
+                if (isIndexDue()) {
+                    if (blockWriter != null) {
+                        // 按块压缩时只能从gzip成员的起始位置开始解压，先结束当前的成员
+                        flush();
+                    }
+                    addPendingIndex();
+                    // 索引位置开始新的数据段，解码无需依赖之前的字典
+                    segmentStarted = false;
+                }
+                recordsSinceIndex++;
+            }
+
+            if (mappedBuffer != null && buffer.position() == bufferStart) {
+                // 映射缓冲区中的数据可能在下次启动时单独恢复：记录日期，并从新的数据段开始
+                mappedBuffer.setTimestamp(timestamp);
+                segmentStarted = false;
+            }
+            if (!segmentStarted) {
+                recordEncoder.startSegment(this, timestamp);
+                segmentStarted = true;
+            }
+
+            recordEncoder.encode(record, this);
+            if (mappedBuffer != null) {
+                mappedBuffer.commit();
+            }
+
+            if (buffer.position() >= flushThreshold) {
+                flush();
+            }
+            rollIfNeeded();
+        } catch (IOException e) {
+            // fail silently，下次写入时重新打开文件
+            closeChannel();
+        }
+    }
+
+    /**
+     * 是否有尚未写入文件的数据
+     *
+     * @return
+     */
+    public boolean hasPending() {
+        return buffer.position() > bufferStart;
+    }
+
+    /**
+     * 将缓冲区中的数据一次性写入文件
+     */
+    public void flush() {
+        int end = buffer.position();
+        if (end <= bufferStart) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                openChannel(System.currentTimeMillis());
+            }
+            long start = System.nanoTime();
+            ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(end);
+            chunk.position(bufferStart);
+            long written;
+            if (blockWriter != null) {
+                written = blockWriter.writeBlock(chunk, channel);
+            } else {
+                written = chunk.remaining();
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+            flushLatency.record(System.nanoTime() - start);
+            commitIndex(end);
+            fileOffset += written;
+            streamOffset += end - bufferStart;
+            addBytesWritten(written);
+            if (currentEntry != null) {
+                quota.addBytes(currentEntry, written);
+                quota.enforce(currentEntry);
+            }
+        } catch (IOException e) {
+            // fail silently，丢弃缓冲数据，下次写入时重新打开文件
+            closeChannel();
+        } finally {
+            buffer.position(bufferStart);
+            pendingCount = 0;
+            if (mappedBuffer != null) {
+                mappedBuffer.commit();
+            }
+        }
+    }
+
+    /**
+     * 是否需要在下一条日志处添加索引项
+     *
+     * @return
+     */
+    private boolean isIndexDue() {
+        if (lastIndexStream < 0) {
+            return true;
+        }
+        long bytes = streamOffset + buffer.position() - bufferStart - lastIndexStream;
+        return (indexRecords > 0 && recordsSinceIndex >= indexRecords)
+                || (indexBytes > 0 && bytes >= indexBytes);
+    }
+
+    /**
+     * 在缓冲区的当前位置添加一个索引项，写入文件后再写入索引文件
+     */
+    private void addPendingIndex() {
+        if (pendingCount == pendingPositions.length) {
+            pendingTimestamps = Arrays.copyOf(pendingTimestamps, pendingCount * 2);
+            pendingPositions = Arrays.copyOf(pendingPositions, pendingCount * 2);
+        }
+        int position = buffer.position();
+        pendingTimestamps[pendingCount] = maxTimestamp;
+        pendingPositions[pendingCount] = position;
+        pendingCount++;
+        lastIndexStream = streamOffset + position - bufferStart;
+        recordsSinceIndex = 0;
+    }
+
+    /**
+     * 缓冲数据写入文件后，写入其中的索引项
+     *
+     * @param end 已写入的缓冲数据的结束位置
+     */
+    private void commitIndex(int end) {
+        if (indexWriter == null || pendingCount == 0) {
+            return;
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            int position = Math.min(pendingPositions[i], end);
+            long offset = blockWriter != null ? fileOffset : fileOffset + position - bufferStart;
+            indexWriter.add(pendingTimestamps[i], offset);
+        }
+        try {
+            indexWriter.commit();
+        } catch (IOException e) {
+            // fail silently，不再写入当前日志文件的索引
+            indexWriter.close();
+            indexWriter = null;
+        }
+    }
+
+    /**
+     * 统计写入文件的字节数
+     *
+     * @param written
+     */
+    private void addBytesWritten(long written) {
+        if (!currentDay.equals(bytesDay)) {
+            bytesDay = currentDay;
+            bytesWrittenToday = 0;
+        }
+        bytesWrittenToday += written;
+        bytesWritten += written;
+    }
+
+    /**
+     * 获得累计写入文件的字节数（压缩后）
+     *
+     * @return
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 获得当前日志文件所在日期写入文件的字节数（压缩后）
+     *
+     * @return
+     */
+    public long getBytesWrittenToday() {
+        return bytesWrittenToday;
+    }
+
+    /**
+     * 获得写入文件的耗时
+     *
+     * @return
+     */
+    public LatencyHistogram getFlushLatency() {
+        return flushLatency;
+    }
+
+    /**
+     * 写入缓冲数据并关闭当前日志文件，释放压缩器
+     */
+    public void close() {
+        flush();
+        closeChannel();
+        if (blockWriter != null) {
+            blockWriter.close();
+        }
+    }
+
+    /**
+     * 压缩目录中之前遗留的未压缩日志文件（当前正在写入的文件除外），在写日志线程空闲时调用
+     */
+    public void compressRolledFiles() {
+        if (compressMode != COMPRESS_ROLLED) {
+            return;
+        }
+        File current = currentFile;
+        if (current == null) {
+            String day = fileNameFormat.format(System.currentTimeMillis());
+            current = getLogFile(day, getWritableIndex(day));
+        }
+        LogCompressor.compressRolledFiles(folder, recordEncoder.getFileExtension(), current);
+
+        if (quota != null) {
+            // 压缩改变了文件名和大小，重新建立日志文件列表
+            quota.scan();
+            quotaScanned = true;
+            if (currentFile != null) {
+                currentEntry = quota.open(currentFile, currentFile.length());
+                quota.enforce(currentEntry);
+            }
+        }
+    }
+
+    /**
+     * 获得日志文件
+     *
+     * @param day   日期（yyyy-MM-dd）
+     * @param index 同一天内的序号
+     * @return
+     */
+    private File getLogFile(String day, int index) {
+        StringBuilder name = new StringBuilder(day);
+        if (index > 0) {
+            name.append('.').append(index);
+        }
+        name.append(recordEncoder.getFileExtension());
+        if (compressMode == COMPRESS_BLOCKS) {
+            name.append(LogCompressor.GZIP_EXTENSION);
+        }
+        return new File(folder, name.toString());
+    }
+
+    /**
+     * 获得某一天可以继续写入的日志文件序号
+     *
+     * @param day
+     * @return
+     */
+    private int getWritableIndex(String day) {
+        if (quota == null) {
+            return 0;
+        }
+        if (!quotaScanned) {
+            // 只在第一次打开日志文件时列出一次日志目录
+            quota.scan();
+            quotaScanned = true;
+        }
+        LogFileQuota.FileEntry latest = quota.getLatest(day);
+        if (latest == null) {
+            return 0;
+        }
+        boolean compressed = compressMode != COMPRESS_BLOCKS
+                && latest.file.getName().endsWith(LogCompressor.GZIP_EXTENSION);
+        if (compressed || (maxFileSize > 0 && latest.size >= maxFileSize)) {
+            return latest.index + 1;
+        }
+        return latest.index;
+    }
+
+    /**
+     * 当前日志文件超过最大大小时，在记录边界处切换到下一个文件
+     *
+     * @throws IOException
+     */
+    private void rollIfNeeded() throws IOException {
+        if (maxFileSize <= 0 || currentEntry == null) {
+            return;
+        }
+        // 按块压缩时，压缩后的大小只有写入文件后才知道
+        long pending = blockWriter == null ? buffer.position() - bufferStart : 0;
+        if (currentEntry.size + pending < maxFileSize) {
+            return;
+        }
+        flush();
+        if (channel != null) {
+            openFile(currentDay, currentIndex + 1, dayStart, dayEnd);
+        }
+    }
+
+    /**
+     * 打开时间对应日期的日志文件
+     *
+     * @param timestamp
+     * @throws IOException
+     */
+    private void openChannel(long timestamp) throws IOException {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timestamp);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long start = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        long end = calendar.getTimeInMillis();
+
+        String day = fileNameFormat.format(timestamp);
+        openFile(day, getWritableIndex(day), start, end);
+    }
+
+    /**
+     * 打开日志文件
+     *
+     * @param day      日期（yyyy-MM-dd）
+     * @param index    同一天内的序号
+     * @param dayStart 日期的起始时间（包含）
+     * @param dayEnd   日期的结束时间（不包含）
+     * @throws IOException
+     */
+    private void openFile(String day, int index, long dayStart, long dayEnd) throws IOException {
+        File previousFile = currentFile;
+        closeChannel();
+
+        // 若没有该目录，则创建目录
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+
+        File logFile = getLogFile(day, index);
+        outputStream = new FileOutputStream(logFile, true);
+        channel = outputStream.getChannel();
+        currentFile = logFile;
+        currentDay = day;
+        currentIndex = index;
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        segmentStarted = false;
+        fileOffset = channel.size();
+        streamOffset = blockWriter != null ? 0 : fileOffset;
+        if (indexRecords > 0 || indexBytes > 0) {
+            openIndex(logFile);
+        }
+        if (quota != null) {
+            currentEntry = quota.open(logFile, fileOffset);
+        }
+
+        // 切换文件后压缩之前的日志文件
+        if (compressMode == COMPRESS_ROLLED && previousFile != null && !previousFile.equals(logFile)) {
+            File compressed = LogCompressor.compress(previousFile);
+            if (compressed != null && quota != null) {
+                quota.replace(previousFile, compressed);
+            }
+        }
+        if (currentEntry != null) {
+            quota.enforce(currentEntry);
+        }
+    }
+
+    /**
+     * 打开日志文件的时间索引
+     *
+     * @param logFile
+     */
+    private void openIndex(File logFile) {
+        lastIndexStream = -1;
+        recordsSinceIndex = 0;
+        maxTimestamp = Long.MIN_VALUE;
+        try {
+            indexWriter = new TimeIndexWriter(logFile, blockWriter != null);
+        } catch (IOException e) {
+            // fail silently，当前日志文件没有索引
+            indexWriter = null;
+        }
+    }
+
+    /**
+     * 关闭当前日志文件
+     */
+    private void closeChannel() {
+        if (outputStream != null) {
+            try {
+                outputStream.close();
+            } catch (IOException e) { /* fail silently */ }
+        }
+        if (indexWriter != null) {
+            indexWriter.close();
+            indexWriter = null;
+        }
+        outputStream = null;
+        channel = null;
+        currentFile = null;
+        currentEntry = null;
+        segmentStarted = false;
+    }
+
+    /**
+     * 写入字符（UTF-8编码），由{@link RecordEncoder}调用
+     *
+     * @param chars
+     */
+    public void writeChars(CharSequence chars) {
+        for (int i = 0, n = chars.length(); i < n; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                ensureRemaining(1);
+                buffer.put((byte) c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, chars.charAt(++i)));
+            } else {
+                writeCodePoint(c);
+            }
+        }
+    }
+
+    /**
+     * 写入字符数组的一部分（UTF-8编码），由{@link RecordEncoder}调用
+     *
+     * @param chars
+     * @param offset
+     * @param count
+     */
+    public void writeChars(char[] chars, int offset, int count) {
+        for (int i = offset, end = offset + count; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                ensureRemaining(1);
+                buffer.put((byte) c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                writeCodePoint(Character.toCodePoint(c, chars[++i]));
+            } else {
+                writeCodePoint(c);
+            }
+        }
+    }
+
+    /**
+     * 写入字符串（varint字节数 + UTF-8字节），由{@link RecordEncoder}调用
+     *
+     * @param string
+     */
+    public void writeString(String string) {
+        if (string == null) {
+            string = "";
+        }
+        writeVarint(utf8Length(string));
+        writeChars(string);
+    }
+
+    /**
+     * 写入一个字节，由{@link RecordEncoder}调用
+     *
+     * @param value
+     */
+    public void writeByte(int value) {
+        ensureRemaining(1);
+        buffer.put((byte) value);
+    }
+
+    /**
+     * 写入字节数组，由{@link RecordEncoder}调用
+     *
+     * @param bytes
+     */
+    public void writeBytes(byte[] bytes) {
+        for (byte b : bytes) {
+            writeByte(b);
+        }
+    }
+
+    /**
+     * 写入8字节整数（大端），由{@link RecordEncoder}调用
+     *
+     * @param value
+     */
+    public void writeLong(long value) {
+        ensureRemaining(8);
+        buffer.putLong(value);
+    }
+
+    /**
+     * 写入varint编码的非负整数，由{@link RecordEncoder}调用
+     *
+     * @param value
+     */
+    public void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /**
+     * 确保缓冲区剩余空间足够，不足时先写入文件
+     *
+     * @param size
+     */
+    private void ensureRemaining(int size) {
+        if (buffer.remaining() < size) {
+            flush();
+        }
+    }
+
+    /**
+     * 计算字符串的UTF-8编码长度
+     *
+     * @param string
+     * @return
+     */
+    private static int utf8Length(String string) {
+        int length = 0;
+        for (int i = 0, n = string.length(); i < n; i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // 不成对的代理字符会被替换为'?'
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 把一个非ASCII字符按UTF-8编码写入缓冲区，不成对的代理字符写为'?'
+     *
+     * @param codePoint
+     */
+    private void writeCodePoint(int codePoint) {
+        ensureRemaining(4);
+        if (codePoint < 0x800) {
+            buffer.put((byte) (0xC0 | (codePoint >> 6)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            buffer.put((byte) '?');
+        } else if (codePoint < 0x10000) {
+            buffer.put((byte) (0xE0 | (codePoint >> 12)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+            buffer.put((byte) (0xF0 | (codePoint >> 18)));
+            buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.utils.Constant;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 按时间范围读取日志文件，借助{@link TimeIndex}直接跳到范围附近，只读取范围内的数据
+ * <p>
+ * 支持文本与二进制格式、未压缩与压缩的日志文件，没有索引时从头读取。不依赖Android，可以直接在JVM上运行：
+ * <pre>
+ * java -cp logger.jar com.github.yangkangli.logger.disk.LogRangeReader [-p 时间格式] 2020-04-22.log "起始时间" "结束时间"
+ * </pre>
+ */
+public class LogRangeReader {
+
+    /**
+     * 日志文件
+     */
+    private final File logFile;
+
+    /**
+     * 日期时间格式化模式，与写入时相同
+     */
+    private final String formatPattern;
+
+    /**
+     * 构造方法
+     *
+     * @param logFile
+     * @param formatPattern 日期时间格式化模式，与写入时相同
+     */
+    public LogRangeReader(File logFile, String formatPattern) {
+        this.logFile = logFile;
+        this.formatPattern = formatPattern;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String pattern = Constant.DEFAULT_FORMAT_PATTERN;
+        String[] positional = new String[3];
+        int count = 0;
+        for (int i = 0; i < args.length; i++) {
+            if ("-p".equals(args[i]) && i + 1 < args.length) {
+                pattern = args[++i];
+            } else if (count < positional.length) {
+                positional[count++] = args[i];
+            }
+        }
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        Date from = count == 3 ? format.parse(positional[1], new ParsePosition(0)) : null;
+        Date to = count == 3 ? format.parse(positional[2], new ParsePosition(0)) : null;
+        if (from == null || to == null) {
+            System.err.println("Usage: LogRangeReader [-p pattern] <log file> <from> <to>");
+            System.exit(1);
+            return;
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8"));
+        try {
+            new LogRangeReader(new File(positional[0]), pattern).read(from.getTime(), to.getTime(), out);
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * 读取时间范围内的日志，按文本格式写入out
+     *
+     * @param from 起始时间（包含）
+     * @param to   结束时间（包含）
+     * @param out
+     * @throws IOException
+     */
+    public void read(long from, long to, Writer out) throws IOException {
+        TimeIndex index = TimeIndex.read(logFile);
+        long start = index == null ? 0 : index.findStart(from);
+        long end = index == null ? -1 : index.findEnd(to);
+
+        FileInputStream file = new FileInputStream(logFile);
+        InputStream in = file;
+        try {
+            if (!logFile.getName().endsWith(LogCompressor.GZIP_EXTENSION)) {
+                file.getChannel().position(start);
+                in = limit(new BufferedInputStream(file), start, end);
+            } else if (index != null && index.isBlockOffsets()) {
+                // 按块压缩：索引位置是gzip成员的起始位置，可以直接从该位置解压
+                file.getChannel().position(start);
+                in = new GZIPInputStream(limit(new BufferedInputStream(file), start, end));
+            } else {
+                // 写入后才压缩：索引位置是未压缩数据中的位置，只能解压并跳过
+                in = new GZIPInputStream(new BufferedInputStream(file));
+                skipFully(in, start);
+                in = limit(in, start, end);
+            }
+
+            if (logFile.getName().contains(BinaryLogFormat.FILE_EXTENSION)) {
+                new BinaryLogDecoder(in, formatPattern).setTimeRange(from, to).decodeTo(out);
+            } else {
+                readText(in, from, to, out);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 逐行读取文本日志，输出时间在范围内的行；一条日志的每一行都带有相同的时间前缀
+     *
+     * @param in
+     * @param from
+     * @param to
+     * @param out
+     * @throws IOException
+     */
+    private void readText(InputStream in, long from, long to, Writer out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        SimpleDateFormat format = new SimpleDateFormat(formatPattern);
+        ParsePosition position = new ParsePosition(0);
+        String lastPrefix = null;
+        boolean matched = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (lastPrefix == null || !line.startsWith(lastPrefix)) {
+                // 同一条日志的后续行与上一行的时间前缀相同，无需再次解析
+                position.setIndex(0);
+                position.setErrorIndex(-1);
+                Date date = format.parse(line, position);
+                if (date != null) {
+                    long timestamp = date.getTime();
+                    lastPrefix = line.substring(0, position.getIndex());
+                    matched = timestamp >= from && timestamp <= to;
+                }
+            }
+            if (matched) {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * 限制从start读取到end为止，end为-1时不限制
+     *
+     * @param in
+     * @param start
+     * @param end
+     * @return
+     */
+    private static InputStream limit(InputStream in, long start, long end) {
+        return end < 0 ? in : new LimitedInputStream(in, end - start);
+    }
+
+    /**
+     * 跳过输入流中的count个字节
+     *
+     * @param in
+     * @param count
+     * @throws IOException
+     */
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    /**
+     * 最多读取指定字节数的输入流
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        /**
+         * 剩余可读取的字节数
+         */
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = in.skip(Math.min(count, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
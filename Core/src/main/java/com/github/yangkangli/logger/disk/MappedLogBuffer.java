@@ -0,0 +1,137 @@
+package com.github.yangkangli.logger.disk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 基于内存映射文件（MappedByteBuffer）的日志缓冲区
+ * <p>
+ * 日志直接编码写入映射区域，写满一定比例后再整块写入日志文件。
+ * 由于映射区域由内核负责回写，进程被杀死时尚未写入日志文件的内容仍保留在缓冲文件中，
+ * 下次打开时会被恢复并追加到其所属日期的日志文件。
+ * <p>
+ * 文件布局：[MAGIC(4字节)][已提交位置(4字节)][数据中第一条日志的时间(8字节)][日志数据...]
+ * <p>
+ * 该类不是线程安全的，只能在写日志线程中使用。
+ */
+public class MappedLogBuffer {
+
+    /**
+     * 缓冲文件标识
+     */
+    private static final int MAGIC = 0x414C4F32;
+
+    /**
+     * 文件头长度
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * 已提交位置在文件头中的偏移
+     */
+    private static final int POSITION_OFFSET = 4;
+
+    /**
+     * 第一条日志的时间在文件头中的偏移
+     */
+    private static final int TIMESTAMP_OFFSET = 8;
+
+    /**
+     * 内存映射区域
+     */
+    private final MappedByteBuffer mapped;
+
+    /**
+     * 构造方法，打开（或创建）缓冲文件并建立映射，position被设置为上次提交的位置
+     *
+     * @param bufferFile
+     * @param capacity
+     * @throws IOException
+     */
+    public MappedLogBuffer(File bufferFile, int capacity) throws IOException {
+        File parent = bufferFile.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        RandomAccessFile file = new RandomAccessFile(bufferFile, "rw");
+        try {
+            int size = HEADER_SIZE + capacity;
+            if (file.length() != size) {
+                file.setLength(size);
+            }
+            // 映射建立后即使关闭文件，映射区域仍然有效
+            this.mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            file.close();
+        }
+
+        int position = mapped.getInt(POSITION_OFFSET);
+        if (mapped.getInt(0) != MAGIC || position < HEADER_SIZE || position > mapped.capacity()) {
+            // 新文件或已损坏的文件，重新初始化
+            mapped.putInt(0, MAGIC);
+            position = HEADER_SIZE;
+            mapped.putInt(POSITION_OFFSET, position);
+            mapped.putLong(TIMESTAMP_OFFSET, 0);
+        }
+        mapped.position(position);
+    }
+
+    /**
+     * 获得映射区域，日志数据从{@link #getDataStart()}开始，到position结束
+     *
+     * @return
+     */
+    public ByteBuffer getBuffer() {
+        return mapped;
+    }
+
+    /**
+     * 获得日志数据的起始位置
+     *
+     * @return
+     */
+    public int getDataStart() {
+        return HEADER_SIZE;
+    }
+
+    /**
+     * 是否有尚未写入日志文件的数据（例如上次进程遗留的数据）
+     *
+     * @return
+     */
+    public boolean hasPending() {
+        return mapped.position() > HEADER_SIZE;
+    }
+
+    /**
+     * 记录缓冲区中第一条日志的时间，用于恢复时确定日志文件的日期
+     *
+     * @param timestamp
+     */
+    public void setTimestamp(long timestamp) {
+        mapped.putLong(TIMESTAMP_OFFSET, timestamp);
+    }
+
+    /**
+     * 获得缓冲区中第一条日志的时间，未记录时返回0
+     *
+     * @return
+     */
+    public long getTimestamp() {
+        return mapped.getLong(TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * 提交当前位置，之前写入的数据在进程被杀死后可以被恢复
+     * <p>
+     * 每写完一条完整的记录后调用，进程被杀死时最多丢失半条记录
+     */
+    public void commit() {
+        mapped.putInt(POSITION_OFFSET, mapped.position());
+    }
+}
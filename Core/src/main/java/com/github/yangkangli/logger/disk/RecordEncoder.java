@@ -0,0 +1,34 @@
+package com.github.yangkangli.logger.disk;
+
+/**
+ * 日志文件格式，负责把日志记录编码写入{@link LogFileWriter}
+ * <p>
+ * 只在写日志线程中调用
+ */
+public interface RecordEncoder {
+
+    /**
+     * 获得日志文件扩展名
+     *
+     * @return 如".log"
+     */
+    String getFileExtension();
+
+    /**
+     * 开始一个新的数据段，每次打开日志文件后、写入第一条记录前调用
+     * <p>
+     * 编码器应在此重置与文件内容相关的状态（如字典），并写入必要的段头
+     *
+     * @param writer
+     * @param timestamp 第一条记录的时间
+     */
+    void startSegment(LogFileWriter writer, long timestamp);
+
+    /**
+     * 编码一条日志记录
+     *
+     * @param record
+     * @param writer
+     */
+    void encode(DiskRecord record, LogFileWriter writer);
+}
@@ -0,0 +1,159 @@
+package com.github.yangkangli.logger.disk;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把任意Executor（如应用已有的线程池）包装为写日志线程：任务按提交顺序依次执行，同一时刻最多执行一个
+ * <p>
+ * 延迟任务由所有实例共用的一个定时线程在到时间后提交，该线程只负责转交任务
+ */
+public class SerialWriterExecutor implements WriterExecutor {
+
+    /**
+     * 共用的定时线程，第一次提交延迟任务时创建
+     */
+    private static ScheduledThreadPoolExecutor timer;
+
+    /**
+     * 实际执行任务的Executor
+     */
+    private final Executor executor;
+
+    /**
+     * 等待执行的任务
+     */
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+    /**
+     * 是否有任务正在执行或已提交给executor
+     */
+    private boolean active;
+
+    /**
+     * 正在执行任务的线程，没有执行任务时为null；executor的线程在任务之间可能执行其他代码，因此只在执行任务期间设置
+     */
+    private volatile Thread runningThread;
+
+    /**
+     * 依次执行任务，直到没有等待的任务
+     */
+    private final Runnable runner = new Runnable() {
+        @Override
+        public void run() {
+            runningThread = Thread.currentThread();
+            boolean finished = false;
+            try {
+                while (true) {
+                    Runnable task;
+                    synchronized (tasks) {
+                        task = tasks.poll();
+                        if (task == null) {
+                            active = false;
+                            finished = true;
+                            return;
+                        }
+                    }
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        // 不影响之后的任务
+                    }
+                }
+            } finally {
+                runningThread = null;
+                if (!finished) {
+                    // 任务抛出Error，重新提交剩余的任务，避免之后的任务永远不再执行
+                    restart();
+                }
+            }
+        }
+    };
+
+    /**
+     * 构造方法
+     *
+     * @param executor
+     */
+    public SerialWriterExecutor(Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException();
+        }
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (tasks) {
+            tasks.offer(task);
+            if (active) {
+                return;
+            }
+            active = true;
+        }
+        try {
+            executor.execute(runner);
+        } catch (RuntimeException e) {
+            synchronized (tasks) {
+                active = false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isInExecutor() {
+        return Thread.currentThread() == runningThread;
+    }
+
+    /**
+     * 执行任务时异常结束后调用：还有等待的任务时重新提交给executor
+     */
+    private void restart() {
+        synchronized (tasks) {
+            active = !tasks.isEmpty();
+            if (!active) {
+                return;
+            }
+        }
+        try {
+            executor.execute(runner);
+        } catch (RuntimeException e) {
+            synchronized (tasks) {
+                active = false;
+            }
+        }
+    }
+
+    @Override
+    public void executeDelayed(final Runnable task, long delayMillis) {
+        getTimer().schedule(new Runnable() {
+            @Override
+            public void run() {
+                execute(task);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获得共用的定时线程
+     *
+     * @return
+     */
+    private static synchronized ScheduledThreadPoolExecutor getTimer() {
+        if (timer == null) {
+            timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ALogger-WriterTimer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.core.LogLayout;
+import com.github.yangkangli.logger.utils.CachedDateFormat;
+import com.github.yangkangli.logger.utils.Utils;
+
+/**
+ * 文本日志格式，与控制台输出的排版相同，每行带有"时间 级别/Tag: "前缀
+ */
+public class TextRecordEncoder implements RecordEncoder {
+
+    /**
+     * 日志文件扩展名
+     */
+    public static final String FILE_EXTENSION = ".log";
+
+    /**
+     * 时间格式器，只在写日志线程中使用
+     */
+    private final CachedDateFormat dateFormat;
+
+    /**
+     * 每行日志的前缀（时间 级别/Tag: ），每条日志复用
+     */
+    private final StringBuilder commonInfo = new StringBuilder(64);
+
+    /**
+     * 日志排版器，只在写日志线程中使用
+     */
+    private final LogLayout layout = new LogLayout();
+
+    /**
+     * 构造方法
+     *
+     * @param formatPattern 日期时间格式化模式
+     */
+    public TextRecordEncoder(String formatPattern) {
+        this.dateFormat = new CachedDateFormat(formatPattern);
+    }
+
+    @Override
+    public String getFileExtension() {
+        return FILE_EXTENSION;
+    }
+
+    @Override
+    public void startSegment(LogFileWriter writer, long timestamp) {
+    }
+
+    @Override
+    public void encode(DiskRecord record, LogFileWriter writer) {
+        BaseLogStrategy strategy = record.getStrategy();
+        String subTag = record.getSubTag();
+
+        // 时间 级别/Tag:
+        StringBuilder commonInfo = this.commonInfo;
+        commonInfo.setLength(0);
+        dateFormat.formatTo(record.getTimestamp(), commonInfo);
+        commonInfo.append(' ')
+                .append(Utils.getLevelName(record.getPriority()))
+                .append('/')
+                .append(strategy.getFullTag(subTag))
+                .append(": ");
+
+        // 每行：前缀 + 排版好的行（包含结尾的'\n'）
+        layout.layout(strategy, subTag, record.getThreadName(), record.getStackLines(), record.getMessage());
+        char[] chars = layout.getChars();
+        for (int i = 0, n = layout.getLineCount(); i < n; i++) {
+            int start = layout.getLineStart(i);
+            writer.writeChars(commonInfo);
+            writer.writeChars(chars, start, layout.getLineEnd(i) + 1 - start);
+        }
+    }
+}
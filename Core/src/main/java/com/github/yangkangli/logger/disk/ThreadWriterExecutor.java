@@ -0,0 +1,63 @@
+package com.github.yangkangli.logger.disk;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于单个后台线程的写日志线程，不依赖Android，默认的实现
+ */
+public class ThreadWriterExecutor implements WriterExecutor {
+
+    /**
+     * 单线程的定时任务执行器
+     */
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * 执行任务的线程
+     */
+    private volatile Thread thread;
+
+    /**
+     * 构造方法
+     *
+     * @param threadName
+     */
+    public ThreadWriterExecutor(final String threadName) {
+        this.executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, threadName);
+                // 不阻止进程退出
+                thread.setDaemon(true);
+                ThreadWriterExecutor.this.thread = thread;
+                return thread;
+            }
+        });
+        // 关闭后不再执行尚未到时间的任务
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void executeDelayed(Runnable task, long delayMillis) {
+        executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean isInExecutor() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 执行完已提交的任务后结束线程，此后提交的任务会抛出RejectedExecutionException
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
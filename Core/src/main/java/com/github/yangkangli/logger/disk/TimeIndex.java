@@ -0,0 +1,227 @@
+package com.github.yangkangli.logger.disk;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 日志文件的稀疏时间索引（yyyy-MM-dd.log.idx），由{@link LogFileWriter}每隔若干条日志或字节追加一项
+ * <p>
+ * 文件格式：
+ * <pre>
+ * 文件头：'A' 'L' 'G' 'I' | 版本(1字节) | 标志(1字节) | 保留(2字节)
+ * 索引项：时间(8字节，大端) | 文件位置(8字节，大端)
+ * </pre>
+ * 索引项的时间是该位置的日志及之前所有日志的最大时间，因此随文件位置单调递增，可以二分查找；
+ * 文件位置是一条日志（二进制格式为一个数据段）的起始位置。按块压缩时文件位置是gzip成员的起始位置，
+ * 否则是未压缩数据中的位置（日志文件被压缩后需解压并跳过相应字节）。
+ * <p>
+ * 进程被杀死时最后一项可能不完整，读取时忽略
+ */
+public class TimeIndex {
+
+    /**
+     * 索引文件扩展名
+     */
+    public static final String FILE_EXTENSION = ".idx";
+
+    /**
+     * 文件头标识
+     */
+    static final byte[] MAGIC = {'A', 'L', 'G', 'I'};
+
+    /**
+     * 格式版本
+     */
+    static final int VERSION = 1;
+
+    /**
+     * 标志：文件位置是gzip成员的起始位置
+     */
+    static final int FLAG_BLOCK_OFFSETS = 0x01;
+
+    /**
+     * 文件头大小
+     */
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * 索引项大小
+     */
+    static final int ENTRY_SIZE = 16;
+
+    /**
+     * 索引项的时间
+     */
+    private final long[] timestamps;
+
+    /**
+     * 索引项的文件位置
+     */
+    private final long[] offsets;
+
+    /**
+     * 文件位置是否为gzip成员的起始位置
+     */
+    private final boolean blockOffsets;
+
+    /**
+     * 构造方法
+     *
+     * @param timestamps
+     * @param offsets
+     * @param blockOffsets
+     */
+    private TimeIndex(long[] timestamps, long[] offsets, boolean blockOffsets) {
+        this.timestamps = timestamps;
+        this.offsets = offsets;
+        this.blockOffsets = blockOffsets;
+    }
+
+    /**
+     * 获得日志文件对应的索引文件，日志文件压缩前后对应同一个索引文件
+     *
+     * @param logFile
+     * @return
+     */
+    public static File getIndexFile(File logFile) {
+        String name = logFile.getName();
+        if (name.endsWith(LogCompressor.GZIP_EXTENSION)) {
+            name = name.substring(0, name.length() - LogCompressor.GZIP_EXTENSION.length());
+        }
+        return new File(logFile.getParentFile(), name + FILE_EXTENSION);
+    }
+
+    /**
+     * 读取日志文件的时间索引
+     *
+     * @param logFile
+     * @return 没有索引或索引无效时返回null
+     */
+    public static TimeIndex read(File logFile) {
+        File indexFile = getIndexFile(logFile);
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try {
+            FileInputStream in = new FileInputStream(indexFile);
+            try {
+                FileChannel channel = in.getChannel();
+                long size = channel.size();
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    return null;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // 读取整个索引文件
+                }
+                buffer.flip();
+                int flags = readHeader(buffer);
+                if (flags < 0) {
+                    return null;
+                }
+                int count = buffer.remaining() / ENTRY_SIZE;
+                long[] timestamps = new long[count];
+                long[] offsets = new long[count];
+                for (int i = 0; i < count; i++) {
+                    timestamps[i] = buffer.getLong();
+                    offsets[i] = buffer.getLong();
+                }
+                return new TimeIndex(timestamps, offsets, (flags & FLAG_BLOCK_OFFSETS) != 0);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 读取并检查文件头
+     *
+     * @param buffer
+     * @return 标志，文件头无效时返回-1
+     */
+    static int readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return -1;
+        }
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                return -1;
+            }
+        }
+        if (buffer.get() != VERSION) {
+            return -1;
+        }
+        int flags = buffer.get() & 0xFF;
+        buffer.getShort();
+        return flags;
+    }
+
+    /**
+     * 获得读取时间范围的起始位置，该位置之前的日志都早于from
+     *
+     * @param from
+     * @return
+     */
+    public long findStart(long from) {
+        // 最后一个时间早于from的索引项
+        int index = search(from) - 1;
+        return index < 0 ? 0 : offsets[index];
+    }
+
+    /**
+     * 获得读取时间范围的结束位置，该位置之后的日志都晚于to，-1表示读到文件末尾
+     * <p>
+     * 日志按进入写日志队列的顺序写入，时间可能略微乱序，因此多读一个索引间隔
+     *
+     * @param to
+     * @return
+     */
+    public long findEnd(long to) {
+        // 第一个时间晚于to的索引项之后的下一项
+        int index = search(to + 1) + 1;
+        return index < offsets.length ? offsets[index] : -1;
+    }
+
+    /**
+     * 文件位置是否为gzip成员的起始位置
+     *
+     * @return
+     */
+    public boolean isBlockOffsets() {
+        return blockOffsets;
+    }
+
+    /**
+     * 获得索引项数量
+     *
+     * @return
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * 二分查找第一个时间不早于timestamp的索引项
+     *
+     * @param timestamp
+     * @return
+     */
+    private int search(long timestamp) {
+        int low = 0;
+        int high = timestamps.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.yangkangli.logger.disk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 时间索引写入器，以追加的方式写入{@link TimeIndex}格式的索引文件
+ * <p>
+ * 该类不是线程安全的，只能在写日志线程中使用。
+ */
+class TimeIndexWriter {
+
+    /**
+     * 索引文件
+     */
+    private final RandomAccessFile file;
+
+    /**
+     * 索引文件的FileChannel
+     */
+    private final FileChannel channel;
+
+    /**
+     * 待写入的索引项，每次写入日志文件后一起写入
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(TimeIndex.ENTRY_SIZE * 8);
+
+    /**
+     * 构造方法，索引文件已存在时继续追加，去掉末尾不完整的索引项；文件头不匹配时重新开始
+     *
+     * @param logFile
+     * @param blockOffsets 文件位置是否为gzip成员的起始位置
+     * @throws IOException
+     */
+    TimeIndexWriter(File logFile, boolean blockOffsets) throws IOException {
+        int flags = blockOffsets ? TimeIndex.FLAG_BLOCK_OFFSETS : 0;
+        this.file = new RandomAccessFile(TimeIndex.getIndexFile(logFile), "rw");
+        this.channel = file.getChannel();
+        try {
+            long size = channel.size();
+            if (size >= TimeIndex.HEADER_SIZE && readFlags() == flags) {
+                long whole = size - (size - TimeIndex.HEADER_SIZE) % TimeIndex.ENTRY_SIZE;
+                if (whole != size) {
+                    channel.truncate(whole);
+                }
+                channel.position(whole);
+            } else {
+                channel.truncate(0);
+                channel.position(0);
+                ByteBuffer header = ByteBuffer.allocate(TimeIndex.HEADER_SIZE);
+                header.put(TimeIndex.MAGIC).put((byte) TimeIndex.VERSION).put((byte) flags).putShort((short) 0);
+                header.flip();
+                writeFully(header);
+            }
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 添加一个索引项，调用{@link #commit()}后写入文件
+     *
+     * @param timestamp
+     * @param offset
+     */
+    void add(long timestamp, long offset) {
+        if (buffer.remaining() < TimeIndex.ENTRY_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        buffer.putLong(timestamp).putLong(offset);
+    }
+
+    /**
+     * 将添加的索引项写入文件
+     *
+     * @throws IOException
+     */
+    void commit() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            writeFully(buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 关闭索引文件
+     */
+    void close() {
+        try {
+            file.close();
+        } catch (IOException e) { /* fail silently */ }
+    }
+
+    /**
+     * 读取已有索引文件的标志
+     *
+     * @return 文件头无效时返回-1
+     * @throws IOException
+     */
+    private int readFlags() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(TimeIndex.HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // 读取文件头
+        }
+        header.flip();
+        return TimeIndex.readHeader(header);
+    }
+
+    /**
+     * 写入data中剩余的全部数据
+     *
+     * @param data
+     * @throws IOException
+     */
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.yangkangli.logger.disk;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 写日志线程，DiskAdapter的排版、编码与文件写入都在其中串行执行
+ * <p>
+ * 实现必须保证任务按提交顺序依次执行，同一时刻最多执行一个，Android上可使用基于Handler的实现
+ */
+public interface WriterExecutor extends Executor {
+
+    /**
+     * 延迟执行任务
+     *
+     * @param task
+     * @param delayMillis 延迟时间（毫秒）
+     */
+    void executeDelayed(Runnable task, long delayMillis);
+
+    /**
+     * 当前线程是否在写日志线程中，即当前执行的代码不会与任务同时执行
+     *
+     * @return
+     */
+    boolean isInExecutor();
+}
@@ -0,0 +1,43 @@
+package com.github.yangkangli.logger.strategy;
+
+import com.github.yangkangli.logger.core.AsyncDispatcher;
+import com.github.yangkangli.logger.core.WaitStrategy;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 阻塞等待策略
+ * <p>
+ * 消费者线程空闲时挂起，不占用CPU；生产者只在消费者挂起时才需要唤醒它（一次volatile读）
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+
+    /**
+     * 正在挂起等待的消费者线程
+     */
+    private volatile Thread waiter;
+
+    @Override
+    public void waitFor(AsyncDispatcher dispatcher, int idleCount) throws InterruptedException {
+        waiter = Thread.currentThread();
+        try {
+            // 先登记等待者再检查缓冲区，避免丢失生产者的唤醒
+            while (!dispatcher.hasPending() && !dispatcher.isShutdown()) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    @Override
+    public void signal() {
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.yangkangli.logger.strategy;
+
+import com.github.yangkangli.logger.core.AsyncDispatcher;
+import com.github.yangkangli.logger.core.WaitStrategy;
+
+/**
+ * 忙等待策略
+ * <p>
+ * 延迟最低，但会一直占用一个CPU核心，只适合压测等特殊场景
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void waitFor(AsyncDispatcher dispatcher, int idleCount) {
+    }
+
+    @Override
+    public void signal() {
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.yangkangli.logger.strategy;
+
+import com.github.yangkangli.logger.core.AsyncDispatcher;
+import com.github.yangkangli.logger.core.WaitStrategy;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 先自旋，再让出CPU，最后短暂休眠的等待策略
+ * <p>
+ * 生产者发布事件时不需要唤醒消费者，调用开销最低，空闲时CPU占用也较低，适合作为默认策略
+ */
+public class SleepingWaitStrategy implements WaitStrategy {
+
+    /**
+     * 自旋次数
+     */
+    private static final int SPIN_TRIES = 100;
+
+    /**
+     * 让出CPU的次数
+     */
+    private static final int YIELD_TRIES = 100;
+
+    /**
+     * 默认的休眠时间（纳秒）
+     */
+    private static final long DEFAULT_SLEEP_NANOS = 1000000L;
+
+    /**
+     * 休眠时间（纳秒）
+     */
+    private final long sleepNanos;
+
+    /**
+     * 构造方法
+     */
+    public SleepingWaitStrategy() {
+        this(DEFAULT_SLEEP_NANOS);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param sleepNanos 每次休眠的时间（纳秒）
+     */
+    public SleepingWaitStrategy(long sleepNanos) {
+        this.sleepNanos = sleepNanos;
+    }
+
+    @Override
+    public void waitFor(AsyncDispatcher dispatcher, int idleCount) {
+        if (idleCount < SPIN_TRIES) {
+            return;
+        }
+        if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+            return;
+        }
+        LockSupport.parkNanos(sleepNanos);
+    }
+
+    @Override
+    public void signal() {
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.yangkangli.logger.strategy;
+
+import com.github.yangkangli.logger.core.AsyncDispatcher;
+import com.github.yangkangli.logger.core.WaitStrategy;
+
+/**
+ * 先自旋，再不断让出CPU的等待策略
+ * <p>
+ * 延迟较低，但消费者线程空闲时仍会占用CPU
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    /**
+     * 自旋次数
+     */
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public void waitFor(AsyncDispatcher dispatcher, int idleCount) {
+        if (idleCount >= SPIN_TRIES) {
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public void signal() {
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.yangkangli.logger.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * 带缓存的时间格式器
+ * <p>
+ * 每秒只调用一次SimpleDateFormat，得到该秒的日期时间文本并定位其中的毫秒字段（如"SSS"），
+ * 同一秒内的时间只需把毫秒数字写入缓存的字符数组，不产生任何对象。
+ * 模式中没有毫秒字段时整秒复用同一文本；无法定位毫秒字段时（如单独的"S"），退化为按时间戳缓存。
+ * <p>
+ * 该类不是线程安全的，每个写日志线程应持有自己的实例。
+ */
+public class CachedDateFormat {
+
+    /**
+     * 模式中没有毫秒字段
+     */
+    private static final int MILLIS_NONE = -1;
+
+    /**
+     * 无法定位毫秒字段
+     */
+    private static final int MILLIS_UNKNOWN = -2;
+
+    /**
+     * 用于定位毫秒字段的探测值
+     */
+    private static final int PROBE_MILLIS = 987;
+
+    /**
+     * 时间格式器
+     */
+    private final SimpleDateFormat format;
+
+    /**
+     * 缓存的日期时间文本
+     */
+    private char[] chars = new char[0];
+
+    /**
+     * 缓存的日期时间文本长度
+     */
+    private int length;
+
+    /**
+     * 缓存对应的秒
+     */
+    private long cachedSecond = Long.MIN_VALUE;
+
+    /**
+     * 缓存文本对应的时间戳
+     */
+    private long cachedTimestamp = Long.MIN_VALUE;
+
+    /**
+     * 毫秒字段（3位数字）在文本中的位置
+     */
+    private int millisOffset = MILLIS_UNKNOWN;
+
+    /**
+     * 最近一次{@link #format(long)}返回的字符串
+     */
+    private String cachedString;
+
+    /**
+     * cachedString对应的时间戳
+     */
+    private long cachedStringTimestamp = Long.MIN_VALUE;
+
+    /**
+     * 构造方法
+     *
+     * @param pattern 日期时间格式化模式
+     */
+    public CachedDateFormat(String pattern) {
+        this.format = new SimpleDateFormat(pattern);
+    }
+
+    /**
+     * 把时间格式化后追加到builder中
+     *
+     * @param timestamp
+     * @param builder
+     */
+    public void formatTo(long timestamp, StringBuilder builder) {
+        update(timestamp);
+        builder.append(chars, 0, length);
+    }
+
+    /**
+     * 格式化时间，与上一次的时间相同时返回同一个字符串
+     *
+     * @param timestamp
+     * @return
+     */
+    public String format(long timestamp) {
+        if (timestamp != cachedStringTimestamp || cachedString == null) {
+            update(timestamp);
+            cachedString = new String(chars, 0, length);
+            cachedStringTimestamp = timestamp;
+        }
+        return cachedString;
+    }
+
+    /**
+     * 更新缓存的日期时间文本
+     *
+     * @param timestamp
+     */
+    private void update(long timestamp) {
+        if (timestamp == cachedTimestamp) {
+            return;
+        }
+        long second = timestamp / 1000;
+        int millis = (int) (timestamp % 1000);
+        if (millis < 0) {
+            second--;
+            millis += 1000;
+        }
+
+        if (second != cachedSecond) {
+            long secondStart = second * 1000;
+            String base = format.format(new Date(secondStart));
+            millisOffset = findMillisOffset(base, format.format(new Date(secondStart + PROBE_MILLIS)));
+            setChars(base);
+            cachedSecond = second;
+            cachedTimestamp = secondStart;
+        }
+
+        if (millisOffset >= 0) {
+            chars[millisOffset] = (char) ('0' + millis / 100);
+            chars[millisOffset + 1] = (char) ('0' + millis / 10 % 10);
+            chars[millisOffset + 2] = (char) ('0' + millis % 10);
+        } else if (millisOffset == MILLIS_UNKNOWN && timestamp != cachedTimestamp) {
+            setChars(format.format(new Date(timestamp)));
+        }
+        cachedTimestamp = timestamp;
+    }
+
+    /**
+     * 缓存日期时间文本
+     *
+     * @param text
+     */
+    private void setChars(String text) {
+        if (chars.length < text.length()) {
+            chars = new char[text.length()];
+        }
+        text.getChars(0, text.length(), chars, 0);
+        length = text.length();
+    }
+
+    /**
+     * 比较同一秒内毫秒数为0和{@link #PROBE_MILLIS}时的文本，定位毫秒字段
+     *
+     * @param base
+     * @param probe
+     * @return
+     */
+    private static int findMillisOffset(String base, String probe) {
+        if (base.equals(probe)) {
+            return MILLIS_NONE;
+        }
+        if (base.length() != probe.length()) {
+            return MILLIS_UNKNOWN;
+        }
+        int offset = 0;
+        while (base.charAt(offset) == probe.charAt(offset)) {
+            offset++;
+        }
+        if (offset + 3 > base.length()
+                || !base.regionMatches(offset, "000", 0, 3)
+                || !probe.regionMatches(offset, String.valueOf(PROBE_MILLIS), 0, 3)
+                || !base.regionMatches(offset + 3, probe, offset + 3, base.length() - offset - 3)) {
+            return MILLIS_UNKNOWN;
+        }
+        return offset;
+    }
+}
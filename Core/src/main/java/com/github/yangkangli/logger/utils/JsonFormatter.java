@@ -0,0 +1,430 @@
+package com.github.yangkangli.logger.utils;
+
+/**
+ * 流式JSON格式化
+ * <p>
+ * 逐个字符扫描JSON，在词法层面重新缩进（或去掉所有空白），直接写入输出缓冲区，不构造JSONObject/JSONArray，
+ * 也不改变键的顺序与字符串的转义。扫描的同时校验JSON语法，顶层必须是对象或数组。
+ * 输出超过最大长度时截断，但仍会扫描完整个输入以校验语法。
+ */
+public final class JsonFormatter {
+
+    /**
+     * 期望值（对象的值、数组的后续元素）
+     */
+    private static final int EXPECT_VALUE = 0;
+
+    /**
+     * 期望值或']'（数组的第一个元素）
+     */
+    private static final int EXPECT_VALUE_OR_CLOSE = 1;
+
+    /**
+     * 期望键（对象的后续键）
+     */
+    private static final int EXPECT_KEY = 2;
+
+    /**
+     * 期望键或'}'（对象的第一个键）
+     */
+    private static final int EXPECT_KEY_OR_CLOSE = 3;
+
+    /**
+     * 期望':'
+     */
+    private static final int EXPECT_COLON = 4;
+
+    /**
+     * 期望','或结束符
+     */
+    private static final int EXPECT_COMMA_OR_CLOSE = 5;
+
+    /**
+     * 顶层值已结束
+     */
+    private static final int DONE = 6;
+
+    /**
+     * 输入
+     */
+    private final String json;
+
+    /**
+     * 输出
+     */
+    private final StringBuilder out;
+
+    /**
+     * 每一级的缩进空格数，去掉空白时为-1
+     */
+    private final int indent;
+
+    /**
+     * 输出的最大长度（在out中的结束位置）
+     */
+    private final int limit;
+
+    /**
+     * 输出是否已被截断
+     */
+    private boolean truncated;
+
+    /**
+     * 未闭合的容器的结束符
+     */
+    private char[] stack = new char[16];
+
+    /**
+     * 嵌套深度
+     */
+    private int depth;
+
+    /**
+     * 构造方法
+     *
+     * @param json
+     * @param out
+     * @param indent
+     * @param maxLength
+     */
+    private JsonFormatter(String json, StringBuilder out, int indent, int maxLength) {
+        this.json = json;
+        this.out = out;
+        this.indent = indent;
+        this.limit = maxLength > 0 ? out.length() + maxLength : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 格式化JSON并追加到out
+     *
+     * @param json
+     * @param indent    每一级的缩进空格数
+     * @param minify    是否去掉所有空白，为true时忽略indent
+     * @param maxLength 输出的最大长度，0表示不限制；超过时截断并注明原始长度
+     * @param out
+     * @return JSON是否合法；不合法时out中的内容不完整
+     */
+    public static boolean format(String json, int indent, boolean minify, int maxLength, StringBuilder out) {
+        return new JsonFormatter(json, out, minify ? -1 : Math.max(indent, 0), maxLength).format();
+    }
+
+    /**
+     * 扫描整个输入
+     *
+     * @return
+     */
+    private boolean format() {
+        int length = json.length();
+        int state = EXPECT_VALUE;
+        int i = 0;
+        while (i < length) {
+            char c = json.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                i++;
+                continue;
+            }
+            switch (state) {
+                case EXPECT_VALUE:
+                case EXPECT_VALUE_OR_CLOSE:
+                    if (c == ']' && state == EXPECT_VALUE_OR_CLOSE) {
+                        if (!close(c, true)) {
+                            return false;
+                        }
+                        state = afterValue();
+                        i++;
+                        break;
+                    }
+                    if (depth == 0 && c != '{' && c != '[') {
+                        return false;
+                    }
+                    if (state == EXPECT_VALUE_OR_CLOSE) {
+                        newline();
+                    }
+                    if (c == '{' || c == '[') {
+                        open(c);
+                        state = c == '{' ? EXPECT_KEY_OR_CLOSE : EXPECT_VALUE_OR_CLOSE;
+                        i++;
+                    } else if (c == '"') {
+                        i = string(i);
+                        state = afterValue();
+                    } else {
+                        i = literal(i);
+                        state = afterValue();
+                    }
+                    break;
+                case EXPECT_KEY:
+                case EXPECT_KEY_OR_CLOSE:
+                    if (c == '}' && state == EXPECT_KEY_OR_CLOSE) {
+                        if (!close(c, true)) {
+                            return false;
+                        }
+                        state = afterValue();
+                        i++;
+                    } else if (c == '"') {
+                        if (state == EXPECT_KEY_OR_CLOSE) {
+                            newline();
+                        }
+                        i = string(i);
+                        state = EXPECT_COLON;
+                    } else {
+                        return false;
+                    }
+                    break;
+                case EXPECT_COLON:
+                    if (c != ':') {
+                        return false;
+                    }
+                    write(':');
+                    if (indent >= 0) {
+                        write(' ');
+                    }
+                    state = EXPECT_VALUE;
+                    i++;
+                    break;
+                case EXPECT_COMMA_OR_CLOSE:
+                    if (c == ',') {
+                        write(',');
+                        newline();
+                        state = stack[depth - 1] == '}' ? EXPECT_KEY : EXPECT_VALUE;
+                    } else if (c == '}' || c == ']') {
+                        if (!close(c, false)) {
+                            return false;
+                        }
+                        state = afterValue();
+                    } else {
+                        return false;
+                    }
+                    i++;
+                    break;
+                default:
+                    // 顶层值之后只允许空白
+                    return false;
+            }
+            if (i < 0) {
+                return false;
+            }
+        }
+        if (state != DONE) {
+            return false;
+        }
+        if (truncated) {
+            out.append("\n... (truncated, ").append(length).append(" chars in total)");
+        }
+        return true;
+    }
+
+    /**
+     * 一个值结束后的状态
+     *
+     * @return
+     */
+    private int afterValue() {
+        return depth == 0 ? DONE : EXPECT_COMMA_OR_CLOSE;
+    }
+
+    /**
+     * 开始一个对象或数组
+     *
+     * @param c
+     */
+    private void open(char c) {
+        if (depth == stack.length) {
+            char[] newStack = new char[depth * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+        stack[depth++] = c == '{' ? '}' : ']';
+        write(c);
+    }
+
+    /**
+     * 结束一个对象或数组
+     *
+     * @param c
+     * @param empty 是否为空的对象或数组，为空时不换行
+     * @return 是否与未闭合的容器匹配
+     */
+    private boolean close(char c, boolean empty) {
+        if (depth == 0 || stack[depth - 1] != c) {
+            return false;
+        }
+        depth--;
+        if (!empty) {
+            newline();
+        }
+        write(c);
+        return true;
+    }
+
+    /**
+     * 复制一个字符串（包括引号），并校验转义
+     *
+     * @param start 起始引号的位置
+     * @return 字符串之后的位置，不合法时返回-1
+     */
+    private int string(int start) {
+        int length = json.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                write(start, i + 1);
+                return i + 1;
+            } else if (c == '\\') {
+                if (i + 1 >= length) {
+                    return -1;
+                }
+                char escaped = json.charAt(i + 1);
+                if (escaped == 'u') {
+                    if (i + 5 >= length) {
+                        return -1;
+                    }
+                    for (int j = i + 2; j < i + 6; j++) {
+                        if (Character.digit(json.charAt(j), 16) < 0) {
+                            return -1;
+                        }
+                    }
+                    i += 6;
+                } else if ("\"\\/bfnrt".indexOf(escaped) >= 0) {
+                    i += 2;
+                } else {
+                    return -1;
+                }
+            } else if (c < 0x20) {
+                return -1;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 复制一个数字、true、false或null
+     *
+     * @param start
+     * @return 之后的位置，不合法时返回-1
+     */
+    private int literal(int start) {
+        int length = json.length();
+        int end = start;
+        while (end < length) {
+            char c = json.charAt(end);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '+' || c == '.') {
+                end++;
+            } else {
+                break;
+            }
+        }
+        int count = end - start;
+        boolean keyword = (count == 4 && (json.startsWith("true", start) || json.startsWith("null", start)))
+                || (count == 5 && json.startsWith("false", start));
+        if (!keyword && !isNumber(start, end)) {
+            return -1;
+        }
+        write(start, end);
+        return end;
+    }
+
+    /**
+     * 是否为合法的数字：-?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+     *
+     * @param start
+     * @param end
+     * @return
+     */
+    private boolean isNumber(int start, int end) {
+        int i = start;
+        if (i < end && json.charAt(i) == '-') {
+            i++;
+        }
+        if (i >= end) {
+            return false;
+        }
+        if (json.charAt(i) == '0') {
+            i++;
+        } else {
+            int digits = skipDigits(i, end);
+            if (digits == i) {
+                return false;
+            }
+            i = digits;
+        }
+        if (i < end && json.charAt(i) == '.') {
+            int digits = skipDigits(i + 1, end);
+            if (digits == i + 1) {
+                return false;
+            }
+            i = digits;
+        }
+        if (i < end && (json.charAt(i) == 'e' || json.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (json.charAt(i) == '+' || json.charAt(i) == '-')) {
+                i++;
+            }
+            int digits = skipDigits(i, end);
+            if (digits == i) {
+                return false;
+            }
+            i = digits;
+        }
+        return i == end;
+    }
+
+    /**
+     * 跳过数字
+     *
+     * @param start
+     * @param end
+     * @return 第一个非数字字符的位置
+     */
+    private int skipDigits(int start, int end) {
+        int i = start;
+        while (i < end && json.charAt(i) >= '0' && json.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 换行并缩进到当前深度，去掉空白时不输出
+     */
+    private void newline() {
+        if (indent < 0) {
+            return;
+        }
+        write('\n');
+        for (int i = depth * indent; i > 0 && !truncated; i--) {
+            write(' ');
+        }
+    }
+
+    /**
+     * 输出一个字符
+     *
+     * @param c
+     */
+    private void write(char c) {
+        if (out.length() < limit) {
+            out.append(c);
+        } else {
+            truncated = true;
+        }
+    }
+
+    /**
+     * 输出输入中的一段
+     *
+     * @param start
+     * @param end
+     */
+    private void write(int start, int end) {
+        int room = limit - out.length();
+        if (end - start > room) {
+            end = start + Math.max(room, 0);
+            truncated = true;
+        }
+        out.append(json, start, end);
+    }
+}
@@ -1,21 +1,20 @@
 package com.github.yangkangli.logger.utils;
 
-import android.text.TextUtils;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.github.yangkangli.logger.ALogger;
-
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.UnknownHostException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 public class Utils {
 
+    /**
+     * 日志模板中的占位符
+     */
+    private static final String TEMPLATE_PLACEHOLDER = "{}";
+
     /**
      * 检查对象是否为null，若为null，则抛出NullPointerException异常
      *
@@ -31,6 +30,16 @@ public class Utils {
         return obj;
     }
 
+    /**
+     * 判断字符串是否为null或空字符串
+     *
+     * @param str
+     * @return
+     */
+    public static boolean isEmpty(@Nullable CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+
     public static String getStackTraceString(Throwable tr) {
         if (tr == null) {
             return "";
@@ -62,13 +71,7 @@ public class Utils {
      * @return
      */
     public static String getTopBorder(String subTag, int maxLength, int linkerLength) {
-        StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(Constant.TOP_CORNER);
-        int tagLength = TextUtils.isEmpty(subTag) ? 0 : (subTag.length() + linkerLength);
-        while (stringBuilder.length() + tagLength < maxLength) {
-            stringBuilder.append(Constant.REAL_LINE_DIVIDER);
-        }
-        return stringBuilder.toString();
+        return getBorder(Constant.TOP_CORNER, Constant.REAL_LINE_DIVIDER, getTagLength(subTag, linkerLength), maxLength);
     }
 
     /**
@@ -80,13 +83,7 @@ public class Utils {
      * @return
      */
     public static String getDivider(String subTag, int maxLength, int linkerLength) {
-        StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(Constant.MIDDLE_CORNER);
-        int tagLength = TextUtils.isEmpty(subTag) ? 0 : (subTag.length() + linkerLength);
-        while (stringBuilder.length() + tagLength < maxLength) {
-            stringBuilder.append(Constant.DASH_LINE_DIVIDER);
-        }
-        return stringBuilder.toString();
+        return getBorder(Constant.MIDDLE_CORNER, Constant.DASH_LINE_DIVIDER, getTagLength(subTag, linkerLength), maxLength);
     }
 
     /**
@@ -98,43 +95,37 @@ public class Utils {
      * @return
      */
     public static String getBottomBorder(String subTag, int maxLength, int linkerLength) {
-        StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(Constant.BOTTOM_CORNER);
-        int tagLength = TextUtils.isEmpty(subTag) ? 0 : (subTag.length() + linkerLength);
-        while (stringBuilder.length() + tagLength < maxLength) {
-            stringBuilder.append(Constant.REAL_LINE_DIVIDER);
-        }
-        return stringBuilder.toString();
+        return getBorder(Constant.BOTTOM_CORNER, Constant.REAL_LINE_DIVIDER, getTagLength(subTag, linkerLength), maxLength);
     }
 
 
     /**
-     * 获得调用堆栈列表
+     * 获得边线占用的Tag长度，即SubTag与连接字符串的总长度，没有SubTag时为0
      *
-     * @param elements
-     * @param methodCount
+     * @param subTag
+     * @param linkerLength
      * @return
      */
-    public static List<StackTraceElement> getTraceList(StackTraceElement[] elements, int methodCount) {
-        int count = 0;
-        boolean found = false;
-        List<StackTraceElement> retList = new ArrayList();
-        for (int i = 0; i < elements.length; i++) {
-            StackTraceElement element = elements[i];
-            String className = element.getClassName();
-            if (ALogger.class.getName().equals(className)) {
-                found = true;
-                continue;
-            }
-            if (found) {
-                retList.add(element);
-                count += 1;
-            }
-            if (count >= methodCount) {
-                break;
-            }
+    public static int getTagLength(String subTag, int linkerLength) {
+        return subTag == null || subTag.length() == 0 ? 0 : (subTag.length() + linkerLength);
+    }
+
+    /**
+     * 生成边线，边线与Tag的总长度不超过maxLength
+     *
+     * @param corner    起始字符
+     * @param fill      填充字符
+     * @param tagLength
+     * @param maxLength
+     * @return
+     */
+    public static String getBorder(String corner, String fill, int tagLength, int maxLength) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(corner);
+        while (stringBuilder.length() + tagLength < maxLength) {
+            stringBuilder.append(fill);
         }
-        return retList;
+        return stringBuilder.toString();
     }
 
     /**
@@ -188,6 +179,55 @@ public class Utils {
     }
 
 
+    /**
+     * 将模板中的"{}"依次替换为参数
+     * <p>
+     * 参数不足时保留多余的"{}"，参数多余时忽略
+     *
+     * @param template
+     * @param args
+     * @return
+     */
+    public static String formatTemplate(String template, Object[] args) {
+        if (template == null || args == null || args.length == 0) {
+            return template;
+        }
+        StringBuilder builder = new StringBuilder(template.length() + 16 * args.length);
+        int start = 0;
+        int argIndex = 0;
+        while (argIndex < args.length) {
+            int index = template.indexOf(TEMPLATE_PLACEHOLDER, start);
+            if (index < 0) {
+                break;
+            }
+            builder.append(template, start, index).append(toString(args[argIndex++]));
+            start = index + TEMPLATE_PLACEHOLDER.length();
+        }
+        builder.append(template, start, template.length());
+        return builder.toString();
+    }
+
+    /**
+     * 获得模板参数中作为异常打印的Throwable：最后一个参数是Throwable，且没有对应的"{}"
+     *
+     * @param template
+     * @param args
+     * @return
+     */
+    @Nullable
+    public static Throwable getTemplateThrowable(String template, Object[] args) {
+        if (template == null || args == null || args.length == 0 || !(args[args.length - 1] instanceof Throwable)) {
+            return null;
+        }
+        int placeholders = 0;
+        int index = template.indexOf(TEMPLATE_PLACEHOLDER);
+        while (index >= 0 && placeholders < args.length) {
+            placeholders++;
+            index = template.indexOf(TEMPLATE_PLACEHOLDER, index + TEMPLATE_PLACEHOLDER.length());
+        }
+        return placeholders < args.length ? (Throwable) args[args.length - 1] : null;
+    }
+
     /**
      * Object转String
      *
@@ -0,0 +1,218 @@
+package com.github.yangkangli.logger.utils;
+
+import java.io.StringReader;
+import java.io.Writer;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+/**
+ * XML格式化
+ * <p>
+ * 使用缩进的恒等变换重新排版XML。TransformerFactory与SAXParserFactory只查找一次，
+ * Transformer与XMLReader按线程缓存复用，变换结果直接写入输出缓冲区。
+ * 输入超过最大长度时不解析，直接截断输出原文。
+ */
+public final class XmlFormatter {
+
+    /**
+     * 缩进空格数
+     */
+    private static final String INDENT_AMOUNT = "2";
+
+    /**
+     * TransformerFactory，非线程安全，创建Transformer时加锁
+     */
+    private static TransformerFactory sTransformerFactory;
+
+    /**
+     * SAXParserFactory，非线程安全，创建XMLReader时加锁
+     */
+    private static SAXParserFactory sParserFactory;
+
+    /**
+     * 每个线程缓存的Transformer
+     */
+    private static final ThreadLocal<Transformer> TRANSFORMERS = new ThreadLocal<>();
+
+    /**
+     * 每个线程缓存的XMLReader
+     */
+    private static final ThreadLocal<XMLReader> READERS = new ThreadLocal<>();
+
+    /**
+     * 解析出错时抛出异常，不打印到标准错误输出
+     */
+    private static final ErrorHandler ERROR_HANDLER = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException exception) {
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            throw exception;
+        }
+    };
+
+    private XmlFormatter() {
+    }
+
+    /**
+     * 格式化XML并追加到out
+     *
+     * @param xml
+     * @param maxLength 输入与输出的最大长度，0表示不限制；超过时截断并注明原始长度
+     * @param out
+     * @return XML是否合法；不合法时out中的内容不完整
+     */
+    public static boolean format(String xml, int maxLength, StringBuilder out) {
+        if (maxLength > 0 && xml.length() > maxLength) {
+            // 超长的输入不解析，避免在调用线程中长时间变换
+            out.append(xml, 0, maxLength);
+            appendTruncated(out, xml.length());
+            return true;
+        }
+
+        int start = out.length();
+        LimitedWriter writer = new LimitedWriter(out, maxLength > 0 ? start + maxLength : Integer.MAX_VALUE);
+        try {
+            SAXSource source = new SAXSource(getReader(), new InputSource(new StringReader(xml)));
+            getTransformer().transform(source, new StreamResult(writer));
+        } catch (TransformerException | SAXException | ParserConfigurationException e) {
+            // 出错后Transformer与XMLReader的状态不确定，不再复用
+            TRANSFORMERS.remove();
+            READERS.remove();
+            return false;
+        }
+
+        // XML声明之后换行
+        if (out.length() > start + 1 && out.charAt(start) == '<' && out.charAt(start + 1) == '?') {
+            int end = out.indexOf("?>", start);
+            if (end >= 0 && end + 2 < out.length() && out.charAt(end + 2) != '\n') {
+                out.insert(end + 2, '\n');
+            }
+        }
+        if (writer.truncated) {
+            appendTruncated(out, xml.length());
+        }
+        return true;
+    }
+
+    /**
+     * 获得当前线程的Transformer
+     *
+     * @return
+     * @throws TransformerConfigurationException
+     */
+    private static Transformer getTransformer() throws TransformerConfigurationException {
+        Transformer transformer = TRANSFORMERS.get();
+        if (transformer == null) {
+            synchronized (XmlFormatter.class) {
+                if (sTransformerFactory == null) {
+                    sTransformerFactory = TransformerFactory.newInstance();
+                }
+                transformer = sTransformerFactory.newTransformer();
+            }
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", INDENT_AMOUNT);
+            TRANSFORMERS.set(transformer);
+        }
+        return transformer;
+    }
+
+    /**
+     * 获得当前线程的XMLReader
+     *
+     * @return
+     * @throws SAXException
+     * @throws ParserConfigurationException
+     */
+    private static XMLReader getReader() throws SAXException, ParserConfigurationException {
+        XMLReader reader = READERS.get();
+        if (reader == null) {
+            synchronized (XmlFormatter.class) {
+                if (sParserFactory == null) {
+                    sParserFactory = SAXParserFactory.newInstance();
+                    sParserFactory.setNamespaceAware(true);
+                }
+                reader = sParserFactory.newSAXParser().getXMLReader();
+            }
+            reader.setErrorHandler(ERROR_HANDLER);
+            READERS.set(reader);
+        }
+        return reader;
+    }
+
+    /**
+     * 注明截断
+     *
+     * @param out
+     * @param length 原始长度
+     */
+    private static void appendTruncated(StringBuilder out, int length) {
+        out.append("\n... (truncated, ").append(length).append(" chars in total)");
+    }
+
+    /**
+     * 写入StringBuilder的Writer，超过最大长度后丢弃
+     */
+    private static class LimitedWriter extends Writer {
+
+        private final StringBuilder out;
+
+        private final int limit;
+
+        private boolean truncated;
+
+        LimitedWriter(StringBuilder out, int limit) {
+            this.out = out;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int count) {
+            int room = limit - out.length();
+            if (count > room) {
+                count = Math.max(room, 0);
+                truncated = true;
+            }
+            out.append(buffer, offset, count);
+        }
+
+        @Override
+        public void write(String str, int offset, int count) {
+            int room = limit - out.length();
+            if (count > room) {
+                count = Math.max(room, 0);
+                truncated = true;
+            }
+            out.append(str, offset, offset + count);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
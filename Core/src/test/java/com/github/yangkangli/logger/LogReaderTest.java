@@ -0,0 +1,160 @@
+package com.github.yangkangli.logger;
+
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.disk.DiskRecord;
+import com.github.yangkangli.logger.disk.LogFileWriter;
+import com.github.yangkangli.logger.disk.TextRecordEncoder;
+import com.github.yangkangli.logger.strategy.DefaultLogStrategy;
+import com.github.yangkangli.logger.utils.Constant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LogReader的本地单元测试
+ */
+public class LogReaderTest {
+
+    private final BaseLogStrategy strategy = new DefaultLogStrategy.Builder().setBordermaxLength(20).build();
+
+    private long start;
+
+    private File folder;
+
+    private File logFile;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = TestFiles.createTempFolder();
+        logFile = new File(folder, "2024-01-01.log");
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2024, Calendar.JANUARY, 1, 10, 0, 0);
+        start = calendar.getTimeInMillis();
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(folder);
+    }
+
+    @Test
+    public void next_decodesEveryField() throws IOException {
+        write(record(0, Constant.WARN, "Net", "worker", "first line\nsecond line"));
+
+        LogReader reader = new LogReader.Builder().setLogFile(logFile).build();
+        LogReader.Record record = reader.next();
+        assertEquals(start, record.getTimestamp());
+        assertEquals(Constant.WARN, record.getPriority());
+        assertEquals(strategy.getFullTag("Net"), record.getTag());
+        assertEquals("worker", record.getThreadName());
+        assertEquals("first line\nsecond line", record.getMessage());
+        assertTrue(record.getText().contains("| second line"));
+        assertEquals(null, reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void filters_matchOnRawBytes() throws IOException {
+        write(record(0, Constant.INFO, "Net", "main", "m0 connect ok"),
+                record(1, Constant.WARN, "Net", "worker", "m1 connect timeout"),
+                record(2, Constant.ERROR, "Db", "worker", "m2 query timeout"),
+                record(3, Constant.DEBUG, "SubNet", "main", "m3 timeout"),
+                record(4, Constant.INFO, null, "worker-2", "m4 timeout"),
+                record(5, Constant.WARN, "Net", "main", "m5 超时"));
+
+        assertMessages(new LogReader.Builder(), "m0", "m1", "m2", "m3", "m4", "m5");
+        // 整个Tag相同才匹配，以SubTag结尾的其他Tag与基础Tag都不匹配
+        assertMessages(new LogReader.Builder().setSubTag("Net"), "m0", "m1", "m5");
+        // 线程名称完整匹配
+        assertMessages(new LogReader.Builder().setThreadName("worker"), "m1", "m2");
+        assertMessages(new LogReader.Builder().setThreadName("work"));
+        // 关键字在UTF-8字节上匹配
+        assertMessages(new LogReader.Builder().setKeyword("timeout"), "m1", "m2", "m3", "m4");
+        assertMessages(new LogReader.Builder().setKeyword("超时"), "m5");
+        assertMessages(new LogReader.Builder().setMinPriority(Constant.WARN), "m1", "m2", "m5");
+        assertMessages(new LogReader.Builder().setTimeRange(start + 2000, start + 4000), "m2", "m3", "m4");
+        assertMessages(new LogReader.Builder().setSubTag("Net").setThreadName("worker").setKeyword("timeout")
+                .setMinPriority(Constant.WARN), "m1");
+    }
+
+    @Test
+    public void next_readsRecordsSplitAcrossWindows() throws IOException {
+        List<DiskRecord> records = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String message = String.format(Locale.US, "m%03d", i);
+            records.add(record(i, Constant.INFO, "Net", "main", i % 3 == 0 ? message + "\nsecond line" : message));
+            expected.add(message);
+        }
+        write(records.toArray(new DiskRecord[0]));
+        assertTrue(logFile.length() > 40 * 1024);
+
+        // 窗口远小于文件，大部分窗口的末尾都截断了一条日志
+        assertMessages(new LogReader.Builder().setWindowSize(1024), expected.toArray(new String[0]));
+    }
+
+    @Test
+    public void next_skipsRecordLargerThanWindow() throws IOException {
+        char[] large = new char[4096];
+        Arrays.fill(large, 'x');
+        write(record(0, Constant.INFO, "Net", "main", "m0"),
+                record(1, Constant.INFO, "Net", "main", "m1 " + new String(large)),
+                record(2, Constant.INFO, "Net", "main", "m2"));
+
+        assertMessages(new LogReader.Builder().setWindowSize(1024), "m0", "m2");
+    }
+
+    private void write(DiskRecord... records) {
+        LogFileWriter writer = new LogFileWriter(folder.getPath(), 4096,
+                new TextRecordEncoder(Constant.DEFAULT_FORMAT_PATTERN), LogFileWriter.COMPRESS_NONE);
+        for (DiskRecord record : records) {
+            writer.write(record);
+        }
+        writer.close();
+    }
+
+    private DiskRecord record(int second, int priority, String subTag, String threadName, String message) {
+        return new DiskRecord(start + second * 1000L, priority, subTag, threadName, null, message, strategy);
+    }
+
+    /**
+     * 读取所有匹配的日志，检查各日志消息的第一个单词
+     *
+     * @param builder
+     * @param expected
+     * @throws IOException
+     */
+    private void assertMessages(LogReader.Builder builder, String... expected) throws IOException {
+        LogReader reader = builder.setLogFile(logFile).build();
+        List<String> messages = new ArrayList<>();
+        try {
+            LogReader.Record record;
+            while ((record = reader.next()) != null) {
+                String message = record.getMessage();
+                int space = message.indexOf(' ');
+                int newline = message.indexOf('\n');
+                int end = space < 0 ? message.length() : space;
+                if (newline >= 0 && newline < end) {
+                    end = newline;
+                }
+                messages.add(message.substring(0, end));
+            }
+        } finally {
+            reader.close();
+        }
+        assertEquals(Arrays.asList(expected), messages);
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.yangkangli.logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 单元测试使用的临时文件工具
+ */
+public final class TestFiles {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private TestFiles() {
+    }
+
+    /**
+     * 创建一个空的临时目录
+     *
+     * @return
+     * @throws IOException
+     */
+    public static File createTempFolder() throws IOException {
+        File folder = File.createTempFile("alogger", "");
+        if (!folder.delete() || !folder.mkdirs()) {
+            throw new IOException("Cannot create " + folder);
+        }
+        return folder;
+    }
+
+    /**
+     * 删除文件或目录（包括其中的文件）
+     *
+     * @param file
+     */
+    public static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * 读取文件的全部内容
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static byte[] readFully(File file) throws IOException {
+        return readFully(new FileInputStream(file));
+    }
+
+    /**
+     * 解压并读取gzip文件的全部内容（可以包含多个gzip成员）
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static String readGzipText(File file) throws IOException {
+        return new String(readFully(new GZIPInputStream(new FileInputStream(file))), UTF_8);
+    }
+
+    /**
+     * 以UTF-8写入文本，覆盖原有内容
+     *
+     * @param file
+     * @param text
+     * @param gzip 是否压缩为一个gzip成员
+     * @throws IOException
+     */
+    public static void writeText(File file, String text, boolean gzip) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        if (gzip) {
+            out = new GZIPOutputStream(out);
+        }
+        try {
+            out.write(text.getBytes(UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 读取并关闭输入流
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    public static byte[] readFully(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
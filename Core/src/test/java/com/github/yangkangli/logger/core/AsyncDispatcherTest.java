@@ -0,0 +1,151 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.strategy.BlockingWaitStrategy;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * AsyncDispatcher与LogRingBuffer的本地单元测试
+ */
+public class AsyncDispatcherTest {
+
+    private static final int PRODUCERS = 4;
+
+    private static final int RECORDS = 20000;
+
+    private static final int SHUTDOWN_ROUNDS = 200;
+
+    private static final int SHUTDOWN_RECORDS = 500;
+
+    @Test
+    public void publish_deliversEveryRecordFromManyProducers() throws InterruptedException {
+        LoggerCore core = new LoggerCore();
+        CollectingAdapter adapter = new CollectingAdapter();
+        core.addAdapter(adapter);
+        core.setAsyncDispatcher(new AsyncDispatcher.Builder().setBufferSize(8).build());
+
+        runProducers(core, RECORDS, null);
+
+        awaitCount(adapter, PRODUCERS * RECORDS);
+        assertEquals(PRODUCERS * RECORDS, adapter.messages.size());
+        core.setAsyncDispatcher(null);
+    }
+
+    @Test
+    public void shutdown_whilePublishingLosesNoRecord() throws InterruptedException {
+        // 竞争窗口很小，多轮各停止一次
+        for (int round = 0; round < SHUTDOWN_ROUNDS; round++) {
+            final LoggerCore core = new LoggerCore();
+            CollectingAdapter adapter = new CollectingAdapter();
+            core.addAdapter(adapter);
+            // 缓冲区足够大，消费者会看到空的缓冲区并在生产者发布的同时判断是否退出
+            core.setAsyncDispatcher(new AsyncDispatcher.Builder()
+                    .setWaitStrategy(new BlockingWaitStrategy())
+                    .build());
+
+            // 生产者进行到一半时停止异步分发，之后的日志同步分发
+            runProducers(core, SHUTDOWN_RECORDS, new Runnable() {
+                @Override
+                public void run() {
+                    core.setAsyncDispatcher(null);
+                }
+            });
+
+            awaitCount(adapter, PRODUCERS * SHUTDOWN_RECORDS);
+            assertEquals(PRODUCERS * SHUTDOWN_RECORDS, adapter.messages.size());
+            assertEquals(PRODUCERS * SHUTDOWN_RECORDS, adapter.count.get());
+        }
+    }
+
+    @Test
+    public void discardPolicy_countsEveryRecordNotDelivered() throws InterruptedException {
+        LoggerCore core = new LoggerCore();
+        CollectingAdapter adapter = new CollectingAdapter();
+        core.addAdapter(adapter);
+        AsyncDispatcher dispatcher = new AsyncDispatcher.Builder()
+                .setBufferSize(2)
+                .setFullPolicy(AsyncDispatcher.FULL_POLICY_DISCARD)
+                .build();
+        core.setAsyncDispatcher(dispatcher);
+
+        runProducers(core, RECORDS, null);
+        core.setAsyncDispatcher(null);
+
+        long expected = PRODUCERS * RECORDS - dispatcher.getDiscardedCount();
+        awaitCount(adapter, expected);
+        assertEquals(expected, adapter.messages.size());
+    }
+
+    /**
+     * 多个生产者同时打印日志，midway不为null时在各生产者都打印到一半时执行
+     */
+    private static void runProducers(final LoggerCore core, final int records, final Runnable midway)
+            throws InterruptedException {
+        final CountDownLatch half = new CountDownLatch(PRODUCERS);
+        Thread[] threads = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            threads[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < records; i++) {
+                        if (i == records / 2) {
+                            half.countDown();
+                        }
+                        core.i(null, producer + ":" + i, null);
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        if (midway != null) {
+            half.await();
+            midway.run();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void awaitCount(CollectingAdapter adapter, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (adapter.count.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // 多等一会，确认没有重复分发
+        Thread.sleep(20);
+        assertTrue(adapter.count.get() >= expected);
+    }
+
+    private static class CollectingAdapter implements ILogAdapter {
+
+        final Set<String> messages = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        final AtomicLong count = new AtomicLong();
+
+        @Override
+        public boolean isLoggable() {
+            return true;
+        }
+
+        @Override
+        public int getMinPriority() {
+            return 0;
+        }
+
+        @Override
+        public void log(LogEvent event, BaseLogStrategy strategy) {
+            messages.add(event.getMessage());
+            count.incrementAndGet();
+        }
+    }
+}
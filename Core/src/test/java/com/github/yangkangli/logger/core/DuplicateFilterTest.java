@@ -0,0 +1,146 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.utils.Constant;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DuplicateFilter的本地单元测试
+ */
+public class DuplicateFilterTest {
+
+    private static final long START = 1700000000000L;
+
+    private static final long TIMEOUT = 5000L;
+
+    private final String thread = Thread.currentThread().getName();
+
+    private final ManualClock clock = new ManualClock(START);
+
+    private final CollectingListener listener = new CollectingListener();
+
+    @Test
+    public void replacedSlot_summarizesPreviousRun() {
+        DuplicateFilter filter = newFilter(1);
+
+        assertFalse(filter.isDuplicate(Constant.INFO, "Net", "retry", null, listener));
+        clock.advance(10);
+        assertTrue(filter.isDuplicate(Constant.INFO, "Net", "retry", null, listener));
+        clock.advance(10);
+        assertTrue(filter.isDuplicate(Constant.INFO, "Net", "retry", null, listener));
+        assertEquals(0, listener.summaries.size());
+
+        // 同一槽位的其他日志结束之前的序列
+        assertFalse(filter.isDuplicate(Constant.INFO, "Net", "connected", null, listener));
+        assertEquals(1, listener.summaries.size());
+        assertEquals("I/Net[" + thread + "]: Repeated 2 times (first " + time(START) + ", last " + time(START + 20)
+                + "): retry", listener.summaries.get(0));
+    }
+
+    @Test
+    public void runWithoutRepeats_isNotSummarized() {
+        DuplicateFilter filter = newFilter(1);
+
+        assertFalse(filter.isDuplicate(Constant.INFO, null, "a", null, listener));
+        assertFalse(filter.isDuplicate(Constant.INFO, null, "b", null, listener));
+        assertFalse(filter.isDuplicate(Constant.WARN, null, "b", null, listener));
+        assertEquals(0, listener.summaries.size());
+    }
+
+    @Test
+    public void sweep_closesTimedOutRunsWithTheirThreadName() throws InterruptedException {
+        final DuplicateFilter filter = newFilter(16);
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                filter.isDuplicate(Constant.WARN, "Db", "slow query", null, listener);
+                filter.isDuplicate(Constant.WARN, "Db", "slow query", null, listener);
+            }
+        }, "worker");
+        worker.start();
+        worker.join();
+
+        clock.advance(TIMEOUT - 1);
+        filter.sweep(listener);
+        assertEquals(0, listener.summaries.size());
+
+        // 定时器在其他线程中结束序列，汇总日志仍使用序列中第一条日志的线程名
+        clock.advance(1);
+        filter.sweep(listener);
+        assertEquals(1, listener.summaries.size());
+        assertEquals("W/Db[worker]: Repeated 1 times (first " + time(START) + ", last " + time(START)
+                + "): slow query", listener.summaries.get(0));
+
+        // 超时后重新开始序列，该日志会再打印一次
+        assertFalse(filter.isDuplicate(Constant.WARN, "Db", "slow query", null, listener));
+    }
+
+    @Test
+    public void timedOutRun_isNotExtended() {
+        DuplicateFilter filter = newFilter(1);
+
+        assertFalse(filter.isDuplicate(Constant.DEBUG, null, "tick", null, listener));
+        clock.advance(TIMEOUT / 2 - 1);
+        assertTrue(filter.isDuplicate(Constant.DEBUG, null, "tick", null, listener));
+        clock.advance(TIMEOUT / 2 + 1);
+        assertFalse(filter.isDuplicate(Constant.DEBUG, null, "tick", null, listener));
+        assertEquals(1, listener.summaries.size());
+        assertTrue(listener.summaries.get(0).startsWith("D/null[" + thread + "]: Repeated 1 times"));
+    }
+
+    @Test
+    public void unbind_flushesOpenRuns() {
+        DuplicateFilter filter = newFilter(16);
+        filter.bind(listener);
+
+        filter.isDuplicate(Constant.INFO, "A", "x", null, listener);
+        filter.isDuplicate(Constant.INFO, "A", "x", null, listener);
+        filter.isDuplicate(Constant.INFO, "A", "x", null, listener);
+        filter.isDuplicate(Constant.ERROR, "B", "y", null, listener);
+        filter.isDuplicate(Constant.ERROR, "B", "y", null, listener);
+        assertEquals(0, listener.summaries.size());
+
+        filter.unbind();
+        assertEquals(2, listener.summaries.size());
+        assertTrue(listener.summaries.contains("I/A[" + thread + "]: Repeated 2 times (first " + time(START)
+                + ", last " + time(START) + "): x"));
+        assertTrue(listener.summaries.contains("E/B[" + thread + "]: Repeated 1 times (first " + time(START)
+                + ", last " + time(START) + "): y"));
+
+        // 解绑后可以再次绑定，没有序列时不打印汇总
+        filter.bind(listener);
+        filter.unbind();
+        assertEquals(2, listener.summaries.size());
+    }
+
+    private DuplicateFilter newFilter(int slots) {
+        return new DuplicateFilter.Builder().setSlots(slots).setTimeout(TIMEOUT).setClock(clock).build();
+    }
+
+    private static String time(long timestamp) {
+        return new SimpleDateFormat("HH:mm:ss.SSS").format(new Date(timestamp));
+    }
+
+    /**
+     * 按"级别/SubTag[线程名]: 内容"记录汇总日志
+     */
+    private static class CollectingListener implements DuplicateFilter.Listener {
+
+        final List<String> summaries = new ArrayList<>();
+
+        @Override
+        public synchronized void onSummary(int priority, String subTag, String message, String threadName) {
+            summaries.add("VDIWEA".charAt(priority - Constant.VERBOSE) + "/" + subTag + "[" + threadName + "]: "
+                    + message);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.strategy.DefaultLogStrategy;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * LogLayout的本地单元测试
+ */
+public class LogLayoutTest {
+
+    private static final String SEPARATOR = System.getProperty("line.separator");
+
+    private static final String[] STACK_LINES = {"| MainActivity.onCreate  (MainActivity.java:20)"};
+
+    @Test
+    public void layout_matchesBorderedFormat() {
+        BaseLogStrategy strategy = new DefaultLogStrategy.Builder().setBordermaxLength(20).build();
+        LogLayout layout = new LogLayout();
+        layout.layout(strategy, "Tag", "main", STACK_LINES, "first" + SEPARATOR + "second");
+
+        assertArrayEquals(new String[]{
+                strategy.getTopBorder("Tag"),
+                "| Thread:main",
+                strategy.getDivider("Tag"),
+                STACK_LINES[0],
+                strategy.getDivider("Tag"),
+                "| first",
+                "| second",
+                strategy.getBottomBorder("Tag")
+        }, lines(layout));
+    }
+
+    @Test
+    public void layout_splitsMessageLikeStringSplit() {
+        BaseLogStrategy strategy = new DefaultLogStrategy.Builder().build();
+        LogLayout layout = new LogLayout();
+        String[] messages = {"", "a", "a\n", "a\n\nb\n\n", "\n", "\na"};
+        for (String message : messages) {
+            message = message.replace("\n", SEPARATOR);
+            layout.layout(strategy, null, null, null, message);
+            String[] lines = lines(layout);
+            String[] expected = message.split(Pattern.quote(SEPARATOR));
+            assertEquals(message, expected.length + 2, lines.length);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals("| " + expected[i], lines[i + 1]);
+            }
+        }
+    }
+
+    @Test
+    public void layout_steadyStateDoesNotAllocate() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        BaseLogStrategy strategy = new DefaultLogStrategy.Builder().setShowStackTrace(true).build();
+        LogLayout layout = new LogLayout();
+        String message = "user=42 action=login result=ok" + SEPARATOR + "elapsed=12ms";
+        for (int i = 0; i < 10000; i++) {
+            layout.layout(strategy, "Tag", "main", STACK_LINES, message);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10000; i++) {
+            layout.layout(strategy, "Tag", "main", STACK_LINES, message);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        // 允许测量本身的少量分配，远小于每条日志一个对象
+        assertEquals(0, allocated / 10000);
+    }
+
+    private static String[] lines(LogLayout layout) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < layout.getLineCount(); i++) {
+            int start = layout.getLineStart(i);
+            lines.add(new String(layout.getChars(), start, layout.getLineEnd(i) - start));
+            assertEquals('\n', layout.getChars()[layout.getLineEnd(i)]);
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.yangkangli.logger.core;
+
+/**
+ * 手动推进的时钟，nanoTime从0开始
+ */
+class ManualClock implements Clock {
+
+    private final long startMillis;
+
+    private volatile long nanos;
+
+    ManualClock(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    void advance(long millis) {
+        advanceNanos(millis * 1000000L);
+    }
+
+    void advanceNanos(long delta) {
+        nanos += delta;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + nanos / 1000000L;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+}
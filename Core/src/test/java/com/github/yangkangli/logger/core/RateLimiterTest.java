@@ -0,0 +1,184 @@
+package com.github.yangkangli.logger.core;
+
+import com.github.yangkangli.logger.utils.Constant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RateLimiter的本地单元测试
+ */
+public class RateLimiterTest {
+
+    private final String thread = Thread.currentThread().getName();
+
+    private final ManualClock clock = new ManualClock(0);
+
+    private final CollectingListener listener = new CollectingListener();
+
+    @Test
+    public void tryAcquire_allowsBurstThenRefillsAtRate() {
+        RateLimiter limiter = newBuilder().setRate(10, 3).build();
+
+        assertEquals(3, acquire(limiter, Constant.INFO, "Net", 10));
+
+        // 每100ms补充一个令牌
+        clock.advance(99);
+        assertFalse(limiter.tryAcquire(Constant.INFO, "Net"));
+        clock.advance(1);
+        assertTrue(limiter.tryAcquire(Constant.INFO, "Net"));
+        assertFalse(limiter.tryAcquire(Constant.INFO, "Net"));
+
+        // 空闲再久也只能积累到突发数量
+        clock.advance(60 * 1000L);
+        assertEquals(3, acquire(limiter, Constant.INFO, "Net", 10));
+    }
+
+    @Test
+    public void tryAcquire_limitsEachTagAndPrioritySeparately() {
+        RateLimiter limiter = newBuilder().setRate(10, 2).setTagRate("Db", 0, 1).build();
+
+        assertEquals(2, acquire(limiter, Constant.INFO, "Net", 5));
+        assertEquals(2, acquire(limiter, Constant.WARN, "Net", 5));
+        assertEquals(2, acquire(limiter, Constant.INFO, null, 5));
+        // 单独设置为不限制速率
+        assertEquals(5, acquire(limiter, Constant.INFO, "Db", 5));
+        // 默认不限制ERROR及以上级别
+        assertEquals(5, acquire(limiter, Constant.ERROR, "Net", 5));
+        assertEquals(5, acquire(limiter, Constant.ASSERT, "Net", 5));
+    }
+
+    @Test
+    public void tryAcquire_samplesBeforeRateLimiting() {
+        RateLimiter limiter = newBuilder().setRate(0, 1).setTagSampleRate("Ui", 4).build();
+
+        assertEquals(3, acquire(limiter, Constant.DEBUG, "Ui", 12));
+        assertEquals(12, acquire(limiter, Constant.DEBUG, "Other", 12));
+    }
+
+    @Test
+    public void report_emitsOneRecordPerTagWithItsThreadName() throws InterruptedException {
+        final RateLimiter limiter = newBuilder().setRate(10, 1).build();
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acquire(limiter, Constant.INFO, "Net", 4);
+            }
+        }, "worker");
+        worker.start();
+        worker.join();
+        acquire(limiter, Constant.INFO, null, 3);
+
+        clock.advance(1500);
+        limiter.report(listener);
+        assertEquals(2, listener.reports.size());
+        assertTrue(listener.reports.contains("[worker] Net: 3 records suppressed in the last 1500ms"));
+        assertTrue(listener.reports.contains("[" + thread + "] (no tag): 2 records suppressed in the last 1500ms"));
+
+        // 汇总后清零，没有新的被限流日志时不打印
+        clock.advance(500);
+        limiter.report(listener);
+        assertEquals(2, listener.reports.size());
+    }
+
+    @Test
+    public void unbind_reportsRemainingSuppressedRecords() {
+        RateLimiter limiter = newBuilder().setRate(10, 1).setReportInterval(0).build();
+        limiter.bind(listener);
+
+        acquire(limiter, Constant.WARN, "Net", 6);
+        assertEquals(0, listener.reports.size());
+
+        clock.advance(200);
+        limiter.unbind();
+        assertEquals(1, listener.reports.size());
+        assertEquals("[" + thread + "] Net: 5 records suppressed in the last 200ms", listener.reports.get(0));
+
+        // 解绑后可以再次绑定
+        limiter.bind(listener);
+        limiter.unbind();
+        assertEquals(1, listener.reports.size());
+    }
+
+    @Test
+    public void evictIdle_reportsEvictedTagsWithTheirThreadName() throws InterruptedException {
+        final RateLimiter limiter = newBuilder().setRate(10, 1).setMaxTags(2).setIdleTimeout(1000)
+                .setReportInterval(0).build();
+        limiter.bind(listener);
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acquire(limiter, Constant.INFO, "Net", 3);
+            }
+        }, "worker");
+        worker.start();
+        worker.join();
+        acquire(limiter, Constant.INFO, "Db", 2);
+
+        // SubTag已满，新的SubTag清除空闲的SubTag，被清除的SubTag立即汇总，而不是并入"*"
+        clock.advance(1500);
+        assertTrue(limiter.tryAcquire(Constant.INFO, "Ui"));
+        assertEquals(2, listener.reports.size());
+        assertTrue(listener.reports.contains("[worker] Net: 2 records suppressed in the last 1500ms"));
+        assertTrue(listener.reports.contains("[" + thread + "] Db: 1 records suppressed in the last 1500ms"));
+
+        limiter.unbind();
+        assertEquals(2, listener.reports.size());
+    }
+
+    @Test
+    public void overflowState_isSharedByTagsBeyondTheLimit() {
+        RateLimiter limiter = newBuilder().setRate(10, 1).setMaxTags(1).build();
+
+        assertEquals(1, acquire(limiter, Constant.INFO, "Net", 2));
+        assertEquals(1, acquire(limiter, Constant.INFO, "Db", 2));
+        assertEquals(0, acquire(limiter, Constant.INFO, "Ui", 2));
+
+        limiter.report(listener);
+        assertEquals(2, listener.reports.size());
+        assertTrue(listener.reports.contains("[" + thread + "] Net: 1 records suppressed in the last 0ms"));
+        assertTrue(listener.reports.contains("[" + thread + "] *: 3 records suppressed in the last 0ms"));
+    }
+
+    private RateLimiter.Builder newBuilder() {
+        return new RateLimiter.Builder().setClock(clock);
+    }
+
+    /**
+     * 连续获取若干次，返回允许打印的日志数
+     *
+     * @param limiter
+     * @param priority
+     * @param subTag
+     * @param count
+     * @return
+     */
+    private static int acquire(RateLimiter limiter, int priority, String subTag, int count) {
+        int acquired = 0;
+        for (int i = 0; i < count; i++) {
+            if (limiter.tryAcquire(priority, subTag)) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+
+    /**
+     * 按"[线程名] 内容"记录汇总日志
+     */
+    private static class CollectingListener implements RateLimiter.Listener {
+
+        final List<String> reports = new ArrayList<>();
+
+        @Override
+        public synchronized void onReport(String report, String threadName) {
+            reports.add("[" + threadName + "] " + report);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.TestFiles;
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.strategy.DefaultLogStrategy;
+import com.github.yangkangli.logger.utils.Constant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BinaryRecordEncoder与BinaryLogDecoder的本地单元测试
+ */
+public class BinaryLogDecoderTest {
+
+    private static final long TIMESTAMP = 1587520800000L;
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = TestFiles.createTempFolder();
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(folder);
+    }
+
+    @Test
+    public void decode_matchesTextFormatWhenStrategyChangesMidSegment() throws IOException {
+        BaseLogStrategy narrow = new DefaultLogStrategy.Builder().setBordermaxLength(20).build();
+        BaseLogStrategy wide = new DefaultLogStrategy.Builder().setBordermaxLength(40).build();
+        DiskRecord[] records = {
+                record(0, "A", narrow),
+                record(1, "B", narrow),
+                // A的边线变化后重新定义，新的Tag不能与其共用字典id
+                record(2, "A", wide),
+                record(3, "C", narrow),
+                record(4, "A", wide),
+                record(5, "B", narrow)
+        };
+
+        String text = new String(write(new TextRecordEncoder(Constant.DEFAULT_FORMAT_PATTERN), records), "UTF-8");
+        byte[] binary = write(new BinaryRecordEncoder(), records);
+
+        StringWriter decoded = new StringWriter();
+        new BinaryLogDecoder(new ByteArrayInputStream(binary), Constant.DEFAULT_FORMAT_PATTERN).decodeTo(decoded);
+        assertEquals(text, decoded.toString());
+    }
+
+    private static DiskRecord record(int index, String subTag, BaseLogStrategy strategy) {
+        return new DiskRecord(TIMESTAMP + index, Constant.INFO, subTag, "main", null,
+                "message " + index, strategy);
+    }
+
+    /**
+     * 按encoder的格式写入全部记录，返回日志文件的内容
+     */
+    private byte[] write(RecordEncoder encoder, DiskRecord[] records) throws IOException {
+        LogFileWriter writer = new LogFileWriter(folder.getPath(), 4096, encoder, LogFileWriter.COMPRESS_NONE);
+        for (DiskRecord record : records) {
+            writer.write(record);
+        }
+        writer.close();
+
+        File[] files = folder.listFiles();
+        assertEquals(1, files.length);
+        byte[] bytes = TestFiles.readFully(files[0]);
+        assertTrue(files[0].delete());
+        return bytes;
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.utils.Constant;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DiskRecordQueue的本地单元测试
+ */
+public class DiskRecordQueueTest {
+
+    private static final long NO_BYTE_LIMIT = Long.MAX_VALUE;
+
+    @Test
+    public void offer_notifiesOnlyWhenQueueBecomesNonEmpty() {
+        DiskRecordQueue queue = new DiskRecordQueue(10, NO_BYTE_LIMIT, DiskRecordQueue.OVERFLOW_BLOCK, Constant.WARN);
+
+        assertTrue(queue.offer(record(Constant.INFO, "1")));
+        assertFalse(queue.offer(record(Constant.INFO, "2")));
+        assertEquals(Arrays.asList("1", "2"), drain(queue));
+
+        // 取空后再次放入时重新通知
+        assertTrue(queue.offer(record(Constant.INFO, "3")));
+    }
+
+    @Test
+    public void dropNewest_keepsQueuedRecords() {
+        DiskRecordQueue queue = newQueue(DiskRecordQueue.OVERFLOW_DROP_NEWEST);
+        offer(queue, Constant.INFO, "1", "2", "3", "4", "5");
+
+        assertEquals(Arrays.asList("1", "2", "3"), drain(queue));
+        assertDropped(queue, 2);
+    }
+
+    @Test
+    public void dropOldest_keepsNewestRecords() {
+        DiskRecordQueue queue = newQueue(DiskRecordQueue.OVERFLOW_DROP_OLDEST);
+        offer(queue, Constant.INFO, "1", "2", "3", "4", "5");
+
+        assertEquals(Arrays.asList("3", "4", "5"), drain(queue));
+        assertDropped(queue, 2);
+    }
+
+    @Test
+    public void dropBelowPriority_evictsOldestLowPriorityRecordsFirst() {
+        DiskRecordQueue queue = newQueue(DiskRecordQueue.OVERFLOW_DROP_BELOW_PRIORITY);
+        queue.offer(record(Constant.DEBUG, "d1"));
+        queue.offer(record(Constant.WARN, "w2"));
+        queue.offer(record(Constant.DEBUG, "d3"));
+
+        // 低于WARN的新记录被丢弃
+        assertFalse(queue.offer(record(Constant.INFO, "i4")));
+        // 达到WARN的新记录依次挤掉最旧的低级别记录，没有低级别记录时挤掉最旧的记录
+        queue.offer(record(Constant.ERROR, "e5"));
+        queue.offer(record(Constant.ERROR, "e6"));
+        queue.offer(record(Constant.ERROR, "e7"));
+
+        assertEquals(Arrays.asList("e5", "e6", "e7"), drain(queue));
+        assertDropped(queue, 4);
+    }
+
+    @Test
+    public void byteBudget_limitsQueueButAcceptsOversizedRecordWhenEmpty() {
+        DiskRecord small = record(Constant.INFO, "small");
+        DiskRecordQueue queue = new DiskRecordQueue(100, small.getEstimatedSize() * 2,
+                DiskRecordQueue.OVERFLOW_DROP_NEWEST, Constant.WARN);
+
+        queue.offer(small);
+        queue.offer(record(Constant.INFO, "small"));
+        assertFalse(queue.offer(record(Constant.INFO, "small")));
+        assertEquals(2 * small.getEstimatedSize(), queue.getBytes());
+        drain(queue);
+        assertEquals(0, queue.getBytes());
+
+        char[] large = new char[1000];
+        Arrays.fill(large, 'x');
+        queue.offer(record(Constant.INFO, new String(large)));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void block_waitsUntilConsumerPolls() throws InterruptedException {
+        final DiskRecordQueue queue = newQueue(DiskRecordQueue.OVERFLOW_BLOCK);
+        offer(queue, Constant.INFO, "1", "2", "3");
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                queue.offer(record(Constant.INFO, "4"));
+            }
+        });
+        producer.start();
+        awaitWaiting(producer);
+        assertEquals(3, queue.size());
+
+        assertEquals("1", queue.poll().getMessage());
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertEquals(Arrays.asList("2", "3", "4"), drain(queue));
+        assertDropped(queue, 0);
+    }
+
+    @Test
+    public void block_neverBlocksConsumerThread() {
+        DiskRecordQueue queue = newQueue(DiskRecordQueue.OVERFLOW_BLOCK);
+        queue.setConsumerThread(Thread.currentThread());
+        offer(queue, Constant.INFO, "1", "2", "3");
+
+        // 写日志线程自己记录日志时等待会造成死锁，丢弃新的记录
+        assertFalse(queue.offer(record(Constant.INFO, "4")));
+        assertEquals(Arrays.asList("1", "2", "3"), drain(queue));
+        assertDropped(queue, 1);
+    }
+
+    @Test
+    public void close_releasesBlockedProducersAndDropsQueuedRecords() throws InterruptedException {
+        final DiskRecordQueue queue = newQueue(DiskRecordQueue.OVERFLOW_BLOCK);
+        offer(queue, Constant.INFO, "1", "2", "3");
+
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                queue.offer(record(Constant.INFO, "4"));
+                done.countDown();
+            }
+        });
+        producer.start();
+        awaitWaiting(producer);
+
+        queue.close();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, queue.size());
+        assertFalse(queue.offer(record(Constant.INFO, "5")));
+        assertDropped(queue, 5);
+    }
+
+    private static DiskRecordQueue newQueue(int overflowPolicy) {
+        return new DiskRecordQueue(3, NO_BYTE_LIMIT, overflowPolicy, Constant.WARN);
+    }
+
+    private static DiskRecord record(int priority, String message) {
+        return new DiskRecord(0, priority, null, "main", null, message, null);
+    }
+
+    private static void offer(DiskRecordQueue queue, int priority, String... messages) {
+        for (String message : messages) {
+            queue.offer(record(priority, message));
+        }
+    }
+
+    private static List<String> drain(DiskRecordQueue queue) {
+        List<String> messages = new ArrayList<>();
+        DiskRecord record;
+        while ((record = queue.poll()) != null) {
+            messages.add(record.getMessage());
+        }
+        return messages;
+    }
+
+    private static void assertDropped(DiskRecordQueue queue, long dropped) {
+        assertEquals(dropped, queue.getDroppedCount());
+        assertEquals(dropped, queue.takeDroppedCount());
+        assertEquals(0, queue.takeDroppedCount());
+    }
+
+    /**
+     * 等待线程阻塞在队列上
+     *
+     * @param thread
+     * @throws InterruptedException
+     */
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue("thread did not block", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
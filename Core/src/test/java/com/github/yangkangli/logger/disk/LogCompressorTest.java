@@ -0,0 +1,92 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.TestFiles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * LogCompressor的本地单元测试
+ */
+public class LogCompressorTest {
+
+    private File folder;
+
+    private File source;
+
+    private File target;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = TestFiles.createTempFolder();
+        source = new File(folder, "2024-01-01.log");
+        target = new File(folder, "2024-01-01.log.gz");
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(folder);
+    }
+
+    @Test
+    public void compress_appendsNewMemberToExistingFile() throws IOException {
+        TestFiles.writeText(target, "first\n", true);
+        TestFiles.writeText(source, "second\n", false);
+
+        assertEquals(target, LogCompressor.compress(source));
+        assertEquals("first\nsecond\n", TestFiles.readGzipText(target));
+        assertFiles("2024-01-01.log.gz");
+    }
+
+    @Test
+    public void compressRolledFiles_finishesMergeInterruptedBeforeRename() throws IOException {
+        // 临时文件已写完、原文件已改名为标记文件，临时文件改名前进程被杀死
+        TestFiles.writeText(target, "first\n", true);
+        TestFiles.writeText(new File(folder, "2024-01-01.log.gz.tmp"), "first\nsecond\n", true);
+        TestFiles.writeText(new File(folder, "2024-01-01.log.merged"), "second\n", false);
+
+        LogCompressor.compressRolledFiles(folder, ".log", null);
+        assertEquals("first\nsecond\n", TestFiles.readGzipText(target));
+        assertFiles("2024-01-01.log.gz");
+    }
+
+    @Test
+    public void compressRolledFiles_doesNotAppendMergedFileTwice() throws IOException {
+        // 临时文件已改名，删除标记文件前进程被杀死
+        TestFiles.writeText(target, "first\n", true);
+        TestFiles.writeText(new File(folder, "2024-01-01.log.merged"), "first\n", false);
+
+        LogCompressor.compressRolledFiles(folder, ".log", null);
+        assertEquals("first\n", TestFiles.readGzipText(target));
+        assertFiles("2024-01-01.log.gz");
+    }
+
+    @Test
+    public void compressRolledFiles_discardsIncompleteTempFile() throws IOException {
+        // 写临时文件时进程被杀死，原文件还在
+        TestFiles.writeText(target, "first\n", true);
+        TestFiles.writeText(new File(folder, "2024-01-01.log.gz.tmp"), "first\nsec", true);
+        TestFiles.writeText(source, "second\n", false);
+        File current = new File(folder, "2024-01-02.log");
+        TestFiles.writeText(current, "third\n", false);
+
+        LogCompressor.compressRolledFiles(folder, ".log", current);
+        assertEquals("first\nsecond\n", TestFiles.readGzipText(target));
+        assertFiles("2024-01-01.log.gz", "2024-01-02.log");
+    }
+
+    private void assertFiles(String... names) {
+        String[] files = folder.list();
+        Arrays.sort(files);
+        Arrays.sort(names);
+        assertArrayEquals(names, files);
+    }
+}
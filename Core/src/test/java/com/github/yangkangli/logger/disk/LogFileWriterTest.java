@@ -0,0 +1,122 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.TestFiles;
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.strategy.DefaultLogStrategy;
+import com.github.yangkangli.logger.utils.Constant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LogFileWriter的本地单元测试
+ */
+public class LogFileWriterTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private final BaseLogStrategy strategy = new DefaultLogStrategy.Builder().build();
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = TestFiles.createTempFolder();
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(folder);
+    }
+
+    @Test
+    public void mappedBuffer_recoversBinaryTailIntoItsOwnDay() throws IOException {
+        long yesterday = System.currentTimeMillis() - DAY;
+        File bufferFile = new File(folder, "buffer");
+
+        LogFileWriter writer = newWriter(bufferFile);
+        writer.write(record(yesterday, "Net", "flushed"));
+        writer.flush();
+        writer.write(record(yesterday + 1, "Db", "pending 1"));
+        writer.write(record(yesterday + 2, "Net", "pending 2"));
+        // 进程被杀死：不调用close()，后两条日志只在映射缓冲区中
+
+        newWriter(bufferFile).close();
+
+        File[] logFiles = listLogFiles();
+        assertEquals(1, logFiles.length);
+        // 遗留的日志写入其所属日期（昨天）的日志文件
+        assertTrue(logFiles[0].getName().startsWith(new SimpleDateFormat("yyyy-MM-dd").format(new Date(yesterday))));
+
+        String text = decode(logFiles[0]);
+        assertTrue(text.contains("| flushed"));
+        assertTrue(text.contains("ALogger->Db: | pending 1"));
+        assertTrue(text.contains("ALogger->Net: | pending 2"));
+        assertFalse(new MappedLogBuffer(bufferFile, 64 * 1024).hasPending());
+    }
+
+    @Test
+    public void mappedBuffer_recoveredBinaryTailDecodesOnItsOwn() throws IOException {
+        long now = System.currentTimeMillis();
+        File bufferFile = new File(folder, "buffer");
+
+        LogFileWriter writer = newWriter(bufferFile);
+        writer.write(record(now, "Net", "flushed"));
+        writer.flush();
+        writer.write(record(now + 1, "Net", "pending"));
+        // 进程被杀死，且包含数据段开头与字典的日志文件已被删除（如超出配额）
+        File[] logFiles = listLogFiles();
+        assertEquals(1, logFiles.length);
+        assertTrue(logFiles[0].delete());
+
+        newWriter(bufferFile).close();
+
+        logFiles = listLogFiles();
+        assertEquals(1, logFiles.length);
+        assertTrue(decode(logFiles[0]).contains("ALogger->Net: | pending"));
+    }
+
+    private File[] listLogFiles() {
+        return folder.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(BinaryLogFormat.FILE_EXTENSION);
+            }
+        });
+    }
+
+    private LogFileWriter newWriter(File bufferFile) {
+        LogFileWriter writer = new LogFileWriter(folder.getPath(), 4096, new BinaryRecordEncoder(),
+                LogFileWriter.COMPRESS_NONE);
+        writer.openMappedBuffer(bufferFile, 64 * 1024);
+        return writer;
+    }
+
+    private DiskRecord record(long timestamp, String subTag, String message) {
+        return new DiskRecord(timestamp, Constant.INFO, subTag, "main", null, message, strategy);
+    }
+
+    private static String decode(File file) throws IOException {
+        StringWriter out = new StringWriter();
+        FileInputStream in = new FileInputStream(file);
+        try {
+            new BinaryLogDecoder(in, Constant.DEFAULT_FORMAT_PATTERN).decodeTo(out);
+        } finally {
+            in.close();
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.yangkangli.logger.disk;
+
+import com.github.yangkangli.logger.TestFiles;
+import com.github.yangkangli.logger.core.BaseLogStrategy;
+import com.github.yangkangli.logger.strategy.DefaultLogStrategy;
+import com.github.yangkangli.logger.utils.Constant;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TimeIndex与LogRangeReader的本地单元测试：写入带索引的日志文件后按时间范围读回
+ */
+public class LogRangeReaderTest {
+
+    private static final int RECORDS = 100;
+
+    private static final int INDEX_INTERVAL = 10;
+
+    private static final long STEP = 1000L;
+
+    private static final Pattern RECORD_ID = Pattern.compile("\\| record (\\d+)");
+
+    private final BaseLogStrategy strategy = new DefaultLogStrategy.Builder().build();
+
+    private long start;
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = TestFiles.createTempFolder();
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2024, Calendar.JANUARY, 1, 10, 0, 0);
+        start = calendar.getTimeInMillis();
+    }
+
+    @After
+    public void tearDown() {
+        TestFiles.delete(folder);
+    }
+
+    @Test
+    public void textFile_readsOnlyTheRequestedRange() throws IOException {
+        LogFileWriter writer = newWriter(LogFileWriter.COMPRESS_NONE);
+        write(writer, 0, RECORDS);
+        writer.close();
+
+        File logFile = new File(folder, "2024-01-01.log");
+        TimeIndex index = TimeIndex.read(logFile);
+        assertTrue(index != null);
+        assertFalse(index.isBlockOffsets());
+        assertIndexBoundaries(index, logFile.length());
+        assertRange(logFile, 35, 52);
+        assertRange(logFile, 0, 0);
+        assertRange(logFile, RECORDS - 1, RECORDS - 1);
+    }
+
+    @Test
+    public void blockCompressedFile_readsOnlyTheRequestedRange() throws IOException {
+        LogFileWriter writer = newWriter(LogFileWriter.COMPRESS_BLOCKS);
+        write(writer, 0, RECORDS);
+        writer.close();
+
+        File logFile = new File(folder, "2024-01-01.log.gz");
+        TimeIndex index = TimeIndex.read(logFile);
+        assertTrue(index != null);
+        assertTrue(index.isBlockOffsets());
+        assertIndexBoundaries(index, logFile.length());
+        assertRange(logFile, 35, 52);
+        assertRange(logFile, 0, 9);
+        assertRange(logFile, 90, RECORDS - 1);
+    }
+
+    @Test
+    public void rolledFile_keepsIndexAfterCompression() throws IOException {
+        LogFileWriter writer = newWriter(LogFileWriter.COMPRESS_ROLLED);
+        write(writer, 0, RECORDS);
+        // 日期变化后压缩前一天的日志文件
+        writer.write(record(start + 24 * 60 * 60 * 1000L, 0));
+        writer.close();
+
+        File logFile = new File(folder, "2024-01-01.log.gz");
+        assertTrue(logFile.isFile());
+        assertFalse(new File(folder, "2024-01-01.log").exists());
+        TimeIndex index = TimeIndex.read(logFile);
+        assertTrue(index != null);
+        assertFalse(index.isBlockOffsets());
+        assertIndexBoundaries(index, Long.MAX_VALUE);
+        assertRange(logFile, 35, 52);
+    }
+
+    @Test
+    public void rolledFile_dropsIndexWhenAppendedToExistingArchive() throws IOException {
+        LogFileWriter writer = newWriter(LogFileWriter.COMPRESS_ROLLED);
+        write(writer, 0, RECORDS / 2);
+        writer.write(record(start + 24 * 60 * 60 * 1000L, 0));
+        // 同一天的日志被再次写入，压缩时追加到已有的压缩文件后
+        write(writer, RECORDS / 2, RECORDS);
+        writer.write(record(start + 24 * 60 * 60 * 1000L, 1));
+        writer.close();
+
+        File logFile = new File(folder, "2024-01-01.log.gz");
+        assertFalse(TimeIndex.getIndexFile(logFile).exists());
+        assertTrue(TimeIndex.read(logFile) == null);
+        assertRange(logFile, 45, 55);
+    }
+
+    @Test
+    public void range_outsideOfFileIsEmpty() throws IOException {
+        LogFileWriter writer = newWriter(LogFileWriter.COMPRESS_NONE);
+        write(writer, 0, RECORDS);
+        writer.close();
+
+        File logFile = new File(folder, "2024-01-01.log");
+        assertEquals(new ArrayList<Integer>(), read(logFile, start - 10 * STEP, start - 1));
+        assertEquals(new ArrayList<Integer>(), read(logFile, start + RECORDS * STEP, start + 2 * RECORDS * STEP));
+    }
+
+    /**
+     * 检查索引边界：范围之前从文件开头读起，范围之后读到文件末尾，中间的范围只读取文件的一部分
+     *
+     * @param index
+     * @param fileLength
+     */
+    private void assertIndexBoundaries(TimeIndex index, long fileLength) {
+        assertTrue("index size " + index.size(), index.size() >= RECORDS / INDEX_INTERVAL - 1);
+        assertEquals(0, index.findStart(start - 1));
+        assertEquals(0, index.findStart(start));
+        assertEquals(-1, index.findEnd(start + (RECORDS - 1) * STEP));
+        assertEquals(-1, index.findEnd(Long.MAX_VALUE - 1));
+
+        long from = index.findStart(start + 35 * STEP);
+        long to = index.findEnd(start + 52 * STEP);
+        assertTrue("start " + from, from > 0);
+        assertTrue("end " + to, to > from && to < fileLength);
+    }
+
+    private void assertRange(File logFile, int first, int last) throws IOException {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, read(logFile, start + first * STEP, start + last * STEP));
+    }
+
+    /**
+     * 按时间范围读取，返回读到的日志序号
+     */
+    private List<Integer> read(File logFile, long from, long to) throws IOException {
+        StringWriter out = new StringWriter();
+        new LogRangeReader(logFile, Constant.DEFAULT_FORMAT_PATTERN).read(from, to, out);
+        List<Integer> ids = new ArrayList<>();
+        Matcher matcher = RECORD_ID.matcher(out.toString());
+        while (matcher.find()) {
+            ids.add(Integer.parseInt(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private LogFileWriter newWriter(int compressMode) {
+        LogFileWriter writer = new LogFileWriter(folder.getPath(), 4096,
+                new TextRecordEncoder(Constant.DEFAULT_FORMAT_PATTERN), compressMode);
+        writer.setTimeIndex(INDEX_INTERVAL, 0);
+        return writer;
+    }
+
+    private void write(LogFileWriter writer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            writer.write(record(start + i * STEP, i));
+        }
+    }
+
+    private DiskRecord record(long timestamp, int id) {
+        return new DiskRecord(timestamp, Constant.INFO, "Net", "main", null,
+                String.format(Locale.US, "record %03d", id), strategy);
+    }
+}
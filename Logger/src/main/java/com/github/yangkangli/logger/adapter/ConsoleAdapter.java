@@ -1,25 +1,33 @@
 package com.github.yangkangli.logger.adapter;
 
-import android.text.TextUtils;
 import android.util.Log;
 
 import com.github.yangkangli.logger.core.BaseLogStrategy;
 import com.github.yangkangli.logger.utils.Constant;
 import com.github.yangkangli.logger.core.ILogAdapter;
-import com.github.yangkangli.logger.utils.Utils;
-
-import java.util.List;
+import com.github.yangkangli.logger.core.LogEvent;
+import com.github.yangkangli.logger.core.LogLayout;
 
 /**
  * 控制台日志适配器
  */
 public class ConsoleAdapter implements ILogAdapter {
 
+    /**
+     * 每条logcat日志的最大字符数，logcat单条日志的长度上限约为4K字节
+     */
+    private static final int CHUNK_SIZE = 1000;
+
     /**
      * 是否开启打印日志
      */
     private boolean loggable;
 
+    /**
+     * 打印日志的最低级别
+     */
+    private int minPriority;
+
     /**
      * 构造方法
      *
@@ -27,6 +35,7 @@ public class ConsoleAdapter implements ILogAdapter {
      */
     private ConsoleAdapter(Builder builder) {
         this.loggable = builder.loggable;
+        this.minPriority = builder.minPriority;
     }
 
 
@@ -36,73 +45,43 @@ public class ConsoleAdapter implements ILogAdapter {
     }
 
     @Override
-    public void log(int priority, String subTag, String message, BaseLogStrategy strategy) {
+    public int getMinPriority() {
+        return minPriority;
+    }
 
-        // 得到完整的Tag
-        String tag = getFullTag(strategy, subTag);
-
-        // 上边线
-        String topBorder = Utils.getTopBorder(subTag, strategy.getBorderMaxLength(), strategy.getLinkerLength());
-        Log.println(priority, tag, topBorder);
-
-        // 线程名称
-        if (strategy.isShowThreadName()) {
-            String threadName = Constant.HORIZONTAL_LINE + " Thread:" + Thread.currentThread().getName();
-            Log.println(priority, tag, threadName);
-            // 分隔线
-            String divider = Utils.getDivider(subTag, strategy.getBorderMaxLength(), strategy.getLinkerLength());
-            Log.println(priority, tag, divider);
-        }
+    @Override
+    public void log(LogEvent event, BaseLogStrategy strategy) {
+        int priority = event.getPriority();
+        String subTag = event.getSubTag();
 
-        // 调用堆栈
-        if (strategy.isShowStackTrace()) {
-            String level = "";
-            List<StackTraceElement> traceList = Utils.getTraceList(Thread.currentThread().getStackTrace(), strategy.getMethodCount());
-            for (StackTraceElement element : traceList) {
-                StringBuilder builder = new StringBuilder();
-                builder.append(Constant.HORIZONTAL_LINE)
-                        .append(' ')
-                        .append(level)
-                        .append(Utils.getSimpleClassName(element.getClassName()))
-                        .append(".")
-                        .append(element.getMethodName())
-                        .append(" ")
-                        .append(" (")
-                        .append(element.getFileName())
-                        .append(":")
-                        .append(element.getLineNumber())
-                        .append(")");
-                level += "    ";
-                Log.println(priority, tag, builder.toString());
+        // 得到完整的Tag
+        String tag = strategy.getFullTag(subTag);
+
+        // 排版到当前线程的缓冲区
+        LogLayout layout = LogLayout.obtain();
+        layout.layout(strategy, subTag,
+                strategy.isShowThreadName() ? event.getThreadName() : null,
+                strategy.isShowStackTrace() ? event.getStackLines() : null,
+                event.getMessage());
+
+        // 相邻的多行合并为一条logcat日志输出，每条不超过CHUNK_SIZE个字符
+        char[] chars = layout.getChars();
+        int lineCount = layout.getLineCount();
+        int chunkFirstLine = 0;
+        int chunkStart = 0;
+        int chunkEnd = 0;
+        for (int i = 0; i < lineCount; i++) {
+            int lineEnd = layout.getLineEnd(i);
+            if (i > chunkFirstLine && lineEnd - chunkStart > CHUNK_SIZE) {
+                Log.println(priority, tag, new String(chars, chunkStart, chunkEnd - chunkStart));
+                chunkFirstLine = i;
+                chunkStart = layout.getLineStart(i);
             }
-            // 分隔线
-            String divider = Utils.getDivider(subTag, strategy.getBorderMaxLength(), strategy.getLinkerLength());
-            Log.println(priority, tag, divider);
+            chunkEnd = lineEnd;
         }
-
-        // 消息内容
-        String[] strings = Utils.splitMessage(message);
-        for (String msg : strings) {
-            Log.println(priority, tag, Constant.HORIZONTAL_LINE + " " + msg);
-        }
-
-        // 下边线
-        String bottomBorder = Utils.getBottomBorder(subTag, strategy.getBorderMaxLength(), strategy.getLinkerLength());
-        Log.println(priority, tag, bottomBorder);
-    }
-
-    /**
-     * 获得完整的Tag（BaseTag+SubTag）
-     *
-     * @param strategy
-     * @param subTag
-     * @return
-     */
-    private String getFullTag(BaseLogStrategy strategy, String subTag) {
-        if (!TextUtils.isEmpty(subTag)) {
-            return strategy.getBaseTag() + strategy.getLinker() + subTag;
+        if (lineCount > 0) {
+            Log.println(priority, tag, new String(chars, chunkStart, chunkEnd - chunkStart));
         }
-        return strategy.getBaseTag();
     }
 
     /**
@@ -114,6 +93,11 @@ public class ConsoleAdapter implements ILogAdapter {
          */
         private boolean loggable = true;
 
+        /**
+         * 打印日志的最低级别
+         */
+        private int minPriority = Constant.VERBOSE;
+
         /**
          * 设置是否开启打印日志
          *
@@ -125,6 +109,17 @@ public class ConsoleAdapter implements ILogAdapter {
             return this;
         }
 
+        /**
+         * 设置打印日志的最低级别，如{@link Constant#WARN}
+         *
+         * @param priority
+         * @return
+         */
+        public Builder setMinPriority(int priority) {
+            this.minPriority = priority;
+            return this;
+        }
+
         /**
          * 构造ConsoleAdapter
          *
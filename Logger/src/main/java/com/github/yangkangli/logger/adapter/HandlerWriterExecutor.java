@@ -0,0 +1,63 @@
+package com.github.yangkangli.logger.adapter;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.github.yangkangli.logger.disk.WriterExecutor;
+import com.github.yangkangli.logger.utils.Utils;
+
+/**
+ * 基于Handler的写日志线程，DiskAdapter的写日志任务投递到指定Looper所在的线程中执行
+ */
+public class HandlerWriterExecutor implements WriterExecutor {
+
+    /**
+     * 投递任务的Handler
+     */
+    private final Handler handler;
+
+    /**
+     * 写日志线程的Looper
+     */
+    private final Looper looper;
+
+    /**
+     * 构造方法
+     *
+     * @param looper
+     */
+    public HandlerWriterExecutor(@NonNull Looper looper) {
+        this.looper = Utils.checkNotNull(looper);
+        this.handler = new Handler(looper);
+    }
+
+    /**
+     * 启动一个新的HandlerThread作为写日志线程
+     *
+     * @param threadName
+     * @return
+     */
+    public static HandlerWriterExecutor start(String threadName) {
+        HandlerThread thread = new HandlerThread(threadName);
+        thread.start();
+        return new HandlerWriterExecutor(thread.getLooper());
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        handler.post(task);
+    }
+
+    @Override
+    public void executeDelayed(Runnable task, long delayMillis) {
+        handler.postDelayed(task, delayMillis);
+    }
+
+    @Override
+    public boolean isInExecutor() {
+        return Looper.myLooper() == looper;
+    }
+}